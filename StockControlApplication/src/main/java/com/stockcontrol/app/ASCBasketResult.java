@@ -0,0 +1,76 @@
+package com.stockcontrol.app;
+
+/**
+ * The outcome of an attempt to sell a whole basket of stock. Either every line
+ * of the basket was sold, or nothing was sold and the result names the first
+ * product that prevented the sale.
+ */
+public class ASCBasketResult {
+
+    private final ASCSaleResult result;
+    private final String failedProductCode;
+    private final int linesSold;
+
+    /**
+     * Constructor for ASCBasketResult class.
+     *
+     * @param result The result of the basket sale.
+     * @param failedProductCode The product code of the line that prevented the
+     * sale, or null if the basket was sold or was empty.
+     * @param linesSold The number of distinct products sold.
+     */
+    public ASCBasketResult(ASCSaleResult result, String failedProductCode, int linesSold) {
+        this.result = result;
+        this.failedProductCode = failedProductCode;
+        this.linesSold = linesSold;
+    }
+
+    /**
+     * Gets the result of the basket sale.
+     *
+     * @return The sale result.
+     */
+    public ASCSaleResult getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the product code of the line that prevented the sale.
+     *
+     * @return The product code, or null if the basket was sold.
+     */
+    public String getFailedProductCode() {
+        return failedProductCode;
+    }
+
+    /**
+     * Gets the number of distinct products sold.
+     *
+     * @return The number of lines sold, or zero if nothing was sold.
+     */
+    public int getLinesSold() {
+        return linesSold;
+    }
+
+    /**
+     * Checks whether the whole basket was sold.
+     *
+     * @return True if every line was sold.
+     */
+    public boolean isSuccess() {
+        return result == ASCSaleResult.SUCCESS;
+    }
+
+    /**
+     * Generates a string representation of the basket result.
+     *
+     * @return The formatted string.
+     */
+    @Override
+    public String toString() {
+        if (isSuccess()) {
+            return "SUCCESS - LINES: " + linesSold;
+        }
+        return result + (failedProductCode == null ? "" : " - PRODUCT: " + failedProductCode);
+    }
+}
@@ -0,0 +1,541 @@
+package com.stockcontrol.app;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A stock store for very large catalogs that keeps no object per stock item.
+ * Prices and quantities are held in primitive arrays, one per column, and
+ * product codes, titles and descriptions are stored once each as UTF-8 in a
+ * shared byte arena, so a description used by many items takes no extra
+ * space. Items are handed out as lightweight {@link ASCStockItem} views that
+ * read and write the columns of their row.
+ * <p>
+ * Lookups by product code and quantity updates through views are lock-free
+ * and safe alongside appends. The columns and the arena are grown by copying
+ * them into a new holder, which is published through a volatile field only
+ * once the copy is complete, so a reader always sees whole arrays. Quantities
+ * are kept in fixed-size chunks that are never copied, so a compare-and-set on
+ * a quantity cannot be lost to a concurrent resize. Appends and other changes
+ * to the list are synchronized on the store; inserting, replacing or removing
+ * rows must not run alongside lookups, and a view refers to a row position and
+ * keeps the product code it first read, so views taken before an item is
+ * inserted, replaced or removed ahead of them refer to a different item
+ * afterwards.
+ */
+public class ASCColumnarStockStore extends AbstractList<ASCStockItem> implements ASCStockStore, RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_ENTRY = 0;
+    private static final int QUANTITY_CHUNK_BITS = 14;
+    private static final int QUANTITY_CHUNK_SIZE = 1 << QUANTITY_CHUNK_BITS;
+    private static final int QUANTITY_CHUNK_MASK = QUANTITY_CHUNK_SIZE - 1;
+    private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // Row columns and string arena, replaced as a whole when any array grows
+    private volatile int size;
+    private volatile Columns columns = new Columns();
+    private volatile int[][] quantityChunks = {new int[QUANTITY_CHUNK_SIZE]};
+
+    // String arena fill, touched only under the store's lock
+    private int arenaSize;
+    private int stringCount;
+
+    // Open-addressing hash tables holding string id + 1 and row + 1. Slots of
+    // the code table are published with release writes, so a lookup that
+    // finds a row also sees the row's columns.
+    private int[] stringTable = new int[INITIAL_CAPACITY * 2];
+    private volatile int[] codeTable = new int[INITIAL_CAPACITY * 2];
+
+    /**
+     * The row columns and the string arena, which holds the UTF-8 bytes of
+     * each distinct string end to end. Elements are written in place under
+     * the store's lock; an array that must grow is copied into a new holder.
+     */
+    private static final class Columns {
+
+        private int[] codeIds = new int[INITIAL_CAPACITY];
+        private int[] titleIds = new int[INITIAL_CAPACITY];
+        private int[] descriptionIds = new int[INITIAL_CAPACITY];
+        private int[] unitPricePounds = new int[INITIAL_CAPACITY];
+        private int[] unitPricePence = new int[INITIAL_CAPACITY];
+        private byte[] arena = new byte[INITIAL_CAPACITY * 64];
+        private int[] stringOffsets = new int[INITIAL_CAPACITY];
+        private int[] stringLengths = new int[INITIAL_CAPACITY];
+        private int[] stringHashes = new int[INITIAL_CAPACITY];
+
+        private Columns() {
+        }
+
+        // Copies the array references of another holder, for the caller to replace the ones that grow
+        private Columns(Columns other) {
+            codeIds = other.codeIds;
+            titleIds = other.titleIds;
+            descriptionIds = other.descriptionIds;
+            unitPricePounds = other.unitPricePounds;
+            unitPricePence = other.unitPricePence;
+            arena = other.arena;
+            stringOffsets = other.stringOffsets;
+            stringLengths = other.stringLengths;
+            stringHashes = other.stringHashes;
+        }
+
+        // Decodes a string from the arena
+        String getString(int id) {
+            return new String(arena, stringOffsets[id], stringLengths[id], StandardCharsets.UTF_8);
+        }
+
+        // Compares an arena string with UTF-8 bytes
+        boolean equalsBytes(int id, byte[] bytes, int offset, int length) {
+            return stringLengths[id] == length && Arrays.equals(arena, stringOffsets[id],
+                    stringOffsets[id] + length, bytes, offset, offset + length);
+        }
+
+        // Compares an arena string with an ASCII string without encoding it
+        boolean equalsAscii(int id, String value) {
+            int length = value.length();
+            if (stringLengths[id] != length) {
+                return false;
+            }
+            int offset = stringOffsets[id];
+            for (int i = 0; i < length; i++) {
+                if (arena[offset + i] != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A stock item view over one row of the store. The product code is
+     * decoded once and kept, as sales and observers read it repeatedly.
+     */
+    private final class RowView extends ASCStockItem {
+
+        private final int row;
+        private String productCode;
+
+        private RowView(int row, String productCode) {
+            this.row = row;
+            this.productCode = productCode;
+        }
+
+        @Override
+        public String getProductCode() {
+            String code = productCode;
+            if (code == null) {
+                Columns current = columns;
+                code = current.getString(current.codeIds[row]);
+                productCode = code;
+            }
+            return code;
+        }
+
+        @Override
+        public String getProductTitle() {
+            Columns current = columns;
+            return current.getString(current.titleIds[row]);
+        }
+
+        @Override
+        public String getProductDescription() {
+            Columns current = columns;
+            return current.getString(current.descriptionIds[row]);
+        }
+
+        @Override
+        public int getUnitPricePounds() {
+            return columns.unitPricePounds[row];
+        }
+
+        @Override
+        public int getUnitPricePence() {
+            return columns.unitPricePence[row];
+        }
+
+        @Override
+        public int getQuantityInStock() {
+            return getQuantity(row);
+        }
+
+        @Override
+        public void setQuantityInStock(int newQuantity) {
+            if (newQuantity >= 0) {
+                setQuantity(row, newQuantity);
+            }
+        }
+
+        @Override
+        protected boolean compareAndSetQuantityInStock(int expectedQuantity, int newQuantity) {
+            int[] chunk = quantityChunks[row >>> QUANTITY_CHUNK_BITS];
+            return INT_ARRAY.compareAndSet(chunk, row & QUANTITY_CHUNK_MASK, expectedQuantity, newQuantity);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RowView && ((RowView) other).row == row && ((RowView) other).store() == store();
+        }
+
+        @Override
+        public int hashCode() {
+            return row;
+        }
+
+        // Helper method to reach the owning store from another view
+        private ASCColumnarStockStore store() {
+            return ASCColumnarStockStore.this;
+        }
+    }
+
+    /**
+     * Constructs an empty ASCColumnarStockStore.
+     */
+    public ASCColumnarStockStore() {
+    }
+
+    @Override
+    public ASCStockItem findByProductCode(String productCode) {
+        int row = findRow(productCode);
+        return row < 0 ? null : new RowView(row, productCode);
+    }
+
+    @Override
+    public boolean containsProductCode(String productCode) {
+        return findRow(productCode) >= 0;
+    }
+
+    @Override
+    public int indexOfProductCode(String productCode) {
+        return findRow(productCode);
+    }
+
+    @Override
+    public synchronized ASCStockItem get(int index) {
+        checkIndex(index, size);
+        return new RowView(index, null);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized ASCStockItem set(int index, ASCStockItem item) {
+        checkIndex(index, size);
+        ASCStockItem previous = copyOf(index);
+        writeRow(index, item);
+        rebuildCodeTable();
+        return previous;
+    }
+
+    @Override
+    public synchronized void add(int index, ASCStockItem item) {
+        checkIndex(index, size + 1);
+        ensureRowCapacity(size + 1);
+        if (index < size) {
+            shiftRows(index, index + 1, size - index);
+        }
+        size++;
+        modCount++;
+        writeRow(index, item);
+
+        if (index == size - 1) {
+            indexCode(codeTable, index);
+        } else {
+            rebuildCodeTable();
+        }
+    }
+
+    @Override
+    public synchronized ASCStockItem remove(int index) {
+        checkIndex(index, size);
+        ASCStockItem removed = copyOf(index);
+        shiftRows(index + 1, index, size - index - 1);
+        size--;
+        modCount++;
+        rebuildCodeTable();
+        return removed;
+    }
+
+    @Override
+    public synchronized void clear() {
+        size = 0;
+        arenaSize = 0;
+        stringCount = 0;
+        Arrays.fill(stringTable, NO_ENTRY);
+        codeTable = new int[codeTable.length];
+        modCount++;
+    }
+
+    /**
+     * Gets the number of distinct strings held in the arena.
+     *
+     * @return The distinct string count.
+     */
+    public synchronized int getDistinctStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Estimates the heap space used by the store, in bytes, excluding the
+     * views currently handed out.
+     *
+     * @return The estimated footprint in bytes.
+     */
+    public synchronized long getFootprintBytes() {
+        Columns current = columns;
+        return 5L * 4 * current.codeIds.length + 4L * QUANTITY_CHUNK_SIZE * quantityChunks.length
+                + current.arena.length + 3L * 4 * current.stringOffsets.length
+                + 4L * (stringTable.length + codeTable.length);
+    }
+
+    // Helper method to copy a row into a standalone item, used where a
+    // removed or replaced row must outlive the change
+    private ASCStockItem copyOf(int row) {
+        Columns current = columns;
+        return new ASCStockItem(current.getString(current.codeIds[row]), current.getString(current.titleIds[row]),
+                current.getString(current.descriptionIds[row]), current.unitPricePounds[row],
+                current.unitPricePence[row], getQuantity(row));
+    }
+
+    // Helper method to store an item's values in a row
+    private void writeRow(int row, ASCStockItem item) {
+        int codeId = intern(item.getProductCode());
+        int titleId = intern(item.getProductTitle());
+        int descriptionId = intern(item.getProductDescription());
+        // Interning may have moved the columns to a larger arena
+        Columns current = columns;
+        current.codeIds[row] = codeId;
+        current.titleIds[row] = titleId;
+        current.descriptionIds[row] = descriptionId;
+        current.unitPricePounds[row] = item.getUnitPricePounds();
+        current.unitPricePence[row] = item.getUnitPricePence();
+        setQuantity(row, item.getQuantityInStock());
+    }
+
+    // Helper method to read a quantity from its chunk
+    private int getQuantity(int row) {
+        return (int) INT_ARRAY.getVolatile(quantityChunks[row >>> QUANTITY_CHUNK_BITS], row & QUANTITY_CHUNK_MASK);
+    }
+
+    // Helper method to write a quantity to its chunk
+    private void setQuantity(int row, int quantity) {
+        INT_ARRAY.setVolatile(quantityChunks[row >>> QUANTITY_CHUNK_BITS], row & QUANTITY_CHUNK_MASK, quantity);
+    }
+
+    // Helper method to move a run of rows within the columns
+    private void shiftRows(int from, int to, int count) {
+        Columns current = columns;
+        System.arraycopy(current.codeIds, from, current.codeIds, to, count);
+        System.arraycopy(current.titleIds, from, current.titleIds, to, count);
+        System.arraycopy(current.descriptionIds, from, current.descriptionIds, to, count);
+        System.arraycopy(current.unitPricePounds, from, current.unitPricePounds, to, count);
+        System.arraycopy(current.unitPricePence, from, current.unitPricePence, to, count);
+        if (from < to) {
+            for (int i = count - 1; i >= 0; i--) {
+                setQuantity(to + i, getQuantity(from + i));
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                setQuantity(to + i, getQuantity(from + i));
+            }
+        }
+    }
+
+    // Helper method to grow the row columns
+    private void ensureRowCapacity(int capacity) {
+        Columns current = columns;
+        if (capacity <= current.codeIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, current.codeIds.length * 2);
+        Columns grown = new Columns(current);
+        grown.codeIds = Arrays.copyOf(current.codeIds, newCapacity);
+        grown.titleIds = Arrays.copyOf(current.titleIds, newCapacity);
+        grown.descriptionIds = Arrays.copyOf(current.descriptionIds, newCapacity);
+        grown.unitPricePounds = Arrays.copyOf(current.unitPricePounds, newCapacity);
+        grown.unitPricePence = Arrays.copyOf(current.unitPricePence, newCapacity);
+        columns = grown;
+
+        int chunksNeeded = (newCapacity + QUANTITY_CHUNK_SIZE - 1) >>> QUANTITY_CHUNK_BITS;
+        if (chunksNeeded > quantityChunks.length) {
+            int[][] chunks = Arrays.copyOf(quantityChunks, chunksNeeded);
+            for (int i = quantityChunks.length; i < chunksNeeded; i++) {
+                chunks[i] = new int[QUANTITY_CHUNK_SIZE];
+            }
+            quantityChunks = chunks;
+        }
+        if (codeTable.length < newCapacity * 2) {
+            rebuildCodeTable(newCapacity * 2);
+        }
+    }
+
+    // Helper method to find the first row with a product code, or -1
+    private int findRow(String productCode) {
+        byte[] encoded = isAscii(productCode) ? null : productCode.getBytes(StandardCharsets.UTF_8);
+        int hash = encoded == null ? hashAscii(productCode) : hashBytes(encoded, 0, encoded.length);
+        int[] table = codeTable;
+        int mask = table.length - 1;
+
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            int entry = (int) INT_ARRAY.getAcquire(table, slot);
+            if (entry == NO_ENTRY) {
+                return -1;
+            }
+            // Read after the entry, so the columns hold at least the row it names
+            Columns current = columns;
+            int codeId = current.codeIds[entry - 1];
+            if (current.stringHashes[codeId] == hash && (encoded == null ? current.equalsAscii(codeId, productCode)
+                    : current.equalsBytes(codeId, encoded, 0, encoded.length))) {
+                return entry - 1;
+            }
+        }
+    }
+
+    // Helper method to add a row to the product code table unless an earlier
+    // row already has its code
+    private void indexCode(int[] table, int row) {
+        Columns current = columns;
+        int codeId = current.codeIds[row];
+        int mask = table.length - 1;
+
+        for (int slot = current.stringHashes[codeId] & mask;; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == NO_ENTRY) {
+                INT_ARRAY.setRelease(table, slot, row + 1);
+                return;
+            }
+            if (current.codeIds[entry - 1] == codeId) {
+                return;
+            }
+        }
+    }
+
+    // Helper method to rebuild the product code table after rows have moved,
+    // publishing the new table once it is complete
+    private void rebuildCodeTable() {
+        rebuildCodeTable(codeTable.length);
+    }
+
+    // Helper method to rebuild the product code table at a given capacity
+    private void rebuildCodeTable(int capacity) {
+        int[] table = new int[capacity];
+        for (int row = 0; row < size; row++) {
+            indexCode(table, row);
+        }
+        codeTable = table;
+    }
+
+    // Helper method to store a string in the arena once, returning its id
+    private int intern(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hashBytes(bytes, 0, bytes.length);
+        int mask = stringTable.length - 1;
+        Columns current = columns;
+
+        int slot = hash & mask;
+        for (;; slot = (slot + 1) & mask) {
+            int entry = stringTable[slot];
+            if (entry == NO_ENTRY) {
+                break;
+            }
+            if (current.stringHashes[entry - 1] == hash && current.equalsBytes(entry - 1, bytes, 0, bytes.length)) {
+                return entry - 1;
+            }
+        }
+
+        if (arenaSize + bytes.length > current.arena.length || stringCount == current.stringOffsets.length) {
+            current = growStrings(current, bytes.length);
+        }
+        System.arraycopy(bytes, 0, current.arena, arenaSize, bytes.length);
+        int id = stringCount++;
+        current.stringOffsets[id] = arenaSize;
+        current.stringLengths[id] = bytes.length;
+        current.stringHashes[id] = hash;
+        arenaSize += bytes.length;
+        stringTable[slot] = id + 1;
+
+        if (stringCount * 2 > stringTable.length) {
+            rebuildStringTable(stringTable.length * 2);
+        }
+        return id;
+    }
+
+    // Helper method to copy the arena and string arrays into a new holder with
+    // room for one more string, publishing it once the copy is complete
+    private Columns growStrings(Columns current, int length) {
+        Columns grown = new Columns(current);
+        if (arenaSize + length > current.arena.length) {
+            long newLength = Math.max((long) current.arena.length * 2, (long) arenaSize + length);
+            grown.arena = Arrays.copyOf(current.arena, (int) Math.min(newLength, Integer.MAX_VALUE - 8));
+        }
+        if (stringCount == current.stringOffsets.length) {
+            int newCapacity = stringCount * 2;
+            grown.stringOffsets = Arrays.copyOf(current.stringOffsets, newCapacity);
+            grown.stringLengths = Arrays.copyOf(current.stringLengths, newCapacity);
+            grown.stringHashes = Arrays.copyOf(current.stringHashes, newCapacity);
+        }
+        columns = grown;
+        return grown;
+    }
+
+    // Helper method to grow the string table
+    private void rebuildStringTable(int capacity) {
+        stringTable = new int[capacity];
+        int mask = capacity - 1;
+        int[] stringHashes = columns.stringHashes;
+        for (int id = 0; id < stringCount; id++) {
+            int slot = stringHashes[id] & mask;
+            while (stringTable[slot] != NO_ENTRY) {
+                slot = (slot + 1) & mask;
+            }
+            stringTable[slot] = id + 1;
+        }
+    }
+
+    // Helper method to check whether a string is plain ASCII
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Helper method to hash UTF-8 bytes
+    private static int hashBytes(byte[] bytes, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return spread(hash);
+    }
+
+    // Helper method to hash an ASCII string as its UTF-8 bytes would hash
+    private static int hashAscii(String value) {
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return spread(hash);
+    }
+
+    // Helper method to mix the high bits of a hash into the low bits
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    // Helper method to check a row index against a bound
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+}
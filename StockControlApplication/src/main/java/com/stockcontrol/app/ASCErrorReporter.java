@@ -0,0 +1,30 @@
+package com.stockcontrol.app;
+
+import java.awt.GraphicsEnvironment;
+import javax.swing.JOptionPane;
+
+/**
+ * Reports errors from the stock control classes to the user: in an error
+ * dialog when a display is available, or on standard error when running
+ * headless, for example as an HTTP service, where a dialog could not be
+ * shown.
+ */
+public final class ASCErrorReporter {
+
+    // Private constructor; the class only has static methods
+    private ASCErrorReporter() {
+    }
+
+    /**
+     * Reports an error.
+     *
+     * @param message The error message.
+     */
+    public static void showError(String message) {
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println("Error: " + message);
+        } else {
+            JOptionPane.showMessageDialog(null, message, "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
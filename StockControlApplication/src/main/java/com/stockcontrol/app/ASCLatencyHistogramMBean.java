@@ -0,0 +1,56 @@
+package com.stockcontrol.app;
+
+/**
+ * JMX view of an ASCLatencyHistogram. Latencies are in nanoseconds.
+ */
+public interface ASCLatencyHistogramMBean {
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return The count.
+     */
+    long getCount();
+
+    /**
+     * Gets the mean recorded latency.
+     *
+     * @return The mean in nanoseconds.
+     */
+    double getMeanNanos();
+
+    /**
+     * Gets the median recorded latency.
+     *
+     * @return The 50th percentile in nanoseconds.
+     */
+    long getP50Nanos();
+
+    /**
+     * Gets the 90th percentile of the recorded latencies.
+     *
+     * @return The 90th percentile in nanoseconds.
+     */
+    long getP90Nanos();
+
+    /**
+     * Gets the 99th percentile of the recorded latencies.
+     *
+     * @return The 99th percentile in nanoseconds.
+     */
+    long getP99Nanos();
+
+    /**
+     * Gets the 99.9th percentile of the recorded latencies.
+     *
+     * @return The 99.9th percentile in nanoseconds.
+     */
+    long getP999Nanos();
+
+    /**
+     * Gets the largest recorded latency.
+     *
+     * @return The maximum in nanoseconds.
+     */
+    long getMaxNanos();
+}
@@ -0,0 +1,20 @@
+package com.stockcontrol.app;
+
+import java.util.List;
+
+/**
+ * Interface for listeners interested in stock items falling below their low
+ * stock threshold.
+ */
+public interface ASCLowStockListener {
+
+    /**
+     * Called with the items that have fallen below their threshold since the
+     * previous alert. Alerts are delivered on a background thread, at most
+     * once per alert interval, and name each item once however often its
+     * quantity changed in between.
+     *
+     * @param lowStockItems The items that are now low on stock.
+     */
+    void lowStockAlert(List<ASCStockItem> lowStockItems);
+}
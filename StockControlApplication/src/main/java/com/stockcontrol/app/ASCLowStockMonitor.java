@@ -0,0 +1,276 @@
+package com.stockcontrol.app;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps track of the stock items that are below their low stock threshold.
+ * Thresholds can be set per product code and per department (the first three
+ * letters of the product code, such as RUN, SWM or CYC), falling back to a
+ * default threshold.
+ * <p>
+ * The low items are kept in a map keyed by product code that is updated as
+ * each quantity change is reported, so listing them takes time proportional
+ * to the number of low items rather than the size of the catalog. Items
+ * falling below their threshold are reported to listeners in coalesced,
+ * rate-limited alerts on a background thread, so reporting a change never
+ * blocks the caller.
+ */
+public class ASCLowStockMonitor {
+
+    private final Collection<ASCStockItem> stockItems;
+    private final int defaultThreshold;
+    private final long alertIntervalMillis;
+    private final ConcurrentHashMap<String, Integer> productThresholds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> departmentThresholds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ASCStockItem> lowStockItems = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ASCStockItem> pendingAlerts = new ConcurrentHashMap<>();
+    private final List<ASCLowStockListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean alertScheduled = new AtomicBoolean();
+    private volatile long lastAlertNanos;
+    private ScheduledExecutorService executor;
+    private boolean closed;
+
+    /**
+     * Constructor for ASCLowStockMonitor class.
+     *
+     * @param stockItems The stock items to monitor, scanned when thresholds
+     * change or the monitor is refreshed.
+     * @param defaultThreshold The threshold for items with no product or
+     * department threshold; items with fewer in stock are low.
+     * @param alertIntervalMillis The minimum time between two alerts in
+     * milliseconds.
+     */
+    public ASCLowStockMonitor(Collection<ASCStockItem> stockItems, int defaultThreshold, long alertIntervalMillis) {
+        this.stockItems = stockItems;
+        this.defaultThreshold = defaultThreshold;
+        this.alertIntervalMillis = alertIntervalMillis;
+        this.lastAlertNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(alertIntervalMillis);
+    }
+
+    /**
+     * Adds a listener to be alerted about items falling below their threshold.
+     * Items that fell below their threshold before the first listener was
+     * added are included in the next alert.
+     *
+     * @param listener The listener to be added.
+     */
+    public void addListener(ASCLowStockListener listener) {
+        listeners.add(listener);
+        // Report items that fell below their threshold before anyone was listening
+        if (!pendingAlerts.isEmpty()) {
+            scheduleAlert();
+        }
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener to be removed.
+     */
+    public void removeListener(ASCLowStockListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the threshold that applies to a product code.
+     *
+     * @param productCode The product code.
+     * @return The product threshold if set, otherwise the department threshold
+     * if set, otherwise the default threshold.
+     */
+    public int getThreshold(String productCode) {
+        Integer threshold = productThresholds.get(productCode);
+        if (threshold == null) {
+            threshold = departmentThresholds.get(ASCStockItem.getDepartment(productCode));
+        }
+        return threshold == null ? defaultThreshold : threshold;
+    }
+
+    /**
+     * Sets the threshold for one product, overriding its department threshold.
+     *
+     * @param productCode The product code.
+     * @param threshold The new threshold.
+     */
+    public void setProductThreshold(String productCode, int threshold) {
+        productThresholds.put(productCode, threshold);
+        updateMatching(productCode, null);
+    }
+
+    /**
+     * Sets the threshold for every product in a department that has no
+     * product threshold of its own. Rescans the monitored stock items.
+     *
+     * @param department The department, such as RUN, SWM or CYC.
+     * @param threshold The new threshold.
+     */
+    public void setDepartmentThreshold(String department, int threshold) {
+        departmentThresholds.put(department, threshold);
+        updateMatching(null, department);
+    }
+
+    /**
+     * Rescans every monitored stock item, for example after the stock has been
+     * loaded.
+     */
+    public void refresh() {
+        synchronized (stockItems) {
+            for (ASCStockItem item : stockItems) {
+                update(item);
+            }
+        }
+        // Forget low items that are no longer in the stock
+        for (String productCode : lowStockItems.keySet()) {
+            if (findItem(productCode) == null) {
+                lowStockItems.remove(productCode);
+            }
+        }
+    }
+
+    /**
+     * Re-evaluates one stock item after its quantity has changed. Runs in
+     * constant time and never blocks on listeners.
+     *
+     * @param item The changed stock item.
+     */
+    public void update(ASCStockItem item) {
+        String productCode = item.getProductCode();
+        boolean low;
+        do {
+            low = isLow(item);
+            if (low) {
+                if (lowStockItems.put(productCode, item) == null) {
+                    pendingAlerts.put(productCode, item);
+                    scheduleAlert();
+                }
+            } else {
+                lowStockItems.remove(productCode);
+            }
+            // Repeat if a concurrent change moved the item across its threshold meanwhile
+        } while (low != isLow(item));
+    }
+
+    /**
+     * Gets the stock items that are currently below their threshold.
+     *
+     * @return A list of the low items, in no particular order.
+     */
+    public List<ASCStockItem> getLowStockItems() {
+        return new ArrayList<>(lowStockItems.values());
+    }
+
+    /**
+     * Gets the number of stock items currently below their threshold.
+     *
+     * @return The number of low items.
+     */
+    public int getLowStockCount() {
+        return lowStockItems.size();
+    }
+
+    /**
+     * Checks whether an item is below its threshold.
+     *
+     * @param item The stock item.
+     * @return True if the item is low on stock.
+     */
+    public boolean isLow(ASCStockItem item) {
+        return item.getQuantityInStock() < getThreshold(item.getProductCode());
+    }
+
+    /**
+     * Stops the alert thread. Alerts not yet delivered are dropped.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // Helper method to re-evaluate the items affected by a threshold change
+    private void updateMatching(String productCode, String department) {
+        if (productCode != null && stockItems instanceof ASCStockStore) {
+            ASCStockItem item = ((ASCStockStore) stockItems).findByProductCode(productCode);
+            if (item != null) {
+                update(item);
+            }
+            return;
+        }
+        synchronized (stockItems) {
+            for (ASCStockItem item : stockItems) {
+                String code = item.getProductCode();
+                if (code.equals(productCode) || ASCStockItem.getDepartment(code).equals(department)) {
+                    update(item);
+                }
+            }
+        }
+    }
+
+    // Helper method to find a monitored item by product code
+    private ASCStockItem findItem(String productCode) {
+        if (stockItems instanceof ASCStockStore) {
+            return ((ASCStockStore) stockItems).findByProductCode(productCode);
+        }
+        synchronized (stockItems) {
+            for (ASCStockItem item : stockItems) {
+                if (item.getProductCode().equals(productCode)) {
+                    return item;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Helper method to schedule one alert, no sooner than the alert interval after the last
+    private void scheduleAlert() {
+        if (listeners.isEmpty() || !alertScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long nextAlertNanos = lastAlertNanos + TimeUnit.MILLISECONDS.toNanos(alertIntervalMillis);
+        long delayNanos = Math.max(0, nextAlertNanos - System.nanoTime());
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (executor == null) {
+                executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "ASC-low-stock-alerts");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            executor.schedule(this::deliverAlert, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Helper method run on the alert thread to send the pending items to the listeners
+    private void deliverAlert() {
+        lastAlertNanos = System.nanoTime();
+        alertScheduled.set(false);
+        List<ASCStockItem> alertItems = new ArrayList<>();
+        for (String productCode : pendingAlerts.keySet()) {
+            ASCStockItem item = pendingAlerts.remove(productCode);
+            // Skip items restocked since they fell below their threshold
+            if (item != null && lowStockItems.containsKey(productCode)) {
+                alertItems.add(item);
+            }
+        }
+        if (!alertItems.isEmpty()) {
+            for (ASCLowStockListener listener : listeners) {
+                listener.lowStockAlert(alertItems);
+            }
+        }
+        if (!pendingAlerts.isEmpty()) {
+            scheduleAlert();
+        }
+    }
+}
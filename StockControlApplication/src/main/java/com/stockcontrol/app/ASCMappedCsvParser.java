@@ -0,0 +1,306 @@
+package com.stockcontrol.app;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Parses comma separated files by memory-mapping them and scanning for field
+ * and line boundaries in the mapped bytes. Rows are passed to a handler one at
+ * a time through a reused {@link Row}, whose integer fields are parsed
+ * straight from the mapped bytes; only the text fields a handler asks for are
+ * decoded into strings.
+ * <p>
+ * A UTF-8 byte order mark at the start of the file is skipped, and bytes that
+ * are not valid UTF-8, such as the single-byte non-breaking spaces in the
+ * shipped catalog, are read as ISO-8859-1 characters instead of being
+ * replaced. Blank lines are skipped.
+ */
+public class ASCMappedCsvParser {
+
+    /**
+     * Receives the rows of a parsed file.
+     */
+    public interface RowHandler {
+
+        /**
+         * Called for each non-blank line of the file. The row is only valid
+         * until this method returns.
+         *
+         * @param row The parsed row.
+         */
+        void handleRow(Row row);
+    }
+
+    /**
+     * A view of the fields of the line currently being parsed.
+     */
+    public static final class Row {
+
+        private MappedByteBuffer buffer;
+        private int[] fieldStarts = new int[8];
+        private int[] fieldEnds = new int[8];
+        private int fieldCount;
+        private byte[] bytes = new byte[256];
+        private char[] chars = new char[256];
+
+        /**
+         * Gets the number of fields in the row.
+         *
+         * @return The field count.
+         */
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * Decodes a field as a string.
+         *
+         * @param index The index of the field.
+         * @return The field text.
+         * @throws ArrayIndexOutOfBoundsException If the row has no such field.
+         */
+        public String getString(int index) {
+            checkIndex(index);
+            int start = fieldStarts[index];
+            int length = fieldEnds[index] - start;
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(start, bytes, 0, length);
+
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                ascii = bytes[i] >= 0;
+            }
+            if (ascii) {
+                return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            return decode(length);
+        }
+
+        /**
+         * Parses a field as an integer directly from the mapped bytes. The
+         * digits may have a leading minus sign and may be surrounded by
+         * padding: spaces, tabs, non-breaking spaces or a stray byte order
+         * mark. Any other byte makes the field invalid.
+         *
+         * @param index The index of the field.
+         * @return The parsed value.
+         * @throws ArrayIndexOutOfBoundsException If the row has no such field.
+         * @throws NumberFormatException If the field is not an integer or the
+         * value does not fit in an int.
+         */
+        public int getInt(int index) {
+            checkIndex(index);
+            int i = fieldStarts[index];
+            int end = fieldEnds[index];
+            while (i < end && isPadding(buffer.get(i))) {
+                i++;
+            }
+            while (end > i && isPadding(buffer.get(end - 1))) {
+                end--;
+            }
+
+            boolean negative = i < end && buffer.get(i) == '-';
+            if (negative) {
+                i++;
+            }
+            if (i == end) {
+                throw new NumberFormatException("No digits in field " + index);
+            }
+
+            long value = 0;
+            for (; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    throw new NumberFormatException("Invalid character in field " + index);
+                }
+                value = value * 10 + (b - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new NumberFormatException("Value out of range in field " + index);
+                }
+            }
+
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Value out of range in field " + index);
+            }
+            return (int) value;
+        }
+
+        // Helper method to recognise the bytes allowed around a number: white
+        // space, a non-breaking space in Latin-1 or UTF-8, or a UTF-8 byte order mark
+        private static boolean isPadding(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == (byte) 0xA0 || b == (byte) 0xC2
+                    || b == (byte) 0xEF || b == (byte) 0xBB || b == (byte) 0xBF;
+        }
+
+        // Helper method to reject field indexes past the end of the row
+        private void checkIndex(int index) {
+            if (index < 0 || index >= fieldCount) {
+                throw new ArrayIndexOutOfBoundsException("Row has " + fieldCount + " fields, no field " + index);
+            }
+        }
+
+        // Helper method to record the bounds of the next field
+        private void addField(int start, int end) {
+            if (fieldCount == fieldStarts.length) {
+                fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            }
+            fieldStarts[fieldCount] = start;
+            fieldEnds[fieldCount] = end;
+            fieldCount++;
+        }
+
+        // Helper method to decode UTF-8, reading invalid bytes as ISO-8859-1
+        private String decode(int length) {
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            int count = 0;
+            int i = 0;
+
+            while (i < length) {
+                int b = bytes[i] & 0xFF;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                    i++;
+                } else if (b >= 0xC2 && b <= 0xDF && isContinuation(i + 1, length)) {
+                    chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i + 1] & 0x3F));
+                    i += 2;
+                } else if ((b & 0xF0) == 0xE0 && isContinuation(i + 1, length) && isContinuation(i + 2, length)) {
+                    chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[i + 1] & 0x3F) << 6)
+                            | (bytes[i + 2] & 0x3F));
+                    i += 3;
+                } else if ((b & 0xF8) == 0xF0 && isContinuation(i + 1, length) && isContinuation(i + 2, length)
+                        && isContinuation(i + 3, length)) {
+                    int codePoint = ((b & 0x07) << 18) | ((bytes[i + 1] & 0x3F) << 12)
+                            | ((bytes[i + 2] & 0x3F) << 6) | (bytes[i + 3] & 0x3F);
+                    count += Character.toChars(codePoint, chars, count);
+                    i += 4;
+                } else {
+                    chars[count++] = (char) b;
+                    i++;
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        // Helper method to check for a UTF-8 continuation byte
+        private boolean isContinuation(int i, int length) {
+            return i < length && (bytes[i] & 0xC0) == 0x80;
+        }
+    }
+
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private final int windowSize;
+
+    /**
+     * Constructs a parser that maps files in windows of up to 1 GB.
+     */
+    public ASCMappedCsvParser() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a parser that maps files in windows of up to the given size.
+     * Each window ends on a line boundary, so no line may be longer than the
+     * window.
+     *
+     * @param windowSize The maximum number of bytes mapped at once.
+     */
+    public ASCMappedCsvParser(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Parses a file with a parser that maps up to 1 GB at a time.
+     *
+     * @param file The file to parse.
+     * @param handler The handler that receives each row.
+     * @return The number of rows parsed.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long parseFile(Path file, RowHandler handler) throws IOException {
+        return new ASCMappedCsvParser().parse(file, handler);
+    }
+
+    /**
+     * Parses a file, passing each non-blank line to the handler.
+     *
+     * @param file The file to parse.
+     * @param handler The handler that receives each row.
+     * @return The number of rows parsed.
+     * @throws IOException If the file cannot be read, or has a line longer
+     * than the mapping window.
+     */
+    public long parse(Path file, RowHandler handler) throws IOException {
+        Row row = new Row();
+        long rows = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                boolean lastWindow = position + length == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                row.buffer = buffer;
+
+                int lineStart = 0;
+                if (position == 0 && length >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                        && buffer.get(2) == (byte) 0xBF) {
+                    lineStart = 3;
+                }
+
+                int fieldStart = lineStart;
+                row.fieldCount = 0;
+                for (int i = lineStart; i < length; i++) {
+                    byte b = buffer.get(i);
+                    if (b == ',') {
+                        row.addField(fieldStart, i);
+                        fieldStart = i + 1;
+                    } else if (b == '\n') {
+                        rows += endLine(row, lineStart, fieldStart, i, handler);
+                        lineStart = i + 1;
+                        fieldStart = lineStart;
+                    }
+                }
+
+                if (lastWindow) {
+                    rows += endLine(row, lineStart, fieldStart, length, handler);
+                    break;
+                }
+                if (lineStart == 0) {
+                    throw new IOException("Line longer than " + windowSize + " bytes in " + file);
+                }
+                position += lineStart;
+            }
+        }
+        return rows;
+    }
+
+    // Helper method to finish a line, dropping its carriage return, and pass
+    // it to the handler unless it is blank
+    private static int endLine(Row row, int lineStart, int fieldStart, int lineEnd, RowHandler handler) {
+        int end = lineEnd;
+        if (end > fieldStart && row.buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (row.fieldCount == 0 && end == lineStart) {
+            return 0;
+        }
+        row.addField(fieldStart, end);
+        handler.handleRow(row);
+        row.fieldCount = 0;
+        return 1;
+    }
+}
@@ -0,0 +1,79 @@
+package com.stockcontrol.app;
+
+/**
+ * Summarises the result of merging a supplier's stock into the ASC stock,
+ * including how long the merge took.
+ */
+public class ASCMergeReport {
+
+    private final int added;
+    private final int duplicates;
+    private final int conflicts;
+    private final long elapsedNanos;
+
+    /**
+     * Constructor for ASCMergeReport class.
+     *
+     * @param added The number of supplier items added to the stock.
+     * @param duplicates The number of supplier items skipped because an
+     * identical item was already in stock.
+     * @param conflicts The number of supplier items skipped because an item
+     * with the same product code but a different price or quantity was already
+     * in stock.
+     * @param elapsedNanos The time taken by the merge in nanoseconds.
+     */
+    public ASCMergeReport(int added, int duplicates, int conflicts, long elapsedNanos) {
+        this.added = added;
+        this.duplicates = duplicates;
+        this.conflicts = conflicts;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of supplier items added to the stock.
+     *
+     * @return The number of items added.
+     */
+    public int getAdded() {
+        return added;
+    }
+
+    /**
+     * Gets the number of supplier items skipped as duplicates.
+     *
+     * @return The number of duplicate items.
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of supplier items skipped because they conflict with an
+     * item already in stock.
+     *
+     * @return The number of conflicting items.
+     */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Gets the time taken by the merge.
+     *
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Generates a formatted string representation of the merge report.
+     *
+     * @return The formatted string.
+     */
+    @Override
+    public String toString() {
+        return String.format("ADDED: %d - DUPLICATES: %d - CONFLICTS: %d - TIME: %.3f ms", added, duplicates,
+                conflicts, elapsedNanos / 1_000_000.0);
+    }
+}
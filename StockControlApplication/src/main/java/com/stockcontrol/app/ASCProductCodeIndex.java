@@ -0,0 +1,268 @@
+package com.stockcontrol.app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ordered index of stock items by product code, for the queries operators
+ * make on the structure of codes: every item of a department prefix such as
+ * CYC, every item carrying a supplier tag such as the -MSM of adapted Mengda's
+ * Sports Mart codes, or every code in a range. The items are kept in arrays
+ * sorted by product code, one for the whole stock and one for each tag, so a
+ * query finds its first code by binary search and then reads the matching
+ * items in order, in O(log n + k) time for k results, and counts the items
+ * of a query in O(log n) time without reading them. The arrays are built with
+ * a single sort when the stock is loaded, and items bought later are inserted
+ * in place. Each insert shifts the items after it along the array, in O(n)
+ * time, which is kept because buys are rare next to queries and the shift is
+ * a single memory move, well under a millisecond even for a million codes; a
+ * tree would make inserts O(log n) at the cost of slower, pointer-chasing
+ * range reads.
+ * <p>
+ * When several items share a product code, only the first one added is
+ * indexed, matching the lookups of the stock store. The index is thread-safe;
+ * its methods are synchronized.
+ */
+public class ASCProductCodeIndex {
+
+    private static final char TAG_SEPARATOR = '-';
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Comparator<ASCStockItem> BY_PRODUCT_CODE
+            = Comparator.comparing(ASCStockItem::getProductCode);
+
+    /**
+     * An array of stock items sorted by product code, with no code repeated.
+     */
+    private static class SortedItems {
+
+        private ASCStockItem[] items = new ASCStockItem[INITIAL_CAPACITY];
+        private int size;
+
+        // Gets the position of the first item whose code is at least the given code
+        int lowerBound(String productCode) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (items[middle].getProductCode().compareTo(productCode) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Gets the position of the first item whose code is after the given code
+        int upperBound(String productCode) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (items[middle].getProductCode().compareTo(productCode) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Gets the position after the last item whose code starts with the given prefix
+        int prefixEnd(String prefix) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                String productCode = items[middle].getProductCode();
+                if (productCode.compareTo(prefix) < 0 || productCode.startsWith(prefix)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Inserts an item in code order, returning false if its code is already present
+        boolean insert(ASCStockItem item) {
+            int position = lowerBound(item.getProductCode());
+            if (position < size && items[position].getProductCode().equals(item.getProductCode())) {
+                return false;
+            }
+            if (size == items.length) {
+                items = Arrays.copyOf(items, Math.max(INITIAL_CAPACITY, size * 2));
+            }
+            System.arraycopy(items, position, items, position + 1, size - position);
+            items[position] = item;
+            size++;
+            return true;
+        }
+
+        // Appends an item known to sort after every item already present
+        void append(ASCStockItem item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, Math.max(INITIAL_CAPACITY, size * 2));
+            }
+            items[size++] = item;
+        }
+
+        // Copies the items between two positions into a new list
+        List<ASCStockItem> copyRange(int from, int to) {
+            return new ArrayList<>(Arrays.asList(items).subList(from, Math.max(from, to)));
+        }
+    }
+
+    private SortedItems allItems = new SortedItems();
+    private final Map<String, SortedItems> taggedItems = new HashMap<>();
+
+    /**
+     * Gets the supplier tag of a product code: the letters after its last
+     * hyphen, such as MSM in SWM-123456-MSM.
+     *
+     * @param productCode The product code.
+     * @return The tag, or null if the code has none.
+     */
+    public static String getTag(String productCode) {
+        int separator = productCode.lastIndexOf(TAG_SEPARATOR);
+        if (separator <= 0 || separator == productCode.length() - 1) {
+            return null;
+        }
+        for (int i = separator + 1; i < productCode.length(); i++) {
+            if (!Character.isLetter(productCode.charAt(i))) {
+                return null;
+            }
+        }
+        return productCode.substring(separator + 1);
+    }
+
+    /**
+     * Adds a stock item to the index, unless an item with its product code
+     * is already indexed.
+     *
+     * @param item The stock item.
+     */
+    public synchronized void add(ASCStockItem item) {
+        if (allItems.insert(item)) {
+            String tag = getTag(item.getProductCode());
+            if (tag != null) {
+                taggedItems.computeIfAbsent(tag, key -> new SortedItems()).insert(item);
+            }
+        }
+    }
+
+    /**
+     * Adds stock items to the index with a single sort, skipping any whose
+     * product code is already indexed or appears earlier in the collection.
+     *
+     * @param stockItems The stock items.
+     */
+    public synchronized void addAll(Collection<? extends ASCStockItem> stockItems) {
+        ASCStockItem[] merged = Arrays.copyOf(allItems.items, allItems.size + stockItems.size());
+        int size = allItems.size;
+        for (ASCStockItem item : stockItems) {
+            merged[size++] = item;
+        }
+        // The sort is stable, so the first item with each code stays first
+        Arrays.parallelSort(merged, 0, size, BY_PRODUCT_CODE);
+
+        SortedItems sorted = new SortedItems();
+        sorted.items = merged;
+        taggedItems.clear();
+        for (int i = 0; i < size; i++) {
+            ASCStockItem item = merged[i];
+            if (sorted.size > 0 && merged[sorted.size - 1].getProductCode().equals(item.getProductCode())) {
+                continue;
+            }
+            merged[sorted.size++] = item;
+            String tag = getTag(item.getProductCode());
+            if (tag != null) {
+                taggedItems.computeIfAbsent(tag, key -> new SortedItems()).append(item);
+            }
+        }
+        Arrays.fill(merged, sorted.size, size, null);
+        allItems = sorted;
+    }
+
+    /**
+     * Gets the number of product codes in the index.
+     *
+     * @return The number of indexed items.
+     */
+    public synchronized int size() {
+        return allItems.size;
+    }
+
+    /**
+     * Removes every stock item from the index.
+     */
+    public synchronized void clear() {
+        allItems = new SortedItems();
+        taggedItems.clear();
+    }
+
+    /**
+     * Finds the stock items whose product code starts with a prefix, such as
+     * a department.
+     *
+     * @param prefix The start of the product codes.
+     * @return The matching stock items in product code order.
+     */
+    public synchronized List<ASCStockItem> findByPrefix(String prefix) {
+        return allItems.copyRange(allItems.lowerBound(prefix), allItems.prefixEnd(prefix));
+    }
+
+    /**
+     * Counts the stock items whose product code starts with a prefix, without
+     * reading them.
+     *
+     * @param prefix The start of the product codes.
+     * @return The number of matching items.
+     */
+    public synchronized int countByPrefix(String prefix) {
+        return allItems.prefixEnd(prefix) - allItems.lowerBound(prefix);
+    }
+
+    /**
+     * Finds the stock items whose product code carries a supplier tag.
+     *
+     * @param tag The tag, such as MSM, with or without its leading hyphen.
+     * @return The matching stock items in product code order.
+     */
+    public synchronized List<ASCStockItem> findByTag(String tag) {
+        SortedItems items = taggedItems.get(stripSeparator(tag));
+        return items == null ? new ArrayList<>() : items.copyRange(0, items.size);
+    }
+
+    /**
+     * Counts the stock items whose product code carries a supplier tag.
+     *
+     * @param tag The tag, such as MSM, with or without its leading hyphen.
+     * @return The number of matching items.
+     */
+    public synchronized int countByTag(String tag) {
+        SortedItems items = taggedItems.get(stripSeparator(tag));
+        return items == null ? 0 : items.size;
+    }
+
+    /**
+     * Finds the stock items whose product code falls in a range.
+     *
+     * @param fromCode The first product code of the range, inclusive.
+     * @param toCode The last product code of the range, inclusive.
+     * @return The matching stock items in product code order.
+     */
+    public synchronized List<ASCStockItem> findByRange(String fromCode, String toCode) {
+        return allItems.copyRange(allItems.lowerBound(fromCode), allItems.upperBound(toCode));
+    }
+
+    // Helper method to remove the leading hyphen from a tag
+    private static String stripSeparator(String tag) {
+        return tag.length() > 0 && tag.charAt(0) == TAG_SEPARATOR ? tag.substring(1) : tag;
+    }
+}
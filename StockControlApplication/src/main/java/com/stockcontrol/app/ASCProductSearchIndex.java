@@ -0,0 +1,578 @@
+package com.stockcontrol.app;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * An in-memory full-text index over the titles and descriptions of stock
+ * items, for searching as the user types. The text of each item is split into
+ * lower-case words, and every distinct word keeps a sorted posting list of the
+ * items that use it. The distinct words are indexed in turn by each of their
+ * n-grams of up to three characters, so a query word is matched against every
+ * word containing it through the posting list of its rarest n-gram, without
+ * scanning the catalog. The items of the query word with the fewest items are
+ * then narrowed down by the other query words. Items are numbered in the
+ * order they are added, and results come back in that order.
+ * <p>
+ * Words used by a large share of the items are also kept as bitmaps, built on
+ * first search, so queries made of common words are answered by combining
+ * bitmaps a word at a time rather than walking long posting lists. Results
+ * are returned as read-only views over the matching ids, sharing the items
+ * rather than copying them; items are only ever added at the end, so a view
+ * stays valid as the index grows.
+ * <p>
+ * Words are looked up in an open-addressing table straight from the text
+ * being indexed, so only the first use of a word allocates.
+ * <p>
+ * Additions and searches are synchronized on the index, so items may be added
+ * from loading threads while the index is searched.
+ */
+public class ASCProductSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int BINARY_SEARCH_RATIO = 8;
+    private static final int DENSE_RATIO = 32;
+    private static final char[] ASCII_WORD_CHARS = new char[128];
+
+    static {
+        for (char c = 0; c < ASCII_WORD_CHARS.length; c++) {
+            if (Character.isLetterOrDigit(c)) {
+                ASCII_WORD_CHARS[c] = Character.toLowerCase(c);
+            }
+        }
+    }
+
+    /**
+     * A sorted list of ids, growing at the end, with a bitmap of the same ids
+     * for lists long enough to be searched as one. The ids below the size
+     * never change, so a list can be read while more ids are added.
+     */
+    private static class Postings {
+
+        private int[] ids;
+        private int size;
+        private long[] bits;
+        private int bitsSize;
+
+        Postings() {
+            this(new int[2], 0);
+        }
+
+        Postings(int[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+
+        // Ids are added in increasing order, so a repeat can only be the last id
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        // Gets the ids as a bitmap of at least the given length, bringing it up to date first
+        long[] getBits(int length) {
+            if (bits == null || bits.length < length) {
+                bits = bits == null ? new long[length] : Arrays.copyOf(bits, length);
+            }
+            for (; bitsSize < size; bitsSize++) {
+                bits[ids[bitsSize] >>> 6] |= 1L << ids[bitsSize];
+            }
+            return bits;
+        }
+
+        // Gets the ids added so far, without copying them
+        Postings snapshot() {
+            return new Postings(ids, size);
+        }
+    }
+
+    /**
+     * The stock items matching a search, read through a sorted list of their
+     * ids.
+     */
+    private static class SearchResults extends AbstractList<ASCStockItem> implements RandomAccess {
+
+        private final ASCStockItem[] items;
+        private final Postings itemIds;
+
+        SearchResults(ASCStockItem[] items, Postings itemIds) {
+            this.items = items;
+            this.itemIds = itemIds;
+        }
+
+        @Override
+        public ASCStockItem get(int index) {
+            if (index < 0 || index >= itemIds.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + itemIds.size);
+            }
+            return items[itemIds.ids[index]];
+        }
+
+        @Override
+        public int size() {
+            return itemIds.size;
+        }
+    }
+
+    /**
+     * The stock items matching a search, read through a bitmap of their ids
+     * and a running count of the ids before each word of the bitmap.
+     */
+    private static class BitmapSearchResults extends AbstractList<ASCStockItem> implements RandomAccess {
+
+        private final ASCStockItem[] items;
+        private final long[] bits;
+        private final int[] countsBefore;
+        private final int size;
+
+        BitmapSearchResults(ASCStockItem[] items, long[] bits) {
+            this.items = items;
+            this.bits = bits;
+            countsBefore = new int[bits.length];
+            int count = 0;
+            for (int i = 0; i < bits.length; i++) {
+                countsBefore[i] = count;
+                count += Long.bitCount(bits[i]);
+            }
+            size = count;
+        }
+
+        @Override
+        public ASCStockItem get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            // Find the last word of the bitmap starting at or before the index
+            int low = 0;
+            int high = bits.length - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (countsBefore[middle] <= index) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            long word = bits[low];
+            for (int skip = index - countsBefore[low]; skip > 0; skip--) {
+                word &= word - 1;
+            }
+            return items[(low << 6) + Long.numberOfTrailingZeros(word)];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // Items are never replaced below the count, so results can share the array
+    private ASCStockItem[] items = new ASCStockItem[INITIAL_CAPACITY];
+    private int itemCount;
+    private final List<String> words = new ArrayList<>();
+    private final List<Postings> wordPostings = new ArrayList<>();
+    private int[] wordHashes = new int[INITIAL_CAPACITY];
+    private int[] wordTable = new int[INITIAL_CAPACITY * 2];
+    private final Map<String, Postings> gramPostings = new HashMap<>();
+    private char[] wordBuffer = new char[32];
+
+    /**
+     * Adds a stock item to the index.
+     *
+     * @param item The stock item.
+     */
+    public synchronized void add(ASCStockItem item) {
+        if (itemCount == items.length) {
+            items = Arrays.copyOf(items, itemCount * 2);
+        }
+        int itemId = itemCount;
+        items[itemCount++] = item;
+        indexText(item.getProductTitle(), itemId);
+        indexText(item.getProductDescription(), itemId);
+    }
+
+    /**
+     * Adds stock items to the index, in order.
+     *
+     * @param stockItems The stock items.
+     */
+    public synchronized void addAll(Collection<? extends ASCStockItem> stockItems) {
+        if (itemCount + stockItems.size() > items.length) {
+            items = Arrays.copyOf(items, Math.max(itemCount + stockItems.size(), itemCount * 2));
+        }
+        for (ASCStockItem item : stockItems) {
+            add(item);
+        }
+    }
+
+    /**
+     * Gets the number of stock items in the index.
+     *
+     * @return The number of items.
+     */
+    public synchronized int size() {
+        return itemCount;
+    }
+
+    /**
+     * Gets the number of distinct words in the titles and descriptions.
+     *
+     * @return The number of words.
+     */
+    public synchronized int getWordCount() {
+        return words.size();
+    }
+
+    /**
+     * Removes every stock item from the index. Results already returned are
+     * unaffected.
+     */
+    public synchronized void clear() {
+        items = new ASCStockItem[INITIAL_CAPACITY];
+        itemCount = 0;
+        words.clear();
+        wordPostings.clear();
+        wordHashes = new int[INITIAL_CAPACITY];
+        wordTable = new int[INITIAL_CAPACITY * 2];
+        gramPostings.clear();
+    }
+
+    /**
+     * Finds the stock items matching a query. The query is split into words
+     * like the item text, and an item matches if each query word appears,
+     * ignoring case, within some word of its title or description, so a word
+     * still being typed matches as a prefix.
+     *
+     * @param query The search text.
+     * @return A read-only list of the matching stock items in the order they
+     * were added, or of every item if the query has no words.
+     */
+    public synchronized List<ASCStockItem> search(String query) {
+        List<List<Postings>> matches = new ArrayList<>();
+        for (String queryWord : splitWords(query)) {
+            matches.add(findWordPostings(queryWord));
+        }
+        if (matches.isEmpty()) {
+            return Collections.unmodifiableList(Arrays.asList(items).subList(0, itemCount));
+        }
+
+        // Start from the query word with the fewest items and narrow it down by the others
+        matches.sort((first, second) -> Long.compare(countPostings(first), countPostings(second)));
+        if (isDense(countPostings(matches.get(0)))) {
+            long[] bits = toBits(matches.get(0));
+            for (int i = 1; i < matches.size(); i++) {
+                long[] otherBits = toBits(matches.get(i));
+                for (int j = 0; j < bits.length; j++) {
+                    bits[j] &= otherBits[j];
+                }
+            }
+            return new BitmapSearchResults(items, bits);
+        }
+
+        Postings itemIds = merge(matches.get(0));
+        for (int i = 1; i < matches.size() && itemIds.size > 0; i++) {
+            itemIds = retainPosted(itemIds, matches.get(i));
+        }
+        return new SearchResults(items, itemIds);
+    }
+
+    /**
+     * Gets a test of whether a single stock item matches a query, by the same
+     * rule as {@link #search} but reading the item's text rather than the
+     * index, so a short list of items found some other way can be narrowed
+     * down by the query without collecting every match in the catalog.
+     *
+     * @param query The search text.
+     * @return A test that passes the items matching the query, or every item
+     * if the query has no words.
+     */
+    public static Predicate<ASCStockItem> matcher(String query) {
+        List<String> queryWords = splitWords(query);
+        return item -> containsQueryWords(item, queryWords);
+    }
+
+    // Helper method to check whether each query word appears within some word of an item's title or description
+    private static boolean containsQueryWords(ASCStockItem item, List<String> queryWords) {
+        if (queryWords.isEmpty()) {
+            return true;
+        }
+        List<String> itemWords = splitWords(item.getProductTitle());
+        itemWords.addAll(splitWords(item.getProductDescription()));
+        for (String queryWord : queryWords) {
+            if (itemWords.stream().noneMatch(itemWord -> itemWord.contains(queryWord))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Helper method to post an item under each word of a text
+    private void indexText(String text, int itemId) {
+        if (text == null) {
+            return;
+        }
+        int length = 0;
+        int hash = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char lower = i < text.length() ? toWordChar(text.charAt(i)) : 0;
+            if (lower != 0) {
+                if (length == wordBuffer.length) {
+                    wordBuffer = Arrays.copyOf(wordBuffer, length * 2);
+                }
+                wordBuffer[length++] = lower;
+                hash = 31 * hash + lower;
+            } else if (length > 0) {
+                wordPostings.get(findWordId(hash, length)).add(itemId);
+                length = 0;
+                hash = 0;
+            }
+        }
+    }
+
+    // Helper method to find the id of the word in the buffer, adding the word the first time it is seen
+    private int findWordId(int hash, int length) {
+        int mask = wordTable.length - 1;
+        int slot = spread(hash) & mask;
+        while (wordTable[slot] != 0) {
+            int wordId = wordTable[slot] - 1;
+            if (wordHashes[wordId] == hash && isBufferedWord(words.get(wordId), length)) {
+                return wordId;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int wordId = addWord(new String(wordBuffer, 0, length), hash);
+        wordTable[slot] = wordId + 1;
+        if (words.size() * 2 > wordTable.length) {
+            rehashWords();
+        }
+        return wordId;
+    }
+
+    // Helper method to check whether a word equals the one in the buffer
+    private boolean isBufferedWord(String word, int length) {
+        if (word.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != wordBuffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Helper method to add a new word and index its n-grams
+    private int addWord(String word, int hash) {
+        int wordId = words.size();
+        words.add(word);
+        wordPostings.add(new Postings());
+        if (wordId == wordHashes.length) {
+            wordHashes = Arrays.copyOf(wordHashes, wordId * 2);
+        }
+        wordHashes[wordId] = hash;
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            for (int start = 0; start + length <= word.length(); start++) {
+                gramPostings.computeIfAbsent(word.substring(start, start + length), key -> new Postings())
+                        .add(wordId);
+            }
+        }
+        return wordId;
+    }
+
+    // Helper method to double the word table once it is half full
+    private void rehashWords() {
+        wordTable = new int[wordTable.length * 2];
+        int mask = wordTable.length - 1;
+        for (int wordId = 0; wordId < words.size(); wordId++) {
+            int slot = spread(wordHashes[wordId]) & mask;
+            while (wordTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            wordTable[slot] = wordId + 1;
+        }
+    }
+
+    // Helper method to find the posting lists of the words that contain the query word
+    private List<Postings> findWordPostings(String queryWord) {
+        List<Postings> matches = new ArrayList<>();
+        boolean gramOnly = queryWord.length() <= GRAM_LENGTH;
+        Postings candidates = gramOnly ? gramPostings.get(queryWord) : findRarestGram(queryWord);
+        if (candidates == null) {
+            return matches;
+        }
+        for (int i = 0; i < candidates.size; i++) {
+            int wordId = candidates.ids[i];
+            // A word holding the rarest n-gram may still not hold the whole query word
+            if (gramOnly || words.get(wordId).contains(queryWord)) {
+                matches.add(wordPostings.get(wordId));
+            }
+        }
+        return matches;
+    }
+
+    // Helper method to count the ids in a set of posting lists, with repeats
+    private static long countPostings(List<Postings> postingsList) {
+        long count = 0;
+        for (Postings postings : postingsList) {
+            count += postings.size;
+        }
+        return count;
+    }
+
+    // Helper method to merge posting lists into one sorted list without repeats
+    private Postings merge(List<Postings> postingsList) {
+        if (postingsList.isEmpty()) {
+            return new Postings(new int[0], 0);
+        } else if (postingsList.size() == 1) {
+            return postingsList.get(0).snapshot();
+        }
+        BitSet itemIds = new BitSet(itemCount);
+        for (Postings postings : postingsList) {
+            for (int i = 0; i < postings.size; i++) {
+                itemIds.set(postings.ids[i]);
+            }
+        }
+        int[] merged = new int[itemIds.cardinality()];
+        int size = 0;
+        for (int itemId = itemIds.nextSetBit(0); itemId >= 0; itemId = itemIds.nextSetBit(itemId + 1)) {
+            merged[size++] = itemId;
+        }
+        return new Postings(merged, size);
+    }
+
+    // Helper method to combine posting lists into a new bitmap of the items
+    private long[] toBits(List<Postings> postingsList) {
+        long[] bits = new long[(itemCount + 63) >>> 6];
+        for (Postings postings : postingsList) {
+            if (isDense(postings.size)) {
+                long[] wordBits = postings.getBits(bits.length);
+                for (int i = 0; i < bits.length; i++) {
+                    bits[i] |= wordBits[i];
+                }
+            } else {
+                for (int i = 0; i < postings.size; i++) {
+                    bits[postings.ids[i] >>> 6] |= 1L << postings.ids[i];
+                }
+            }
+        }
+        return bits;
+    }
+
+    // Helper method to check whether a number of ids is a large enough share of the items to keep as a bitmap
+    private boolean isDense(long count) {
+        return count * DENSE_RATIO > itemCount;
+    }
+
+    // Helper method to get the shortest posting list among a query word's n-grams, or null if one has none
+    private Postings findRarestGram(String queryWord) {
+        Postings rarest = null;
+        for (int start = 0; start + GRAM_LENGTH <= queryWord.length(); start++) {
+            Postings postings = gramPostings.get(queryWord.substring(start, start + GRAM_LENGTH));
+            if (postings == null) {
+                return null;
+            }
+            if (rarest == null || postings.size < rarest.size) {
+                rarest = postings;
+            }
+        }
+        return rarest;
+    }
+
+    // Helper method to keep the candidate ids found in any of a set of posting lists
+    private Postings retainPosted(Postings candidates, List<Postings> postingsList) {
+        boolean[] posted = new boolean[candidates.size];
+        if (isDense(countPostings(postingsList))) {
+            long[] bits = toBits(postingsList);
+            for (int i = 0; i < candidates.size; i++) {
+                posted[i] = (bits[candidates.ids[i] >>> 6] & (1L << candidates.ids[i])) != 0;
+            }
+        } else {
+            for (Postings postings : postingsList) {
+                markPosted(candidates, postings, posted);
+            }
+        }
+        int[] retained = new int[candidates.size];
+        int size = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            if (posted[i]) {
+                retained[size++] = candidates.ids[i];
+            }
+        }
+        return new Postings(retained, size);
+    }
+
+    // Helper method to mark the candidate ids found in a posting list, searching
+    // the list for each candidate when it is much longer than the candidates
+    private static void markPosted(Postings candidates, Postings postings, boolean[] posted) {
+        if ((long) candidates.size * BINARY_SEARCH_RATIO < postings.size) {
+            int from = 0;
+            for (int i = 0; i < candidates.size && from < postings.size; i++) {
+                int found = Arrays.binarySearch(postings.ids, from, postings.size, candidates.ids[i]);
+                if (found >= 0) {
+                    posted[i] = true;
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+        } else {
+            int j = 0;
+            for (int i = 0; i < candidates.size && j < postings.size; i++) {
+                int id = candidates.ids[i];
+                while (j < postings.size && postings.ids[j] < id) {
+                    j++;
+                }
+                if (j < postings.size && postings.ids[j] == id) {
+                    posted[i] = true;
+                }
+            }
+        }
+    }
+
+    // Helper method to split text into lower-case words of letters and digits
+    private static List<String> splitWords(String text) {
+        List<String> textWords = new ArrayList<>();
+        if (text == null) {
+            return textWords;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char lower = i < text.length() ? toWordChar(text.charAt(i)) : 0;
+            if (lower != 0) {
+                word.append(lower);
+            } else if (word.length() > 0) {
+                textWords.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return textWords;
+    }
+
+    // Helper method to lower the case of a letter or digit, or return 0 for any other character
+    private static char toWordChar(char c) {
+        if (c < ASCII_WORD_CHARS.length) {
+            return ASCII_WORD_CHARS[c];
+        }
+        return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+    }
+
+    // Helper method to spread the bits of a hash code across the table
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
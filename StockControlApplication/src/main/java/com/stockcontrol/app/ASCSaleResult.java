@@ -0,0 +1,24 @@
+package com.stockcontrol.app;
+
+/**
+ * The outcome of an attempt to sell stock.
+ */
+public enum ASCSaleResult {
+
+    /**
+     * The stock was sold and the sale recorded.
+     */
+    SUCCESS,
+    /**
+     * The product is known but too little of it is in stock; nothing was sold.
+     */
+    INSUFFICIENT_STOCK,
+    /**
+     * No stock item has the product code; nothing was sold.
+     */
+    UNKNOWN_PRODUCT,
+    /**
+     * The quantity to sell was not positive; nothing was sold.
+     */
+    INVALID_QUANTITY
+}
@@ -0,0 +1,171 @@
+package com.stockcontrol.app;
+
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running sales totals by product code, by department and for the whole shop,
+ * updated as each sale is recorded. Each total covers units sold, revenue, the
+ * time of the last sale and per-day buckets, so reports are answered from
+ * memory without reading the sales transactions files. Sales may be recorded
+ * from any number of threads without locking: units and revenue are counted in
+ * LongAdders, and a sale on the current day finds its bucket without
+ * allocating, so even the shop and department totals that every seller
+ * updates do not serialize sales. A summary taken while sales are being
+ * recorded may count a sale in some of its figures but not yet in others.
+ */
+public class ASCSalesAggregates {
+
+    private static final int DAY_LENGTH = 10;
+
+    // The units and revenue of one day
+    private static final class DayTotals {
+
+        private final String day;
+        private final LongAdder unitsSold = new LongAdder();
+        private final LongAdder revenuePence = new LongAdder();
+
+        DayTotals(String day) {
+            this.day = day;
+        }
+    }
+
+    // The totals of one product, one department or the whole shop
+    private static final class Totals {
+
+        // The department a product's totals roll up into, or null for other totals
+        private final Totals department;
+        private final LongAdder unitsSold = new LongAdder();
+        private final LongAdder revenuePence = new LongAdder();
+        private final AtomicReference<String> lastSaleDateTime = new AtomicReference<>();
+        private final ConcurrentHashMap<String, DayTotals> dailyTotals = new ConcurrentHashMap<>();
+        private volatile DayTotals latestDay;
+
+        Totals(Totals department) {
+            this.department = department;
+        }
+
+        void add(String dateTime, int quantitySold, long revenue) {
+            unitsSold.add(quantitySold);
+            revenuePence.add(revenue);
+            String last = lastSaleDateTime.get();
+            while ((last == null || dateTime.compareTo(last) > 0)
+                    && !lastSaleDateTime.compareAndSet(last, dateTime)) {
+                last = lastSaleDateTime.get();
+            }
+            DayTotals day = getDayTotals(dateTime);
+            day.unitsSold.add(quantitySold);
+            day.revenuePence.add(revenue);
+        }
+
+        ASCSalesSummary summarize() {
+            TreeMap<String, Long> dailyUnitsSold = new TreeMap<>();
+            TreeMap<String, Long> dailyRevenuePence = new TreeMap<>();
+            for (DayTotals day : dailyTotals.values()) {
+                dailyUnitsSold.put(day.day, day.unitsSold.sum());
+                dailyRevenuePence.put(day.day, day.revenuePence.sum());
+            }
+            return new ASCSalesSummary(unitsSold.sum(), revenuePence.sum(), lastSaleDateTime.get(), dailyUnitsSold,
+                    dailyRevenuePence);
+        }
+
+        // Helper method to find a sale's day, only looking it up when the day differs from the last one
+        private DayTotals getDayTotals(String dateTime) {
+            DayTotals day = latestDay;
+            if (day != null && dateTime.regionMatches(0, day.day, 0, DAY_LENGTH)) {
+                return day;
+            }
+            day = dailyTotals.computeIfAbsent(dateTime.substring(0, DAY_LENGTH), DayTotals::new);
+            latestDay = day;
+            return day;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Totals> productTotals = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Totals> departmentTotals = new ConcurrentHashMap<>();
+    private volatile Totals shopTotals = new Totals(null);
+
+    /**
+     * Adds a sale to the totals.
+     *
+     * @param dateTime The date and time of the sale, formatted as yyyy-MM-dd
+     * HH:mm:ss.
+     * @param productCode The product code of the item sold.
+     * @param quantitySold The quantity sold.
+     * @param unitPricePounds The unit price in pounds.
+     * @param unitPricePence The unit price in pence.
+     */
+    public void record(String dateTime, String productCode, int quantitySold, int unitPricePounds,
+            int unitPricePence) {
+        long revenue = (long) quantitySold * (unitPricePounds * 100L + unitPricePence);
+        Totals product = productTotals.get(productCode);
+        if (product == null) {
+            // Only a product's first sale works out its department
+            product = productTotals.computeIfAbsent(productCode, key -> new Totals(departmentTotals
+                    .computeIfAbsent(ASCStockItem.getDepartment(key), department -> new Totals(null))));
+        }
+        product.add(dateTime, quantitySold, revenue);
+        product.department.add(dateTime, quantitySold, revenue);
+        shopTotals.add(dateTime, quantitySold, revenue);
+    }
+
+    /**
+     * Adds a sale read from the sales history to the totals.
+     *
+     * @param salesItem The sales item.
+     */
+    public void record(ASCSalesItem salesItem) {
+        record(salesItem.getDateTime(), salesItem.getProductCode(), salesItem.getQuantitySold(),
+                salesItem.getUnitPrice(), salesItem.getUnitPricePence());
+    }
+
+    /**
+     * Replaces the totals with those of the given sales, for example the whole
+     * sales history on a cold start. Sales must not be recorded concurrently.
+     *
+     * @param salesItems The sales to total.
+     */
+    public void rebuild(Collection<ASCSalesItem> salesItems) {
+        productTotals.clear();
+        departmentTotals.clear();
+        shopTotals = new Totals(null);
+        for (ASCSalesItem salesItem : salesItems) {
+            record(salesItem);
+        }
+    }
+
+    /**
+     * Gets the sales totals of a product.
+     *
+     * @param productCode The product code.
+     * @return The product's sales summary, or null if it has not been sold.
+     */
+    public ASCSalesSummary getProductSummary(String productCode) {
+        Totals totals = productTotals.get(productCode);
+        return totals == null ? null : totals.summarize();
+    }
+
+    /**
+     * Gets the sales totals of a department.
+     *
+     * @param department The department, such as RUN, SWM or CYC.
+     * @return The department's sales summary, or null if nothing in it has been
+     * sold.
+     */
+    public ASCSalesSummary getDepartmentSummary(String department) {
+        Totals totals = departmentTotals.get(department);
+        return totals == null ? null : totals.summarize();
+    }
+
+    /**
+     * Gets the sales totals of the whole shop.
+     *
+     * @return The shop's sales summary.
+     */
+    public ASCSalesSummary getTotalSummary() {
+        return shopTotals.summarize();
+    }
+}
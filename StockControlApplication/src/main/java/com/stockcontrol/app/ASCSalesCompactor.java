@@ -0,0 +1,218 @@
+package com.stockcontrol.app;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Compacts the raw SalesTransactions_ files of a directory into one
+ * ASCSalesSegment per day, in the background. Each run folds the raw files of
+ * every day before today into that day's segment, swaps the new segment in
+ * atomically and only then deletes the raw files it covers, so a reader never
+ * misses or double counts a sale. Files modified more recently than the
+ * minimum age are left for a later run, since a writer may still be appending
+ * to them. Malformed lines are skipped, as the sales readers skip them, and
+ * counted.
+ */
+public class ASCSalesCompactor implements Closeable {
+
+    private static final int DAY_LENGTH = 8;
+
+    private final Path directory;
+    private final long minimumAgeMillis;
+    private final Consumer<IOException> errorHandler;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong skippedRecords = new AtomicLong();
+
+    /**
+     * Constructor for ASCSalesCompactor class. Nothing is compacted until
+     * {@link #start} or {@link #compact} is called.
+     *
+     * @param directoryPath The directory containing the sales transactions
+     * files.
+     * @param minimumAgeMillis How long a raw file must have been left
+     * unmodified before it is compacted.
+     * @param errorHandler Called on the compaction thread if a background run
+     * fails.
+     */
+    public ASCSalesCompactor(String directoryPath, long minimumAgeMillis, Consumer<IOException> errorHandler) {
+        this.directory = Paths.get(directoryPath);
+        this.minimumAgeMillis = minimumAgeMillis;
+        this.errorHandler = errorHandler;
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ASC-sales-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts compacting in the background, once straight away and then at a
+     * fixed interval.
+     *
+     * @param intervalMillis The delay between the end of one run and the start
+     * of the next, in milliseconds.
+     */
+    public void start(long intervalMillis) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                errorHandler.accept(e);
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Compacts the raw files of every day before today into the day's
+     * segment. A day that fails is left as it was and the remaining days are
+     * still compacted.
+     *
+     * @return The number of raw files folded into segments.
+     * @throws IOException If the directory cannot be listed, or a day could not
+     * be compacted.
+     */
+    public synchronized int compact() throws IOException {
+        String today = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        long cutoff = System.currentTimeMillis() - minimumAgeMillis;
+
+        Map<String, List<Path>> rawFilesByDay = new TreeMap<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                    ASCSalesSegment.FILE_PREFIX + "*" + ASCSalesSegment.RAW_SUFFIX)) {
+                for (Path file : stream) {
+                    String day = getDay(file);
+                    if (day != null && day.compareTo(today) < 0 && Files.isRegularFile(file)
+                            && Files.getLastModifiedTime(file).toMillis() <= cutoff) {
+                        rawFilesByDay.computeIfAbsent(day, key -> new ArrayList<>()).add(file);
+                    }
+                }
+            }
+        }
+
+        int compacted = 0;
+        IOException failure = null;
+        for (Map.Entry<String, List<Path>> day : rawFilesByDay.entrySet()) {
+            try {
+                compacted += compactDay(day.getKey(), day.getValue());
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return compacted;
+    }
+
+    /**
+     * Gets the number of malformed lines skipped while compacting, since the
+     * compactor was created.
+     *
+     * @return The number of skipped lines.
+     */
+    public long getSkippedRecordCount() {
+        return skippedRecords.get();
+    }
+
+    /**
+     * Stops compacting in the background, waiting for a run in progress to
+     * finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Helper method to fold the raw files of one day into its segment and delete them
+    private int compactDay(String day, List<Path> rawFiles) throws IOException {
+        Path segmentFile = ASCSalesSegment.getSegmentFile(directory, day);
+        List<ASCSalesItem> salesItems = new ArrayList<>();
+        Map<String, ASCSalesSegment.Source> sources = new LinkedHashMap<>();
+        ASCSalesSegment segment = null;
+        if (Files.exists(segmentFile)) {
+            segment = ASCSalesSegment.open(segmentFile);
+            salesItems.addAll(segment.getSalesItems());
+            sources.putAll(segment.getSources());
+        }
+
+        int folded = 0;
+        for (Path rawFile : rawFiles) {
+            long covered = segment == null ? 0 : segment.getCoveredLength(rawFile);
+            byte[] bytes = Files.readAllBytes(rawFile);
+            if (bytes.length > covered) {
+                parseRecords(new String(bytes, (int) covered, bytes.length - (int) covered,
+                        StandardCharsets.UTF_8), salesItems);
+                sources.put(rawFile.getFileName().toString(),
+                        new ASCSalesSegment.Source(bytes.length, ASCSalesSegment.checksum(bytes)));
+                folded++;
+            }
+        }
+        if (folded > 0) {
+            ASCSalesSegment.write(segmentFile, salesItems, sources);
+        }
+
+        // The segment is in place, so the raw files it fully covers can go
+        for (Path rawFile : rawFiles) {
+            ASCSalesSegment.Source source = sources.get(rawFile.getFileName().toString());
+            if (source != null && Files.size(rawFile) == source.getLength()) {
+                Files.deleteIfExists(rawFile);
+            }
+        }
+        return folded;
+    }
+
+    // Helper method to parse the records appended to a raw file since it was last compacted
+    private void parseRecords(String text, List<ASCSalesItem> salesItems) {
+        for (String line : text.split("\n")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                salesItems.add(ASCSalesItem.parseSalesItem(trimmed));
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+                // Skip malformed lines, as readers of the raw file do, rather than never compacting the day
+                skippedRecords.incrementAndGet();
+            }
+        }
+    }
+
+    // Helper method to read the yyyyMMdd day from a raw file name, or null if it has none
+    private static String getDay(Path rawFile) {
+        String name = rawFile.getFileName().toString();
+        int start = ASCSalesSegment.FILE_PREFIX.length();
+        if (name.length() < start + DAY_LENGTH) {
+            return null;
+        }
+        String day = name.substring(start, start + DAY_LENGTH);
+        return day.chars().allMatch(Character::isDigit) ? day : null;
+    }
+}
@@ -0,0 +1,401 @@
+package com.stockcontrol.app;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the sales history read from the SalesTransactions_ files of a
+ * directory, and brings it up to date incrementally. The reader remembers how
+ * far it has read each file and, on refresh, parses only the bytes appended
+ * since then. New, changed and deleted files are found through a
+ * {@link WatchService}, so a refresh costs as much as the new sales rather
+ * than the whole history.
+ * <p>
+ * Days compacted by an ASCSalesCompactor are read from their ASCSalesSegment.
+ * A raw file that a segment covers is read only past the covered bytes, so a
+ * compaction in progress never makes a sale appear twice.
+ */
+public class ASCSalesHistory implements Closeable {
+
+    private static final String FILE_PREFIX = "SalesTransactions_";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The read position and sales items of one sales transactions file or
+     * segment.
+     */
+    private static class FileState {
+
+        private long coveredLength;
+        private long offset;
+        private FileTime modified;
+        private ASCSalesSegment segment;
+        private final List<ASCSalesItem> salesItems = new ArrayList<>();
+    }
+
+    private final Path directory;
+    private final TreeMap<Path, FileState> files = new TreeMap<>();
+    private final List<ASCSalesItem> salesItems = new ArrayList<>();
+    private final List<ASCSalesItem> salesItemsView = Collections.unmodifiableList(salesItems);
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private WatchService watchService;
+    private Path activeFile;
+    private boolean loaded;
+    private int resetCount;
+
+    /**
+     * Constructor for ASCSalesHistory class. Nothing is read until the first
+     * refresh.
+     *
+     * @param directoryPath The directory containing the sales transactions
+     * files.
+     */
+    public ASCSalesHistory(String directoryPath) {
+        this.directory = Paths.get(directoryPath);
+    }
+
+    /**
+     * Brings the sales history up to date. The first refresh reads every sales
+     * transactions file; later refreshes read only what has been appended or
+     * created since the previous one. The watch service reports directory
+     * changes asynchronously, so a file created moments before a refresh may
+     * only be picked up by the next one.
+     *
+     * @return The number of sales items added by this refresh.
+     * @throws IOException If the directory or a sales file cannot be read.
+     */
+    public synchronized int refresh() throws IOException {
+        int previousSize = salesItems.size();
+        int previousResetCount = resetCount;
+
+        if (!loaded) {
+            startWatching();
+            List<Path> salesFiles = listSalesFiles();
+            for (Path file : salesFiles) {
+                if (isSegment(file)) {
+                    readSegment(file);
+                }
+            }
+            for (Path file : salesFiles) {
+                if (!isSegment(file) && addRawFile(file)) {
+                    readAppended(file);
+                }
+            }
+            rebuildSalesItems();
+            loaded = true;
+            return salesItems.size();
+        } else {
+            Set<Path> changedFiles = collectChangedFiles();
+            boolean segmentsChanged = false;
+            for (Path file : changedFiles) {
+                if (isSegment(file)) {
+                    segmentsChanged |= Files.exists(file) ? readSegment(file) : files.remove(file) != null;
+                }
+            }
+            if (segmentsChanged) {
+                resetCount++;
+                recoverRawFiles();
+            }
+            for (Path file : changedFiles) {
+                if (isSegment(file)) {
+                    continue;
+                }
+                if (Files.exists(file)) {
+                    if (files.containsKey(file) || addRawFile(file)) {
+                        readAppended(file);
+                    }
+                } else if (files.remove(file) != null) {
+                    resetCount++;
+                }
+            }
+        }
+
+        if (resetCount != previousResetCount) {
+            rebuildSalesItems();
+            return salesItems.size();
+        }
+        return salesItems.size() - previousSize;
+    }
+
+    /**
+     * Gets the sales items read so far. The first refresh reads the files in
+     * name order; items read by later refreshes follow in the order they were
+     * found.
+     *
+     * @return An unmodifiable view of the sales items.
+     */
+    public synchronized List<ASCSalesItem> getSalesItems() {
+        return salesItemsView;
+    }
+
+    /**
+     * Gets the number of times the history has been rebuilt because a sales
+     * file was deleted or rewritten. Callers that show the history
+     * incrementally must start again from the first item when this changes.
+     *
+     * @return The reset count.
+     */
+    public synchronized int getResetCount() {
+        return resetCount;
+    }
+
+    /**
+     * Stops watching the sales directory.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    // Helper method to register for directory events, if the platform allows
+    private void startWatching() {
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            watchService = null;
+        }
+    }
+
+    // Helper method to find the sales files that may have changed since the
+    // last refresh. The file that grew most recently is always checked, because
+    // the events for a write that has only just finished may not have been
+    // delivered yet.
+    private Set<Path> collectChangedFiles() throws IOException {
+        Set<Path> changed = new HashSet<>();
+        boolean overflow = watchService == null;
+
+        if (watchService != null) {
+            try {
+                WatchKey key;
+                while ((key = watchService.poll()) != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                        } else {
+                            Path file = directory.resolve((Path) event.context());
+                            if (isSalesFile(file)) {
+                                changed.add(file);
+                            }
+                        }
+                    }
+                    key.reset();
+                }
+            } catch (ClosedWatchServiceException e) {
+                overflow = true;
+            }
+        }
+
+        if (overflow) {
+            // Events were lost, so compare the directory with what is known
+            List<Path> present = listSalesFiles();
+            changed.addAll(present);
+            Set<Path> missing = new HashSet<>(files.keySet());
+            missing.removeAll(present);
+            changed.addAll(missing);
+        } else if (activeFile != null) {
+            changed.add(activeFile);
+        }
+        return changed;
+    }
+
+    // Helper method to list the sales files of the directory in name order
+    private List<Path> listSalesFiles() throws IOException {
+        List<Path> salesFiles = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return salesFiles;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && isSalesFile(file)) {
+                    salesFiles.add(file);
+                }
+            }
+        }
+        Collections.sort(salesFiles);
+        return salesFiles;
+    }
+
+    // Helper method to check that a path names a raw sales transactions file or a segment
+    private static boolean isSalesFile(Path file) {
+        String name = file.getFileName().toString();
+        return ASCSalesSegment.isRawFile(name) || ASCSalesSegment.isSegmentFile(name);
+    }
+
+    // Helper method to check that a path names a sales segment
+    private static boolean isSegment(Path file) {
+        return ASCSalesSegment.isSegmentFile(file.getFileName().toString());
+    }
+
+    // Helper method to read a segment again if it was replaced since it was last read
+    private boolean readSegment(Path file) throws IOException {
+        FileState state = files.get(file);
+        try {
+            long size = Files.size(file);
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (state != null && state.offset == size && modified.equals(state.modified)) {
+                return false;
+            }
+            ASCSalesSegment segment = ASCSalesSegment.open(file);
+            FileState replacement = new FileState();
+            replacement.salesItems.addAll(segment.getSalesItems());
+            replacement.segment = segment;
+            replacement.offset = size;
+            replacement.modified = modified;
+            files.put(file, replacement);
+            return true;
+        } catch (NoSuchFileException e) {
+            return files.remove(file) != null;
+        }
+    }
+
+    // Helper method to start tracking a raw file past the part the segments cover
+    private boolean addRawFile(Path file) throws IOException {
+        try {
+            FileState state = new FileState();
+            state.coveredLength = getCoveredLength(file);
+            state.offset = state.coveredLength;
+            files.put(file, state);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    // Helper method to read again, past the part the segments now cover, every
+    // raw file whose coverage changed with the segments
+    private void recoverRawFiles() throws IOException {
+        for (Map.Entry<Path, FileState> entry : new ArrayList<>(files.entrySet())) {
+            Path file = entry.getKey();
+            if (isSegment(file)) {
+                continue;
+            }
+            try {
+                long coveredLength = getCoveredLength(file);
+                if (coveredLength != entry.getValue().coveredLength) {
+                    addRawFile(file);
+                    readAppended(file);
+                }
+            } catch (NoSuchFileException e) {
+                files.remove(file);
+            }
+        }
+    }
+
+    // Helper method to find how many bytes of a raw file the segments cover
+    private long getCoveredLength(Path rawFile) throws IOException {
+        List<ASCSalesSegment> segments = new ArrayList<>();
+        for (FileState state : files.values()) {
+            if (state.segment != null) {
+                segments.add(state.segment);
+            }
+        }
+        return ASCSalesSegment.getCoveredLength(segments, rawFile);
+    }
+
+    // Helper method to parse the complete lines appended to a file since it was
+    // last read. A trailing line without a line separator is left for the next
+    // refresh, since its writer may not have finished it yet.
+    private void readAppended(Path file) throws IOException {
+        FileState state = files.get(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < state.offset) {
+                // The file was rewritten, so read it again from the start
+                state.coveredLength = 0;
+                state.offset = 0;
+                state.salesItems.clear();
+                resetCount++;
+            }
+            if (size == state.offset) {
+                return;
+            }
+            activeFile = file;
+
+            ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+            long position = state.offset;
+            channel.position(position);
+            readBuffer.clear();
+
+            while (channel.read(readBuffer) > 0) {
+                readBuffer.flip();
+                byte[] bytes = readBuffer.array();
+                int lineStart = 0;
+                int limit = readBuffer.limit();
+
+                for (int i = 0; i < limit; i++) {
+                    if (bytes[i] == '\n') {
+                        partialLine.write(bytes, lineStart, i - lineStart);
+                        addLine(state, partialLine.toString(StandardCharsets.UTF_8));
+                        partialLine.reset();
+                        lineStart = i + 1;
+                        state.offset = position + lineStart;
+                    }
+                }
+                partialLine.write(bytes, lineStart, limit - lineStart);
+                position += limit;
+                readBuffer.clear();
+            }
+        } catch (NoSuchFileException e) {
+            if (files.remove(file) != null) {
+                resetCount++;
+            }
+        }
+    }
+
+    // Helper method to parse one line into the state of its file
+    private void addLine(FileState state, String line) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+        try {
+            ASCSalesItem salesItem = ASCSalesItem.parseSalesItem(trimmed);
+            state.salesItems.add(salesItem);
+            if (loaded) {
+                salesItems.add(salesItem);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+            // Skip malformed lines rather than losing the rest of the file
+        }
+    }
+
+    // Helper method to rebuild the combined history from the file states
+    private void rebuildSalesItems() {
+        salesItems.clear();
+        for (FileState state : files.values()) {
+            salesItems.addAll(state.salesItems);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.stockcontrol.app;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * A time-partitioned index over the sales transactions files of a directory,
+ * answering time-range queries without loading the whole sales history. The
+ * history is partitioned by day: a day compacted into an ASCSalesSegment is
+ * searched through the segment's footer index, and a day still held in raw
+ * SalesTransactions_ files is read from those files. The partitions are kept
+ * in a sorted map, so a query visits only the days that overlap its range.
+ */
+public class ASCSalesIndex {
+
+    private static final int DAY_LENGTH = 8;
+
+    /**
+     * The segment and raw files holding one day of sales.
+     */
+    private static class Partition {
+
+        private Path segmentFile;
+        private OpenedSegment segment;
+        private final List<Path> rawFiles = new ArrayList<>();
+    }
+
+    /**
+     * A segment already opened, with the size and time it was opened at.
+     */
+    private static class OpenedSegment {
+
+        private final ASCSalesSegment segment;
+        private final long size;
+        private final FileTime modified;
+
+        OpenedSegment(ASCSalesSegment segment, long size, FileTime modified) {
+            this.segment = segment;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    private final Path directory;
+    private final TreeMap<Long, Partition> partitions = new TreeMap<>();
+    private final Map<Path, OpenedSegment> openedSegments = new HashMap<>();
+
+    /**
+     * Constructor for ASCSalesIndex class. Nothing is read until the first
+     * query or refresh.
+     *
+     * @param directoryPath The directory containing the sales transactions
+     * files.
+     */
+    public ASCSalesIndex(String directoryPath) {
+        this.directory = Paths.get(directoryPath);
+    }
+
+    /**
+     * Brings the partitions up to date with the files of the directory. Only
+     * segments that are new or have been replaced since the last refresh are
+     * opened, and only their footers are read.
+     *
+     * @throws IOException If the directory or a segment cannot be read.
+     */
+    public synchronized void refresh() throws IOException {
+        partitions.clear();
+        Map<Path, OpenedSegment> stillPresent = new HashMap<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                    ASCSalesSegment.FILE_PREFIX + "*")) {
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    Long dayStart = getDayStart(name);
+                    if (dayStart == null) {
+                        continue;
+                    }
+                    if (ASCSalesSegment.isSegmentFile(name)) {
+                        OpenedSegment opened = openSegment(file);
+                        if (opened != null) {
+                            stillPresent.put(file, opened);
+                            Partition partition = partitions.computeIfAbsent(dayStart, key -> new Partition());
+                            partition.segmentFile = file;
+                            partition.segment = opened;
+                        }
+                    } else if (ASCSalesSegment.isRawFile(name)) {
+                        partitions.computeIfAbsent(dayStart, key -> new Partition()).rawFiles.add(file);
+                    }
+                }
+            }
+        }
+        openedSegments.clear();
+        openedSegments.putAll(stillPresent);
+    }
+
+    /**
+     * Gets the number of days of sales in the index.
+     *
+     * @return The partition count.
+     */
+    public synchronized int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Refreshes the index and passes each sale in a time range to a consumer,
+     * in time order. Only the days overlapping the range are visited, and of
+     * a compacted day only the blocks of records that can hold the range are
+     * read. A day compacted while it is being read is read again.
+     *
+     * @param fromMillis The start of the range in milliseconds since the
+     * epoch, inclusive.
+     * @param toMillis The end of the range in milliseconds since the epoch,
+     * exclusive.
+     * @param consumer Receives each sales item in the range.
+     * @throws IOException If a sales file cannot be read.
+     */
+    public synchronized void query(long fromMillis, long toMillis, Consumer<ASCSalesItem> consumer)
+            throws IOException {
+        refresh();
+        if (fromMillis >= toMillis || partitions.isEmpty()) {
+            return;
+        }
+        // A day starting before the range may still reach into it
+        Long firstDay = partitions.floorKey(fromMillis);
+        List<Long> overlappingDays = new ArrayList<>(partitions.subMap(firstDay == null ? fromMillis : firstDay,
+                true, toMillis, false).keySet());
+
+        for (Long day : overlappingDays) {
+            List<ASCSalesItem> salesItems = new ArrayList<>();
+            boolean complete;
+            try {
+                complete = readPartition(partitions.get(day), fromMillis, toMillis, salesItems);
+            } catch (IOException e) {
+                complete = false;
+            }
+            if (!complete) {
+                // The day was compacted while it was read, so read it again as it is now
+                refresh();
+                salesItems.clear();
+                Partition partition = partitions.get(day);
+                if (partition != null && !readPartition(partition, fromMillis, toMillis, salesItems)) {
+                    throw new IOException("The sales files changed while they were being read");
+                }
+            }
+            salesItems.forEach(consumer);
+        }
+    }
+
+    /**
+     * Gets the sales in a time range, in time order.
+     *
+     * @param fromMillis The start of the range in milliseconds since the
+     * epoch, inclusive.
+     * @param toMillis The end of the range in milliseconds since the epoch,
+     * exclusive.
+     * @return A list of ASCSalesItem objects.
+     * @throws IOException If a sales file cannot be read.
+     */
+    public List<ASCSalesItem> getSalesItems(long fromMillis, long toMillis) throws IOException {
+        List<ASCSalesItem> salesItems = new ArrayList<>();
+        query(fromMillis, toMillis, salesItems::add);
+        return salesItems;
+    }
+
+    // Helper method to read the sales of one day in a time range, in time
+    // order, returning false if its files changed while they were read
+    private static boolean readPartition(Partition partition, long fromMillis, long toMillis,
+            List<ASCSalesItem> salesItems) throws IOException {
+        ASCSalesSegment segment = partition.segment == null ? null : partition.segment.segment;
+        if (segment != null) {
+            segment.readSalesItems(fromMillis, toMillis, salesItems::add);
+        }
+        for (Path rawFile : partition.rawFiles) {
+            if (!readRawFile(rawFile, segment, fromMillis, toMillis, salesItems)) {
+                return false;
+            }
+        }
+        if (!partition.rawFiles.isEmpty()) {
+            salesItems.sort(Comparator.comparingLong(ASCSalesItem::getTimestamp));
+        }
+        if (segment != null) {
+            try {
+                return Files.size(partition.segmentFile) == partition.segment.size
+                        && Files.getLastModifiedTime(partition.segmentFile).equals(partition.segment.modified);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Helper method to open a segment, reusing the one already open if the file is unchanged
+    private OpenedSegment openSegment(Path file) throws IOException {
+        try {
+            long size = Files.size(file);
+            FileTime modified = Files.getLastModifiedTime(file);
+            OpenedSegment opened = openedSegments.get(file);
+            if (opened != null && opened.size == size && opened.modified.equals(modified)) {
+                return opened;
+            }
+            return new OpenedSegment(ASCSalesSegment.open(file), size, modified);
+        } catch (NoSuchFileException e) {
+            // The segment was replaced or removed while the directory was listed
+            return null;
+        }
+    }
+
+    // Helper method to read the sales in a time range from the part of a raw
+    // file not already covered by its day's segment, returning false if the
+    // file has gone
+    private static boolean readRawFile(Path rawFile, ASCSalesSegment segment, long fromMillis, long toMillis,
+            List<ASCSalesItem> salesItems) throws IOException {
+        byte[] bytes;
+        long covered;
+        try {
+            covered = segment == null ? 0 : segment.getCoveredLength(rawFile);
+            bytes = Files.readAllBytes(rawFile);
+        } catch (NoSuchFileException e) {
+            // The file was compacted after the directory was listed
+            return false;
+        }
+
+        String text = new String(bytes, (int) covered, bytes.length - (int) covered, StandardCharsets.UTF_8);
+        for (String line : text.split("\n")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                ASCSalesItem salesItem = ASCSalesItem.parseSalesItem(trimmed);
+                if (salesItem.getTimestamp() >= fromMillis && salesItem.getTimestamp() < toMillis) {
+                    salesItems.add(salesItem);
+                }
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+                // Skip malformed lines rather than losing the rest of the file
+            }
+        }
+        return true;
+    }
+
+    // Helper method to get the start of the day named in a sales file name, or null if it names none
+    private static Long getDayStart(String fileName) {
+        int start = ASCSalesSegment.FILE_PREFIX.length();
+        if (fileName.length() < start + DAY_LENGTH) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(fileName.substring(start, start + DAY_LENGTH), DateTimeFormatter.BASIC_ISO_DATE)
+                    .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -2,11 +2,17 @@ package com.stockcontrol.app;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-import javax.swing.JOptionPane;
 
 /**
  * Represents a sales item with information such as date and time, product code,
@@ -14,10 +20,14 @@ import javax.swing.JOptionPane;
  */
 public class ASCSalesItem {
 
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private String dateTime;
+    private long timestamp;
     private String productCode;
     private int quantitySold;
     private int unitPrice;
+    private int unitPricePence;
     private int totalPrice;
 
     /**
@@ -29,10 +39,27 @@ public class ASCSalesItem {
      * @param unitPrice The unit price of the product.
      */
     public ASCSalesItem(String dateTime, String productCode, int quantitySold, int unitPrice) {
+        this(dateTime, productCode, quantitySold, unitPrice, 0);
+    }
+
+    /**
+     * Constructor for ASCSalesItem class with the pence part of the unit price.
+     *
+     * @param dateTime The date and time of the sales item.
+     * @param productCode The product code of the item sold.
+     * @param quantitySold The quantity of the product sold.
+     * @param unitPrice The unit price of the product in whole pounds.
+     * @param unitPricePence The pence part of the unit price.
+     * @throws DateTimeParseException If the date and time is not formatted as
+     * yyyy-MM-dd HH:mm:ss.
+     */
+    public ASCSalesItem(String dateTime, String productCode, int quantitySold, int unitPrice, int unitPricePence) {
         this.dateTime = dateTime;
+        this.timestamp = toTimestamp(dateTime);
         this.productCode = productCode;
         this.quantitySold = quantitySold;
         this.unitPrice = unitPrice;
+        this.unitPricePence = unitPricePence;
         this.totalPrice = this.quantitySold * this.unitPrice;
     }
 
@@ -45,6 +72,28 @@ public class ASCSalesItem {
         return dateTime;
     }
 
+    /**
+     * Gets the time of the sales item in milliseconds since the epoch.
+     *
+     * @return The timestamp.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Converts a sales date and time, in the system time zone, to milliseconds
+     * since the epoch.
+     *
+     * @param dateTime The date and time, formatted as yyyy-MM-dd HH:mm:ss.
+     * @return The timestamp.
+     * @throws DateTimeParseException If the date and time cannot be parsed.
+     */
+    public static long toTimestamp(String dateTime) {
+        return LocalDateTime.parse(dateTime, DATE_TIME_FORMATTER).atZone(ZoneId.systemDefault()).toInstant()
+                .toEpochMilli();
+    }
+
     /**
      * Gets the product code of the sales item.
      *
@@ -72,6 +121,24 @@ public class ASCSalesItem {
         return unitPrice;
     }
 
+    /**
+     * Gets the pence part of the unit price of the product.
+     *
+     * @return The unit price pence.
+     */
+    public int getUnitPricePence() {
+        return unitPricePence;
+    }
+
+    /**
+     * Gets the total price of the sales item, including pence, in pence.
+     *
+     * @return The total price in pence.
+     */
+    public long getTotalPricePence() {
+        return (long) quantitySold * (unitPrice * 100L + unitPricePence);
+    }
+
     /**
      * Gets the total price of the sales item.
      *
@@ -81,6 +148,27 @@ public class ASCSalesItem {
         return totalPrice;
     }
 
+    /**
+     * Parses a sales item from a line of a sales transactions file.
+     *
+     * @param line The CSV line.
+     * @return The parsed ASCSalesItem.
+     * @throws ArrayIndexOutOfBoundsException If the line has too few fields.
+     * @throws NumberFormatException If a numeric field is not a number.
+     * @throws DateTimeParseException If the date and time is not valid.
+     */
+    static ASCSalesItem parseSalesItem(String line) {
+        String[] data = line.split(",");
+
+        String dateTime = data[0];
+        String productCode = data[1];
+        int quantitySold = Integer.parseInt(data[2]);
+        int unitPrice = Integer.parseInt(data[3]);
+        int unitPricePence = data.length > 4 ? Integer.parseInt(data[4]) : 0;
+
+        return new ASCSalesItem(dateTime, productCode, quantitySold, unitPrice, unitPricePence);
+    }
+
     /**
      * Loads sales data from the default directory.
      *
@@ -91,22 +179,36 @@ public class ASCSalesItem {
     }
 
     /**
-     * Loads sales data from a specified directory.
+     * Loads sales data from a specified directory. Days already compacted into
+     * an ASCSalesSegment are read from the segment, and raw sales transactions
+     * files are read past the part a segment already covers.
      *
      * @param directoryPath The path of the directory containing sales data
      * files.
      * @return A list of ASCSalesItem objects.
      */
-    private static List<ASCSalesItem> loadSalesDataFromDirectory(String directoryPath) {
+    public static List<ASCSalesItem> loadSalesDataFromDirectory(String directoryPath) {
         List<ASCSalesItem> salesItems = new ArrayList<>();
 
         File directory = new File(directoryPath);
         File[] files = directory.listFiles();
 
         if (files != null) {
+            List<ASCSalesSegment> segments = new ArrayList<>();
             for (File file : files) {
-                if (file.isFile() && file.getName().startsWith("SalesTransactions_")) {
-                    salesItems.addAll(loadSalesDataFromFile(file));
+                if (file.isFile() && ASCSalesSegment.isSegmentFile(file.getName())) {
+                    try {
+                        ASCSalesSegment segment = ASCSalesSegment.open(file.toPath());
+                        salesItems.addAll(segment.getSalesItems());
+                        segments.add(segment);
+                    } catch (IOException e) {
+                        ASCErrorReporter.showError("An error occurred while loading sales data: " + e.getMessage());
+                    }
+                }
+            }
+            for (File file : files) {
+                if (file.isFile() && ASCSalesSegment.isRawFile(file.getName())) {
+                    salesItems.addAll(loadSalesDataFromFile(file, segments));
                 }
             }
         }
@@ -118,27 +220,22 @@ public class ASCSalesItem {
      * Loads sales data from a specified file.
      *
      * @param file The file containing sales data.
+     * @param segments The segments already read, whose covered part of the
+     * file is skipped.
      * @return A list of ASCSalesItem objects.
      */
-    private static List<ASCSalesItem> loadSalesDataFromFile(File file) {
+    private static List<ASCSalesItem> loadSalesDataFromFile(File file, List<ASCSalesSegment> segments) {
         List<ASCSalesItem> salesItems = new ArrayList<>();
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        try (InputStream input = new FileInputStream(file)) {
+            input.skipNBytes(ASCSalesSegment.getCoveredLength(segments, file.toPath()));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
             String line;
             while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-
-                String dateTime = data[0];
-                String productCode = data[1];
-                int quantitySold = Integer.parseInt(data[2]);
-                int unitPrice = Integer.parseInt(data[3]);
-
-                ASCSalesItem salesItem = new ASCSalesItem(dateTime, productCode, quantitySold, unitPrice);
-                salesItems.add(salesItem);
+                salesItems.add(parseSalesItem(line));
             }
-        } catch (IOException | ArrayIndexOutOfBoundsException | NumberFormatException e) {
-            JOptionPane.showMessageDialog(null, "An error occurred while loading sales data: " + e.getMessage(), "Error",
-                    JOptionPane.ERROR_MESSAGE);
+        } catch (IOException | ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+            ASCErrorReporter.showError("An error occurred while loading sales data: " + e.getMessage());
         }
 
         return salesItems;
@@ -0,0 +1,406 @@
+package com.stockcontrol.app;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An append-only journal of sales transactions. Records are written to one
+ * file per day, named SalesTransactions_yyyyMMdd.csv, through a channel that
+ * stays open between sales. Records appended concurrently are collected by a
+ * single writer thread and written as one batch (group commit), so many sales
+ * share one write and one fsync. Each record is a CSV line in the format read
+ * by ASCSalesItem.
+ */
+public class ASCSalesJournal implements Closeable {
+
+    /**
+     * Policies controlling when the journal forces written records to disk.
+     */
+    public enum SyncPolicy {
+        /**
+         * Force every batch to disk before the sales in it are acknowledged.
+         */
+        EVERY_WRITE,
+        /**
+         * Force written records to disk at most every given number of
+         * milliseconds.
+         */
+        INTERVAL,
+        /**
+         * Force written records to disk once the given number of records has
+         * been written since the last force.
+         */
+        RECORD_COUNT
+    }
+
+    private static final String FILE_PREFIX = "SalesTransactions_";
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final SyncPolicy syncPolicy;
+    private final long syncParameter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition recordsPending = lock.newCondition();
+    private final Condition recordsSynced = lock.newCondition();
+    private final Thread writerThread;
+
+    // Guarded by lock
+    private List<String> pendingRecords = new ArrayList<>();
+    private long appendedSequence;
+    private long syncedSequence;
+    private boolean syncRequested;
+    private boolean closed;
+    private IOException failure;
+
+    // Owned by the writer thread
+    private FileChannel channel;
+    private String channelDay;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+    private long unsyncedRecords;
+    private long lastSyncNanos = System.nanoTime();
+
+    /**
+     * Constructor for ASCSalesJournal class. Starts the writer thread.
+     *
+     * @param directoryPath The directory the journal files are written to.
+     * @param syncPolicy The policy controlling when records are forced to disk.
+     * @param syncParameter The interval in milliseconds for
+     * {@link SyncPolicy#INTERVAL}, or the number of records for
+     * {@link SyncPolicy#RECORD_COUNT}; ignored for
+     * {@link SyncPolicy#EVERY_WRITE}.
+     */
+    public ASCSalesJournal(String directoryPath, SyncPolicy syncPolicy, long syncParameter) {
+        if (syncPolicy != SyncPolicy.EVERY_WRITE && syncParameter <= 0) {
+            throw new IllegalArgumentException("The sync parameter must be positive for " + syncPolicy);
+        }
+        this.directory = Paths.get(directoryPath);
+        this.syncPolicy = syncPolicy;
+        this.syncParameter = syncParameter;
+
+        writerThread = new Thread(this::runWriter, "ASC-sales-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Gets the sync policy of the journal.
+     *
+     * @return The sync policy.
+     */
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    /**
+     * Appends a sales transaction to the journal. With
+     * {@link SyncPolicy#EVERY_WRITE} this waits until the record is on disk;
+     * with the other policies it returns as soon as the record is queued.
+     *
+     * @param dateTime The date and time of the sale, formatted as yyyy-MM-dd
+     * HH:mm:ss.
+     * @param productCode The product code of the item sold.
+     * @param quantitySold The quantity sold.
+     * @param unitPricePounds The unit price in pounds.
+     * @param unitPricePence The unit price in pence.
+     * @throws IOException If the journal is closed or a write has failed.
+     */
+    public void record(String dateTime, String productCode, int quantitySold, int unitPricePounds,
+            int unitPricePence) throws IOException {
+        append(formatRecord(dateTime, productCode, quantitySold, unitPricePounds, unitPricePence));
+    }
+
+    /**
+     * Formats a sales transaction as a CSV record for {@link #append} or
+     * {@link #appendAll}.
+     *
+     * @param dateTime The date and time of the sale, formatted as yyyy-MM-dd
+     * HH:mm:ss.
+     * @param productCode The product code of the item sold.
+     * @param quantitySold The quantity sold.
+     * @param unitPricePounds The unit price in pounds.
+     * @param unitPricePence The unit price in pence.
+     * @return The CSV record.
+     */
+    public static String formatRecord(String dateTime, String productCode, int quantitySold, int unitPricePounds,
+            int unitPricePence) {
+        return dateTime + "," + productCode + "," + quantitySold + "," + unitPricePounds + "," + unitPricePence;
+    }
+
+    /**
+     * Appends a preformatted CSV record to the journal. The record must start
+     * with a yyyy-MM-dd date, which selects the daily file it is written to.
+     *
+     * @param record The CSV record, without a line separator.
+     * @throws IOException If the journal is closed or a write has failed.
+     */
+    public void append(String record) throws IOException {
+        appendAll(Collections.singletonList(record));
+    }
+
+    /**
+     * Appends several preformatted CSV records to the journal as one entry.
+     * The records are queued together, so they are written in the same batch
+     * and forced to disk by the same sync, and no other record is written
+     * between them.
+     *
+     * @param records The CSV records, each without a line separator.
+     * @throws IOException If the journal is closed or a write has failed.
+     */
+    public void appendAll(List<String> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            checkOpen();
+            pendingRecords.addAll(records);
+            appendedSequence += records.size();
+            long sequence = appendedSequence;
+            recordsPending.signal();
+
+            if (syncPolicy == SyncPolicy.EVERY_WRITE) {
+                awaitSynced(sequence);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all queued records and forces them to disk, whatever the sync
+     * policy.
+     *
+     * @throws IOException If the journal is closed or a write has failed.
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            checkOpen();
+            syncRequested = true;
+            recordsPending.signal();
+            awaitSynced(appendedSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the journal, stops the writer thread and closes the current file.
+     *
+     * @throws IOException If the final flush fails.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (failure == null) {
+                syncRequested = true;
+                recordsPending.signal();
+                awaitSynced(appendedSequence);
+            }
+            closed = true;
+            recordsPending.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // Helper method to fail fast once the journal is closed or broken
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw new IOException("The sales journal failed to write", failure);
+        }
+        if (closed) {
+            throw new IOException("The sales journal is closed");
+        }
+    }
+
+    // Helper method to wait, holding the lock, until a sequence is on disk
+    private void awaitSynced(long sequence) throws IOException {
+        boolean interrupted = false;
+        while (syncedSequence < sequence && failure == null) {
+            try {
+                recordsSynced.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (syncedSequence < sequence) {
+            throw new IOException("The sales journal failed to write", failure);
+        }
+    }
+
+    // Writer thread loop: takes each batch of queued records, writes it and
+    // forces it to disk according to the sync policy
+    private void runWriter() {
+        List<String> batch = new ArrayList<>();
+
+        while (true) {
+            long batchEnd;
+            boolean forceSync;
+
+            lock.lock();
+            try {
+                while (pendingRecords.isEmpty() && !syncRequested && !closed) {
+                    if (syncPolicy == SyncPolicy.INTERVAL && unsyncedRecords > 0) {
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(syncParameter)
+                                - (System.nanoTime() - lastSyncNanos);
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        recordsPending.awaitNanos(remaining);
+                    } else {
+                        recordsPending.await();
+                    }
+                }
+                if (closed && pendingRecords.isEmpty()) {
+                    return;
+                }
+                List<String> swap = pendingRecords;
+                pendingRecords = batch;
+                batch = swap;
+                batchEnd = appendedSequence;
+                forceSync = syncRequested;
+                syncRequested = false;
+            } catch (InterruptedException e) {
+                // Nothing more will be written, so release the waiting callers
+                failure = new InterruptedIOException("The sales journal writer was interrupted");
+                recordsSynced.signalAll();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                writeBatch(batch);
+                boolean synced = syncIfDue(forceSync);
+                batch.clear();
+
+                lock.lock();
+                try {
+                    if (synced) {
+                        syncedSequence = batchEnd;
+                        recordsSynced.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    recordsSynced.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    // Helper method to encode and write a batch, rolling to a new daily file
+    // when the date of the records changes
+    private void writeBatch(List<String> batch) throws IOException {
+        byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+        for (String record : batch) {
+            String day = record.substring(0, 10);
+            if (!day.equals(channelDay)) {
+                writeBuffer();
+                rollTo(day);
+            }
+
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(bytes.length + lineSeparator.length);
+            buffer.put(bytes).put(lineSeparator);
+        }
+        writeBuffer();
+        unsyncedRecords += batch.size();
+    }
+
+    // Helper method to decide whether the written records must be forced now
+    private boolean syncIfDue(boolean forceSync) throws IOException {
+        boolean due = forceSync;
+        switch (syncPolicy) {
+            case EVERY_WRITE:
+                due = true;
+                break;
+            case INTERVAL:
+                due |= System.nanoTime() - lastSyncNanos >= TimeUnit.MILLISECONDS.toNanos(syncParameter);
+                break;
+            case RECORD_COUNT:
+                due |= unsyncedRecords >= syncParameter;
+                break;
+        }
+
+        if (due) {
+            if (channel != null && unsyncedRecords > 0) {
+                channel.force(false);
+            }
+            unsyncedRecords = 0;
+            lastSyncNanos = System.nanoTime();
+        }
+        return due;
+    }
+
+    // Helper method to close the current daily file and open the next one
+    private void rollTo(String day) throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILE_PREFIX + day.replace("-", "") + ".csv");
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        channelDay = day;
+    }
+
+    // Helper method to drain the encode buffer into the current file
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Helper method to grow the encode buffer, keeping its contents
+    private void ensureCapacity(int length) {
+        if (buffer.remaining() < length) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + length));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.stockcontrol.app;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A compacted day of sales transactions. A segment file holds:
+ * <ul>
+ * <li>the day's sales records as CSV lines in the format read by
+ * ASCSalesItem, sorted by time;</li>
+ * <li>a footer listing the raw SalesTransactions_ files folded into the
+ * segment, with the number of bytes of each that it covers and a CRC32C
+ * checksum of those bytes, and a sparse index of the time and byte offset of
+ * every 256th record;</li>
+ * <li>a fixed-size trailer with the footer's offset, the record count, the
+ * format version, a CRC32C checksum of the footer and a magic number.</li>
+ * </ul>
+ * Segments are written to a temporary file and atomically renamed into
+ * place, so readers see either the old segment or the new one. A raw file
+ * listed in a segment is read only past the bytes the segment covers, which
+ * lets readers use a segment and the raw files it was built from at the same
+ * time without counting a sale twice. The checksum makes sure a later file
+ * that merely has the same name is read in full.
+ */
+public class ASCSalesSegment {
+
+    /**
+     * The part of a raw sales transactions file folded into a segment.
+     */
+    public static final class Source {
+
+        private final long length;
+        private final long checksum;
+
+        /**
+         * Constructor for Source class.
+         *
+         * @param length The number of bytes at the start of the raw file that
+         * the segment covers.
+         * @param checksum The CRC32C checksum of those bytes.
+         */
+        public Source(long length, long checksum) {
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Gets the number of bytes at the start of the raw file that the
+         * segment covers.
+         *
+         * @return The covered length.
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * Gets the CRC32C checksum of the covered bytes.
+         *
+         * @return The checksum.
+         */
+        public long getChecksum() {
+            return checksum;
+        }
+    }
+
+    /**
+     * The magic number at the end of every segment, "ASCT" in ASCII.
+     */
+    public static final int MAGIC = 0x41534354;
+    /**
+     * The segment format version written by this class.
+     */
+    public static final int VERSION = 1;
+
+    static final String FILE_PREFIX = "SalesTransactions_";
+    static final String RAW_SUFFIX = ".csv";
+    static final String SEGMENT_SUFFIX = ".segment";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int TRAILER_SIZE = 32;
+    private static final int INDEX_INTERVAL = 256;
+
+    private final Path file;
+    private final long footerOffset;
+    private final int recordCount;
+    private final Map<String, Source> sources;
+    private final long[] indexTimes;
+    private final long[] indexOffsets;
+
+    // Private constructor; segments are opened with open()
+    private ASCSalesSegment(Path file, long footerOffset, int recordCount, Map<String, Source> sources,
+            long[] indexTimes, long[] indexOffsets) {
+        this.file = file;
+        this.footerOffset = footerOffset;
+        this.recordCount = recordCount;
+        this.sources = Collections.unmodifiableMap(sources);
+        this.indexTimes = indexTimes;
+        this.indexOffsets = indexOffsets;
+    }
+
+    /**
+     * Gets the segment file for a day of sales.
+     *
+     * @param directory The sales directory.
+     * @param day The day, formatted as yyyyMMdd.
+     * @return The segment file.
+     */
+    public static Path getSegmentFile(Path directory, String day) {
+        return directory.resolve(FILE_PREFIX + day + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Checks whether a file name is that of a sales segment.
+     *
+     * @param fileName The file name.
+     * @return True if the file is a sales segment.
+     */
+    public static boolean isSegmentFile(String fileName) {
+        return fileName.startsWith(FILE_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Checks whether a file name is that of a raw, not yet compacted, sales
+     * transactions file.
+     *
+     * @param fileName The file name.
+     * @return True if the file is a raw sales transactions file.
+     */
+    public static boolean isRawFile(String fileName) {
+        return fileName.startsWith(FILE_PREFIX) && fileName.endsWith(RAW_SUFFIX);
+    }
+
+    /**
+     * Reads the footer of a segment file and checks its trailer and checksum.
+     *
+     * @param file The segment file.
+     * @return The opened segment.
+     * @throws IOException If the file cannot be read, is not a segment of a
+     * supported version, or is damaged.
+     */
+    public static ASCSalesSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_SIZE) {
+                throw new IOException("Not a sales segment");
+            }
+            ByteBuffer trailer = read(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            long footerOffset = trailer.getLong(0);
+            int recordCount = trailer.getInt(8);
+            int version = trailer.getInt(12);
+            long checksum = trailer.getLong(16);
+            if (trailer.getInt(28) != MAGIC) {
+                throw new IOException("Not a sales segment");
+            }
+            if (version != VERSION) {
+                throw new IOException("Unsupported sales segment version " + version);
+            }
+            long footerLength = size - TRAILER_SIZE - footerOffset;
+            if (footerOffset < 0 || footerLength < 0 || footerLength > Integer.MAX_VALUE || recordCount < 0) {
+                throw new IOException("The sales segment is truncated or damaged");
+            }
+
+            byte[] footer = read(channel, footerOffset, (int) footerLength).array();
+            if (checksum(footer) != checksum) {
+                throw new IOException("The sales segment checksum does not match");
+            }
+            return readFooter(file, footerOffset, recordCount, footer);
+        }
+    }
+
+    /**
+     * Writes sales items to a segment file atomically: the segment is written
+     * and forced to a temporary file, which is then renamed over the segment.
+     * The items are written sorted by time; items with the same time keep
+     * their order.
+     *
+     * @param file The segment file.
+     * @param salesItems The sales items of the day.
+     * @param sources The raw files folded into the segment, with the part of
+     * each that the segment covers.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path file, List<ASCSalesItem> salesItems, Map<String, Source> sources)
+            throws IOException {
+        List<ASCSalesItem> sortedItems = new ArrayList<>(salesItems);
+        sortedItems.sort(Comparator.comparingLong(ASCSalesItem::getTimestamp));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        List<long[]> index = new ArrayList<>();
+        for (int i = 0; i < sortedItems.size(); i++) {
+            ASCSalesItem item = sortedItems.get(i);
+            if (i % INDEX_INTERVAL == 0) {
+                index.add(new long[]{item.getTimestamp(), body.size()});
+            }
+            String record = ASCSalesJournal.formatRecord(item.getDateTime(), item.getProductCode(),
+                    item.getQuantitySold(), item.getUnitPrice(), item.getUnitPricePence());
+            body.write(record.getBytes(StandardCharsets.UTF_8));
+            body.write('\n');
+        }
+
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(footerBytes);
+        footer.writeInt(sources.size());
+        for (Map.Entry<String, Source> source : sources.entrySet()) {
+            footer.writeUTF(source.getKey());
+            footer.writeLong(source.getValue().getLength());
+            footer.writeLong(source.getValue().getChecksum());
+        }
+        footer.writeInt(index.size());
+        for (long[] entry : index) {
+            footer.writeLong(entry[0]);
+            footer.writeLong(entry[1]);
+        }
+        footer.flush();
+
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+        trailer.putLong(0, body.size());
+        trailer.putInt(8, sortedItems.size());
+        trailer.putInt(12, VERSION);
+        trailer.putLong(16, checksum(footerBytes.toByteArray()));
+        trailer.putInt(28, MAGIC);
+
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.wrap(body.toByteArray()));
+            writeFully(channel, ByteBuffer.wrap(footerBytes.toByteArray()));
+            writeFully(channel, trailer);
+            channel.force(true);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Gets the number of sales records in the segment.
+     *
+     * @return The record count.
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the raw files folded into the segment.
+     *
+     * @return An unmodifiable map from raw file name to the part of the file
+     * that the segment covers.
+     */
+    public Map<String, Source> getSources() {
+        return sources;
+    }
+
+    /**
+     * Gets the number of bytes of a raw file that the segment covers. The
+     * start of the file is checked against the checksum in the segment, so a
+     * different file with the same name is not skipped.
+     *
+     * @param rawFile The raw sales transactions file.
+     * @return The number of bytes covered, or 0 if the segment does not cover
+     * the file.
+     * @throws IOException If the raw file cannot be read.
+     */
+    public long getCoveredLength(Path rawFile) throws IOException {
+        Source source = sources.get(rawFile.getFileName().toString());
+        if (source == null || source.getLength() > Files.size(rawFile) || source.getLength() > Integer.MAX_VALUE) {
+            return 0;
+        }
+        byte[] bytes;
+        try (FileChannel channel = FileChannel.open(rawFile, StandardOpenOption.READ)) {
+            bytes = read(channel, 0, (int) source.getLength()).array();
+        }
+        return checksum(bytes) == source.getChecksum() ? source.getLength() : 0;
+    }
+
+    /**
+     * Gets the number of bytes of a raw file that any of the given segments
+     * covers.
+     *
+     * @param segments The segments of the sales directory.
+     * @param rawFile The raw sales transactions file.
+     * @return The number of bytes covered, or 0 if no segment covers the file.
+     * @throws IOException If the raw file cannot be read.
+     */
+    public static long getCoveredLength(Collection<ASCSalesSegment> segments, Path rawFile) throws IOException {
+        for (ASCSalesSegment segment : segments) {
+            long coveredLength = segment.getCoveredLength(rawFile);
+            if (coveredLength > 0) {
+                return coveredLength;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Calculates the CRC32C checksum of the covered bytes of a raw file.
+     *
+     * @param bytes The covered bytes.
+     * @return The checksum.
+     */
+    public static long checksum(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Reads every sales item of the segment, in time order.
+     *
+     * @return A list of ASCSalesItem objects.
+     * @throws IOException If the segment cannot be read or a record is damaged.
+     */
+    public List<ASCSalesItem> getSalesItems() throws IOException {
+        List<ASCSalesItem> salesItems = new ArrayList<>(recordCount);
+        readRecords(0, footerOffset, Long.MIN_VALUE, Long.MAX_VALUE, salesItems::add);
+        return salesItems;
+    }
+
+    /**
+     * Reads the sales items of the segment in a time range, in time order. The
+     * footer index is searched for the blocks of records that can hold the
+     * range, so only those are read.
+     *
+     * @param fromMillis The start of the range in milliseconds since the
+     * epoch, inclusive.
+     * @param toMillis The end of the range in milliseconds since the epoch,
+     * exclusive.
+     * @param consumer Receives each sales item in the range.
+     * @throws IOException If the segment cannot be read or a record is damaged.
+     */
+    public void readSalesItems(long fromMillis, long toMillis, Consumer<ASCSalesItem> consumer) throws IOException {
+        if (fromMillis >= toMillis || indexTimes.length == 0) {
+            return;
+        }
+        // Records before the last block starting before the range, and from
+        // the first block starting at or after its end, are all outside it
+        int first = findFirstBlock(fromMillis) - 1;
+        int end = findFirstBlock(toMillis);
+        long start = first < 0 ? 0 : indexOffsets[first];
+        long stop = end < indexOffsets.length ? indexOffsets[end] : footerOffset;
+        readRecords(start, stop, fromMillis, toMillis, consumer);
+    }
+
+    // Helper method to find the first index block whose first record is at or after a time
+    private int findFirstBlock(long millis) {
+        int low = 0;
+        int high = indexTimes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (indexTimes[middle] < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Helper method to parse the records stored between two byte offsets of the
+    // body, passing on those in a time range
+    private void readRecords(long start, long end, long fromMillis, long toMillis, Consumer<ASCSalesItem> consumer)
+            throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("The sales segment is too large");
+        }
+        byte[] bytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            bytes = read(channel, start, (int) (end - start)).array();
+        }
+
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                ASCSalesItem salesItem;
+                try {
+                    salesItem = ASCSalesItem.parseSalesItem(line);
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+                    throw new IOException("The sales segment has a damaged record: " + line, e);
+                }
+                if (salesItem.getTimestamp() >= fromMillis && salesItem.getTimestamp() < toMillis) {
+                    consumer.accept(salesItem);
+                }
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    // Helper method to parse the source list and index of a footer
+    private static ASCSalesSegment readFooter(Path file, long footerOffset, int recordCount, byte[] footer)
+            throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(footer));
+        int sourceCount = input.readInt();
+        Map<String, Source> sources = new LinkedHashMap<>();
+        for (int i = 0; i < sourceCount; i++) {
+            sources.put(input.readUTF(), new Source(input.readLong(), input.readLong()));
+        }
+        int indexCount = input.readInt();
+        if (indexCount < 0 || indexCount > recordCount) {
+            throw new IOException("The sales segment is truncated or damaged");
+        }
+        long[] indexTimes = new long[indexCount];
+        long[] indexOffsets = new long[indexCount];
+        for (int i = 0; i < indexCount; i++) {
+            indexTimes[i] = input.readLong();
+            indexOffsets[i] = input.readLong();
+        }
+        return new ASCSalesSegment(file, footerOffset, recordCount, sources, indexTimes, indexOffsets);
+    }
+
+    // Helper method to read a range of a file into a buffer
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("The sales segment is truncated or damaged");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Helper method to write the whole of a buffer to a channel
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.stockcontrol.app;
+
+import java.util.Collections;
+import java.util.SortedMap;
+
+/**
+ * A snapshot of the sales totals of one product, one department or the whole
+ * shop: units sold, revenue, the time of the last sale and the same totals per
+ * day.
+ */
+public class ASCSalesSummary {
+
+    private final long unitsSold;
+    private final long revenuePence;
+    private final String lastSaleDateTime;
+    private final SortedMap<String, Long> dailyUnitsSold;
+    private final SortedMap<String, Long> dailyRevenuePence;
+
+    /**
+     * Constructor for ASCSalesSummary class.
+     *
+     * @param unitsSold The number of units sold.
+     * @param revenuePence The revenue in pence.
+     * @param lastSaleDateTime The date and time of the latest sale, formatted as
+     * yyyy-MM-dd HH:mm:ss, or null if nothing was sold.
+     * @param dailyUnitsSold The units sold per day, keyed by yyyy-MM-dd.
+     * @param dailyRevenuePence The revenue in pence per day, keyed by
+     * yyyy-MM-dd.
+     */
+    public ASCSalesSummary(long unitsSold, long revenuePence, String lastSaleDateTime,
+            SortedMap<String, Long> dailyUnitsSold, SortedMap<String, Long> dailyRevenuePence) {
+        this.unitsSold = unitsSold;
+        this.revenuePence = revenuePence;
+        this.lastSaleDateTime = lastSaleDateTime;
+        this.dailyUnitsSold = Collections.unmodifiableSortedMap(dailyUnitsSold);
+        this.dailyRevenuePence = Collections.unmodifiableSortedMap(dailyRevenuePence);
+    }
+
+    /**
+     * Gets the number of units sold.
+     *
+     * @return The units sold.
+     */
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    /**
+     * Gets the revenue in pence.
+     *
+     * @return The revenue in pence.
+     */
+    public long getRevenuePence() {
+        return revenuePence;
+    }
+
+    /**
+     * Gets the date and time of the latest sale.
+     *
+     * @return The date and time, formatted as yyyy-MM-dd HH:mm:ss, or null if
+     * nothing was sold.
+     */
+    public String getLastSaleDateTime() {
+        return lastSaleDateTime;
+    }
+
+    /**
+     * Gets the units sold per day.
+     *
+     * @return An unmodifiable map of units sold, keyed by yyyy-MM-dd.
+     */
+    public SortedMap<String, Long> getDailyUnitsSold() {
+        return dailyUnitsSold;
+    }
+
+    /**
+     * Gets the revenue per day.
+     *
+     * @return An unmodifiable map of revenue in pence, keyed by yyyy-MM-dd.
+     */
+    public SortedMap<String, Long> getDailyRevenuePence() {
+        return dailyRevenuePence;
+    }
+
+    /**
+     * Generates a string representation of the sales summary.
+     *
+     * @return The formatted string.
+     */
+    @Override
+    public String toString() {
+        return String.format("UNITS: %d - REVENUE: £%d.%02d - LAST SALE: %s", unitsSold, revenuePence / 100,
+                revenuePence % 100, lastSaleDateTime);
+    }
+}
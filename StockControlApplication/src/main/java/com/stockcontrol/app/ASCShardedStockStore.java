@@ -0,0 +1,199 @@
+package com.stockcontrol.app;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A stock store partitioned into shards, by department or by a hash of the
+ * product code as decided by an ASCStockShardRouter. Each shard is an
+ * ASCStockItemList with its own product code index and its own lock, so
+ * changes to items in different shards never wait for each other. The store
+ * lists the shards' items one shard after another; a new item appears at the
+ * end of its own shard.
+ * <p>
+ * Unlike other stores, changes are synchronized on the shard they touch rather
+ * than on the store, so holding the store's monitor does not give a consistent
+ * view. Copying the store with {@link #toArray()} copies each shard while
+ * holding that shard's lock.
+ */
+public class ASCShardedStockStore extends AbstractList<ASCStockItem> implements ASCStockStore, RandomAccess {
+
+    private final ASCStockShardRouter router;
+    private final ASCStockItemList[] shards;
+
+    /**
+     * Constructs an empty ASCShardedStockStore.
+     *
+     * @param router Decides which shard holds each product.
+     */
+    public ASCShardedStockStore(ASCStockShardRouter router) {
+        this.router = router;
+        shards = new ASCStockItemList[router.getShardCount()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ASCStockItemList();
+        }
+    }
+
+    /**
+     * Gets the router that assigns products to shards.
+     *
+     * @return The router.
+     */
+    public ASCStockShardRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return The shard count.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Gets a shard. Changes to the shard are synchronized on it.
+     *
+     * @param shard The shard number.
+     * @return The shard's stock store.
+     */
+    public ASCStockStore getShard(int shard) {
+        return shards[shard];
+    }
+
+    /**
+     * Gets the shard that holds, or would hold, a product.
+     *
+     * @param productCode The product code.
+     * @return The shard number.
+     */
+    public int getShardIndex(String productCode) {
+        return router.getShard(productCode);
+    }
+
+    @Override
+    public ASCStockItem findByProductCode(String productCode) {
+        return shards[router.getShard(productCode)].findByProductCode(productCode);
+    }
+
+    @Override
+    public boolean containsProductCode(String productCode) {
+        return shards[router.getShard(productCode)].containsProductCode(productCode);
+    }
+
+    @Override
+    public int indexOfProductCode(String productCode) {
+        int shard = router.getShard(productCode);
+        int index = shards[shard].indexOfProductCode(productCode);
+        return index < 0 ? -1 : getShardOffset(shard) + index;
+    }
+
+    @Override
+    public ASCStockItem get(int index) {
+        int remaining = index;
+        for (ASCStockItemList shard : shards) {
+            int size = shard.size();
+            if (remaining < size) {
+                return shard.get(remaining);
+            }
+            remaining -= size;
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ASCStockItemList shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean add(ASCStockItem item) {
+        return shards[router.getShard(item.getProductCode())].add(item);
+    }
+
+    @Override
+    public boolean addIfAbsent(ASCStockItem item) {
+        return shards[router.getShard(item.getProductCode())].addIfAbsent(item);
+    }
+
+    /**
+     * Adds stock items, grouped by shard so that each shard is locked once.
+     *
+     * @param items The stock items to add.
+     * @return True if any item was added.
+     */
+    @Override
+    public boolean addAll(Collection<? extends ASCStockItem> items) {
+        List<List<ASCStockItem>> byShard = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (ASCStockItem item : items) {
+            byShard.get(router.getShard(item.getProductCode())).add(item);
+        }
+        for (int i = 0; i < shards.length; i++) {
+            if (!byShard.get(i).isEmpty()) {
+                synchronized (shards[i]) {
+                    shards[i].addAll(byShard.get(i));
+                }
+            }
+        }
+        return !items.isEmpty();
+    }
+
+    @Override
+    public ASCStockItem remove(int index) {
+        int remaining = index;
+        for (ASCStockItemList shard : shards) {
+            synchronized (shard) {
+                int size = shard.size();
+                if (remaining < size) {
+                    return shard.remove(remaining);
+                }
+                remaining -= size;
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    @Override
+    public boolean remove(Object item) {
+        return item instanceof ASCStockItem
+                && shards[router.getShard(((ASCStockItem) item).getProductCode())].remove(item);
+    }
+
+    @Override
+    public void clear() {
+        for (ASCStockItemList shard : shards) {
+            shard.clear();
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        List<ASCStockItem> copy = new ArrayList<>();
+        for (ASCStockItemList shard : shards) {
+            synchronized (shard) {
+                copy.addAll(shard);
+            }
+        }
+        return copy.toArray();
+    }
+
+    // Helper method to find the position of a shard's first item in the store
+    private int getShardOffset(int shard) {
+        int offset = 0;
+        for (int i = 0; i < shard; i++) {
+            offset += shards[i].size();
+        }
+        return offset;
+    }
+}
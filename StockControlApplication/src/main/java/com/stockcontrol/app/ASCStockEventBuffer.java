@@ -0,0 +1,132 @@
+package com.stockcontrol.app;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer of stock events for many publishing and
+ * many consuming threads. Each slot carries a sequence number that tells
+ * publishers and consumers whose turn it is to use it, so offering and polling
+ * never lock and never allocate.
+ */
+class ASCStockEventBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<ASCStockItem> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong publishPosition = new AtomicLong();
+    private final AtomicLong consumePosition = new AtomicLong();
+
+    /**
+     * Constructor for ASCStockEventBuffer class.
+     *
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    ASCStockEventBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        size = Math.max(size, 2);
+        mask = size - 1;
+        items = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Gets the number of slots in the buffer.
+     *
+     * @return The capacity.
+     */
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds an event to the buffer if there is room.
+     *
+     * @param item The updated stock item.
+     * @return True if the event was added, false if the buffer is full.
+     */
+    boolean offer(ASCStockItem item) {
+        long position = publishPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (publishPosition.compareAndSet(position, position + 1)) {
+                    items.lazySet(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = publishPosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = publishPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest event from the buffer.
+     *
+     * @return The updated stock item, or null if the buffer is empty.
+     */
+    ASCStockItem poll() {
+        long position = consumePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (consumePosition.compareAndSet(position, position + 1)) {
+                    ASCStockItem item = items.get(index);
+                    items.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return item;
+                }
+                position = consumePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = consumePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Checks whether an event for a product is waiting in the buffer. The
+     * queued events are scanned, so this is meant for a full buffer rather
+     * than for every event.
+     *
+     * @param productCode The product code.
+     * @return True if an event for the product has not been taken yet.
+     */
+    boolean containsProduct(String productCode) {
+        long end = publishPosition.get();
+        for (long position = consumePosition.get(); position < end; position++) {
+            int index = (int) position & mask;
+            // The sequence shows the slot still holds the event published at this position
+            if (sequences.get(index) == position + 1) {
+                ASCStockItem item = items.get(index);
+                if (item != null && item.getProductCode().equals(productCode)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the buffer holds no events.
+     *
+     * @return True if the buffer is empty.
+     */
+    boolean isEmpty() {
+        return consumePosition.get() >= publishPosition.get();
+    }
+}
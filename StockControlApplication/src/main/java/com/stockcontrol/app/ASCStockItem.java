@@ -1,25 +1,38 @@
 package com.stockcontrol.app;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import javax.swing.JOptionPane;
+import java.util.function.Consumer;
 
 /**
  * Represents a stock item with information such as product code, product title,
- * product description, unit price, and quantity in stock.
+ * product description, unit price, and quantity in stock. The quantity in stock
+ * may be updated by several threads at once.
  */
 public class ASCStockItem {
 
+    private static final VarHandle QUANTITY_IN_STOCK;
+    private static final int DEPARTMENT_LENGTH = 3;
+
+    static {
+        try {
+            QUANTITY_IN_STOCK = MethodHandles.lookup().findVarHandle(ASCStockItem.class, "quantityInStock", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String productCode;
     private String productTitle;
     private String productDescription;
     private int unitPricePounds;
     private int unitPricePence;
-    private int quantityInStock;
+    private volatile int quantityInStock;
 
     /**
      * Constructor for ASCStockItem class.
@@ -41,6 +54,26 @@ public class ASCStockItem {
         this.quantityInStock = quantityInStock;
     }
 
+    /**
+     * Constructor for subclasses that keep the stock item's data elsewhere and
+     * override every getter and setter, such as the views handed out by
+     * ASCColumnarStockStore.
+     */
+    protected ASCStockItem() {
+    }
+
+    /**
+     * Gets the department of a product code, which is its three letter prefix
+     * such as RUN, SWM or CYC.
+     *
+     * @param productCode The product code.
+     * @return The department, or the whole code if it is shorter than a
+     * department prefix.
+     */
+    public static String getDepartment(String productCode) {
+        return productCode.length() < DEPARTMENT_LENGTH ? productCode : productCode.substring(0, DEPARTMENT_LENGTH);
+    }
+
     /**
      * Limits the length of a string to a specified maximum length.
      *
@@ -120,6 +153,65 @@ public class ASCStockItem {
         }
     }
 
+    /**
+     * Atomically removes a quantity from stock, provided that enough is in
+     * stock. Concurrent removals never oversell or lose an update.
+     *
+     * @param quantity The quantity to remove; must be positive.
+     * @return True if the quantity was removed, false if too little was in
+     * stock or the quantity was not positive.
+     */
+    public boolean removeFromStock(int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        while (true) {
+            int current = getQuantityInStock();
+            if (current < quantity) {
+                return false;
+            }
+            if (compareAndSetQuantityInStock(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically adds a quantity to stock. Concurrent additions and removals
+     * never lose an update.
+     *
+     * @param quantity The quantity to add; must be positive.
+     * @return True if the quantity was added, false if it was not positive or
+     * the total would overflow.
+     */
+    public boolean addToStock(int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        while (true) {
+            int current = getQuantityInStock();
+            if (current > Integer.MAX_VALUE - quantity) {
+                return false;
+            }
+            if (compareAndSetQuantityInStock(current, current + quantity)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically sets the quantity in stock to a new value if it currently
+     * has the expected value. Subclasses that keep the quantity elsewhere
+     * override this together with the quantity getter and setter.
+     *
+     * @param expectedQuantity The quantity expected to be in stock.
+     * @param newQuantity The new quantity value.
+     * @return True if the quantity was updated.
+     */
+    protected boolean compareAndSetQuantityInStock(int expectedQuantity, int newQuantity) {
+        return QUANTITY_IN_STOCK.compareAndSet(this, expectedQuantity, newQuantity);
+    }
+
     /**
      * Generates a formatted string representation of the stock item.
      *
@@ -138,31 +230,51 @@ public class ASCStockItem {
      */
     public static List<ASCStockItem> loadStock() {
         final List<ASCStockItem> loadedStock = new ArrayList<>();
-        String csvFilePath = "src/main/resources/AshersSportsCollective.csv";
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFilePath, StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-
-                // Extracting data from CSV
-                String productCode = data[0];
-                String productTitle = data[1];
-                String productDescription = data[2];
-                int unitPricePounds = Integer.parseInt(data[3]);
-                int unitPricePence = Integer.parseInt(data[4]);
-                int quantityInStock = Integer.parseInt(data[5]);
-
-                // Creating ASCStockItem object and adding to the list
-                ASCStockItem stockItem = new ASCStockItem(productCode, productTitle, productDescription,
-                        unitPricePounds, unitPricePence, quantityInStock);
-                loadedStock.add(stockItem);
-            }
-        } catch (IOException | ArrayIndexOutOfBoundsException | NumberFormatException e) {
-            JOptionPane.showMessageDialog(null, "Error reading CSV file. Please check the file path.", "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
-
+        loadStock(loadedStock::add);
         return loadedStock;
     }
+
+    /**
+     * Loads stock data from a CSV file, passing each item on as soon as its
+     * line has been parsed.
+     *
+     * @param itemConsumer Receives the loaded stock items in file order.
+     */
+    public static void loadStock(Consumer<ASCStockItem> itemConsumer) {
+        loadStock(Paths.get("src/main/resources/AshersSportsCollective.csv"), itemConsumer);
+    }
+
+    /**
+     * Loads stock data from the given CSV file, passing each item on as soon
+     * as its line has been parsed.
+     *
+     * @param csvFile The catalog CSV file.
+     * @param itemConsumer Receives the loaded stock items in file order.
+     */
+    public static void loadStock(Path csvFile, Consumer<ASCStockItem> itemConsumer) {
+        try {
+            ASCMappedCsvParser.parseFile(csvFile, row -> {
+                ASCStockItem stockItem;
+                try {
+                    // Extracting data from CSV
+                    String productCode = row.getString(0);
+                    String productTitle = row.getString(1);
+                    String productDescription = row.getString(2);
+                    int unitPricePounds = row.getInt(3);
+                    int unitPricePence = row.getInt(4);
+                    int quantityInStock = row.getInt(5);
+
+                    // Creating ASCStockItem object
+                    stockItem = new ASCStockItem(productCode, productTitle, productDescription, unitPricePounds,
+                            unitPricePence, quantityInStock);
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                    // Skip malformed rows rather than losing the rest of the file
+                    return;
+                }
+                itemConsumer.accept(stockItem);
+            });
+        } catch (IOException e) {
+            ASCErrorReporter.showError("Error reading CSV file. Please check the file path.");
+        }
+    }
 }
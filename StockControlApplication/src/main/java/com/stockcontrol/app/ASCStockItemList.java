@@ -0,0 +1,138 @@
+package com.stockcontrol.app;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A stock store that holds the stock item objects in a list and keeps a hash
+ * index of them by product code, so that an item can be found in constant
+ * time without scanning the list. The index is a concurrent map, so lookups
+ * never block; changes to the list are synchronized on the list. The positions
+ * of the items are indexed too; appending keeps that index current, while
+ * other changes have it rebuilt on the next position lookup.
+ */
+public class ASCStockItemList extends AbstractList<ASCStockItem> implements ASCStockStore, RandomAccess {
+
+    private final List<ASCStockItem> items;
+    private final Map<String, ASCStockItem> productIndex;
+    private final Map<String, Integer> positionIndex = new HashMap<>();
+    private boolean positionIndexValid = true;
+
+    /**
+     * Constructs an empty ASCStockItemList.
+     */
+    public ASCStockItemList() {
+        items = new ArrayList<>();
+        productIndex = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Constructs an ASCStockItemList containing the given stock items.
+     *
+     * @param stockItems The stock items to add to the list.
+     */
+    public ASCStockItemList(Collection<? extends ASCStockItem> stockItems) {
+        items = new ArrayList<>(stockItems.size());
+        productIndex = new ConcurrentHashMap<>(Math.max(16, stockItems.size()));
+        addAll(stockItems);
+    }
+
+    @Override
+    public ASCStockItem findByProductCode(String productCode) {
+        return productIndex.get(productCode);
+    }
+
+    @Override
+    public boolean containsProductCode(String productCode) {
+        return productIndex.containsKey(productCode);
+    }
+
+    @Override
+    public synchronized int indexOfProductCode(String productCode) {
+        if (!positionIndexValid) {
+            positionIndex.clear();
+            for (int i = 0; i < items.size(); i++) {
+                positionIndex.putIfAbsent(items.get(i).getProductCode(), i);
+            }
+            positionIndexValid = true;
+        }
+        Integer position = positionIndex.get(productCode);
+        return position == null ? -1 : position;
+    }
+
+    @Override
+    public synchronized ASCStockItem get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public synchronized int size() {
+        return items.size();
+    }
+
+    @Override
+    public synchronized ASCStockItem set(int index, ASCStockItem item) {
+        ASCStockItem previous = items.set(index, item);
+        positionIndexValid = false;
+        unindex(previous);
+        productIndex.putIfAbsent(item.getProductCode(), item);
+        return previous;
+    }
+
+    @Override
+    public synchronized void add(int index, ASCStockItem item) {
+        items.add(index, item);
+        modCount++;
+        String productCode = item.getProductCode();
+        if (positionIndexValid && index == items.size() - 1) {
+            positionIndex.putIfAbsent(productCode, index);
+        } else {
+            positionIndexValid = false;
+        }
+        ASCStockItem indexed = productIndex.putIfAbsent(productCode, item);
+
+        // An item inserted ahead of the indexed one becomes the first match
+        if (indexed != null && index < items.size() - 1 && items.indexOf(indexed) > index) {
+            productIndex.put(productCode, item);
+        }
+    }
+
+    @Override
+    public synchronized ASCStockItem remove(int index) {
+        ASCStockItem removed = items.remove(index);
+        modCount++;
+        positionIndexValid = false;
+        unindex(removed);
+        return removed;
+    }
+
+    @Override
+    public synchronized void clear() {
+        items.clear();
+        productIndex.clear();
+        positionIndex.clear();
+        positionIndexValid = true;
+        modCount++;
+    }
+
+    // Helper method to drop an item from the index, promoting the next item
+    // with the same product code if there is one
+    private void unindex(ASCStockItem item) {
+        String productCode = item.getProductCode();
+        if (!productIndex.remove(productCode, item)) {
+            return;
+        }
+        for (ASCStockItem candidate : items) {
+            if (candidate.getProductCode().equals(productCode)) {
+                productIndex.put(productCode, candidate);
+                break;
+            }
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package com.stockcontrol.app;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import javax.swing.JOptionPane;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import javax.swing.table.DefaultTableModel;
 
 /**
@@ -15,51 +30,413 @@ import javax.swing.table.DefaultTableModel;
  */
 public class ASCStockManager {
 
-    private List<ASCStockItem> stockItems;
-    private DefaultTableModel stockTableModel, salesTableModel;
+    private final ASCStockStore stockItems;
+    private final ASCShardedStockStore shardedStockItems;
+    private volatile ASCMergeReport mergeReport;
+    private volatile boolean stockLoaded;
+    private volatile ASCStockTableModel stockTableModel;
+    private DefaultTableModel salesTableModel;
+    private volatile ASCSalesJournal salesJournal;
+    private volatile ASCStockPersister[] stockPersisters;
+    private ASCSalesCompactor salesCompactor;
+    private final ASCSalesHistory salesHistory = new ASCSalesHistory(RESOURCES_DIRECTORY);
+    private final ASCSalesIndex salesIndex = new ASCSalesIndex(RESOURCES_DIRECTORY);
+    private final ASCSalesAggregates salesAggregates = new ASCSalesAggregates();
+    private final ASCProductSearchIndex searchIndex = new ASCProductSearchIndex();
+    private final ASCProductCodeIndex codeIndex = new ASCProductCodeIndex();
+    private int salesTableResetCount;
+    private volatile String catalogDirectory = RESOURCES_DIRECTORY;
+    private final ASCLowStockMonitor lowStockMonitor;
+    private final ASCStockMetrics metrics = ASCStockMetrics.getInstance();
+    private final Object[] sellLocks = createSellLocks();
+    private final List<ASCSupplierFeed<?>> supplierFeeds = new CopyOnWriteArrayList<>(List.of(new MSMSupplierFeed()));
     static final int LOW_STOCK_THRESHOLD = 5;
+    static final long LOW_STOCK_ALERT_INTERVAL_MILLIS = 1000;
+    static final int LOAD_CHUNK_SIZE = 4096;
+    static final int SELL_LOCK_COUNT = 64;
+    static final long SALES_COMPACTION_MIN_AGE_MILLIS = 5 * 60 * 1000;
+    static final String RESOURCES_DIRECTORY = "src/main/resources/";
+    static final String CATALOG_FILE_NAME = "AshersSportsCollective.csv";
+    static final String SHARD_CATALOG_FILE_NAME = "AshersSportsCollective-%s.csv";
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
      * Constructs an ASCStockManager, loading stock items and initializing table
      * models.
      */
     public ASCStockManager() {
-        // Load stock items from ASC and Mengda's Sports Mart (MSM)
-        List<ASCStockItem> ascStockItems = ASCStockItem.loadStock();
-        List<MSMStockItem> mengdaStockItems = MSMStockItem.loadStock();
+        this(new ASCStockItemList());
+    }
 
-        // Merge stock items from ASC and MSM, ensuring no duplicates
-        for (MSMStockItem mengdaStockItem : mengdaStockItems) {
-            boolean alreadyAdded = ascStockItems.stream()
-                    .anyMatch(item -> item.getProductCode().equals(getASCProductCode(mengdaStockItem)));
+    /**
+     * Constructs an ASCStockManager that keeps its stock in the given store,
+     * loading stock items into it and initializing table models. Use an
+     * ASCColumnarStockStore to hold very large catalogs compactly, or an
+     * ASCShardedStockStore to partition the stock by department.
+     *
+     * @param stockStore An empty stock store to load the stock into.
+     */
+    public ASCStockManager(ASCStockStore stockStore) {
+        this(stockStore, true);
+    }
+
+    /**
+     * Constructs an ASCStockManager that keeps its stock in the given store and
+     * initializes table models. If the stock is not loaded now, the store and
+     * tables start empty and {@link #loadStock} must be called, typically from
+     * a background thread, before stock is bought or sold.
+     * <p>
+     * Given an ASCShardedStockStore, the manager runs in sharded mode: each
+     * shard is saved to its own catalog file, AshersSportsCollective-NAME.csv,
+     * by its own persister, so sales in different shards are written and
+     * saved independently, and the stock is loaded from the shard catalogs
+     * once they exist.
+     *
+     * @param stockStore An empty stock store to load the stock into.
+     * @param loadNow True to load the stock before the constructor returns.
+     */
+    public ASCStockManager(ASCStockStore stockStore, boolean loadNow) {
+        stockItems = stockStore;
+        shardedStockItems = stockStore instanceof ASCShardedStockStore ? (ASCShardedStockStore) stockStore : null;
+        lowStockMonitor = new ASCLowStockMonitor(stockItems, LOW_STOCK_THRESHOLD, LOW_STOCK_ALERT_INTERVAL_MILLIS);
+        metrics.setStockGauges(stockItems::size, lowStockMonitor::getLowStockCount);
+
+        if (loadNow) {
+            loadStock(null);
+        }
+    }
+
+    /**
+     * Registers a supplier feed to be loaded with the stock. Feeds are merged
+     * in registration order after the ASC catalog; Mengda's Sports Mart (MSM)
+     * is registered by default.
+     *
+     * @param feed The supplier feed.
+     */
+    public void registerSupplierFeed(ASCSupplierFeed<?> feed) {
+        supplierFeeds.add(feed);
+    }
+
+    /**
+     * Loads the stock from ASC and the registered supplier feeds. If a binary
+     * stock snapshot at least as new as every catalog is found, the already
+     * merged stock is read from it without parsing, and the merge report
+     * records no supplier items. Otherwise the ASC catalog and every supplier
+     * catalog are parsed in parallel; ASC items are added to the stock store,
+     * and announced to the stock table, in chunks as they are parsed, and
+     * supplier items are merged in one pass once every catalog is read.
+     * Either way, the stock changes saved since the catalog was last written
+     * in full are applied last.
+     * <p>
+     * In sharded mode the shard catalogs, once written, take the place of the
+     * ASC and supplier catalogs, and are read in parallel, each from its
+     * binary snapshot when that is up to date. A shard whose catalog is
+     * missing is taken from the ASC and supplier catalogs.
+     * <p>
+     * Once the stock is complete, its titles and descriptions are indexed for
+     * {@link #searchStock}, and its product codes sorted for the code queries,
+     * alongside totalling the sales history.
+     *
+     * @param progressListener Called with the number of items in stock after
+     * each chunk, or null.
+     */
+    public void loadStock(IntConsumer progressListener) {
+        long start = System.nanoTime();
+        boolean loaded = shardedStockItems == null ? loadStockSnapshot() : loadShardCatalogs(progressListener);
+        if (!loaded) {
+            loadStockCatalogs(progressListener);
+        }
+
+        // Apply changes saved since the catalog was last written in full
+        try {
+            for (int shard = 0; shard < getShardCount(); shard++) {
+                ASCStockPersister.replayChanges(getCatalogFilePath(shard), stockItems);
+            }
+        } catch (IOException e) {
+            ASCErrorReporter.showError("Error reading stock changes file. Please check the file path.");
+        }
+
+        // Index the stock for searching while the sales history is totalled
+        ForkJoinTask<?> indexing = ForkJoinPool.commonPool().submit(this::indexStock);
+        lowStockMonitor.refresh();
+        refreshStockTable();
+        reportProgress(progressListener);
+        rebuildSalesAggregates();
+        indexing.join();
+        stockLoaded = true;
+        metrics.recordSince(ASCStockMetrics.Operation.LOAD, start);
+    }
+
+    // Helper method to restore the merged stock from an up-to-date binary snapshot
+    private boolean loadStockSnapshot() {
+        long start = System.nanoTime();
+        Path catalogFile = getCatalogFile();
+        Path snapshotFile = ASCStockSnapshot.getSnapshotFile(catalogFile);
+        List<Path> sourceFiles = new ArrayList<>();
+        sourceFiles.add(catalogFile);
+        for (ASCSupplierFeed<?> feed : supplierFeeds) {
+            if (feed.getSourceFile() == null) {
+                return false;
+            }
+            sourceFiles.add(feed.getSourceFile());
+        }
+
+        try {
+            if (!Files.exists(snapshotFile)) {
+                return false;
+            }
+            FileTime snapshotTime = Files.getLastModifiedTime(snapshotFile);
+            for (Path sourceFile : sourceFiles) {
+                if (Files.exists(sourceFile) && Files.getLastModifiedTime(sourceFile).compareTo(snapshotTime) > 0) {
+                    return false;
+                }
+            }
+            stockItems.addAll(ASCStockSnapshot.open(snapshotFile).getStockItems());
+        } catch (IOException e) {
+            // A damaged or unreadable snapshot is only a cache, so fall back to the catalogs
+            stockItems.clear();
+            return false;
+        }
+        mergeReport = new ASCMergeReport(0, 0, 0, System.nanoTime() - start);
+        return true;
+    }
+
+    // Helper method to load every shard from its own catalog in parallel, once the shard catalogs exist.
+    // A shard whose catalog is missing, after a crash before every shard was first saved, is
+    // taken from the ASC and supplier catalogs instead
+    private boolean loadShardCatalogs(IntConsumer progressListener) {
+        long start = System.nanoTime();
+        int shardCount = getShardCount();
+        boolean[] shardSaved = new boolean[shardCount];
+        boolean anyShardSaved = false;
+        boolean everyShardSaved = true;
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardSaved[shard] = Files.exists(Paths.get(getCatalogFilePath(shard)));
+            anyShardSaved |= shardSaved[shard];
+            everyShardSaved &= shardSaved[shard];
+        }
+        if (!anyShardSaved) {
+            return false;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(shardCount + 1);
+        try {
+            List<Future<?>> shardLoads = new ArrayList<>(shardCount + 1);
+            for (int shard = 0; shard < shardCount; shard++) {
+                if (shardSaved[shard]) {
+                    Path catalogFile = Paths.get(getCatalogFilePath(shard));
+                    shardLoads.add(executor.submit(() -> loadShardCatalog(catalogFile, progressListener)));
+                }
+            }
+            if (!everyShardSaved) {
+                shardLoads.add(executor.submit(() -> loadUnsavedShards(shardSaved, progressListener)));
+            }
+            for (Future<?> shardLoad : shardLoads) {
+                shardLoad.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            ASCErrorReporter.showError("Error reading CSV file. Please check the file path.");
+        } finally {
+            executor.shutdown();
+        }
+        mergeReport = new ASCMergeReport(0, 0, 0, System.nanoTime() - start);
+        return true;
+    }
 
-            if (!alreadyAdded) {
-                ASCStockItem ascStockItem = new MSMToASCStockItemAdapter(mengdaStockItem);
-                ascStockItems.add(ascStockItem);
+    // Helper method to load one shard catalog, from its binary snapshot if that is at least as new
+    private void loadShardCatalog(Path catalogFile, IntConsumer progressListener) {
+        Path snapshotFile = ASCStockSnapshot.getSnapshotFile(catalogFile);
+        try {
+            if (Files.exists(snapshotFile)
+                    && Files.getLastModifiedTime(snapshotFile).compareTo(Files.getLastModifiedTime(catalogFile)) >= 0) {
+                addLoadedChunk(ASCStockSnapshot.open(snapshotFile).getStockItems(), progressListener);
+                return;
             }
+        } catch (IOException e) {
+            // A damaged snapshot is only a cache, so parse the shard catalog instead
+        }
+
+        List<ASCStockItem> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+        ASCStockItem.loadStock(catalogFile, item -> {
+            chunk.add(item);
+            if (chunk.size() == LOAD_CHUNK_SIZE) {
+                addLoadedChunk(chunk, progressListener);
+            }
+        });
+        addLoadedChunk(chunk, progressListener);
+    }
+
+    // Helper method to load the shards that have no catalog of their own from the
+    // merged ASC and supplier catalogs, keeping only the items routed to them
+    private void loadUnsavedShards(boolean[] shardSaved, IntConsumer progressListener) {
+        ForkJoinTask<List<ASCStockItem>> supplierStockItems
+                = new ASCSupplierFeedLoader().submit(new ArrayList<>(supplierFeeds));
+        ASCStockItemList catalogItems = new ASCStockItemList();
+        ASCStockItem.loadStock(getCatalogFile(), catalogItems::add);
+        mergeSupplierItems(catalogItems, supplierStockItems.join());
+
+        List<ASCStockItem> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+        for (ASCStockItem item : catalogItems) {
+            if (!shardSaved[shardedStockItems.getShardIndex(item.getProductCode())]) {
+                chunk.add(item);
+                if (chunk.size() == LOAD_CHUNK_SIZE) {
+                    addLoadedChunk(chunk, progressListener);
+                }
+            }
+        }
+        addLoadedChunk(chunk, progressListener);
+    }
+
+    // Helper method to parse the ASC and supplier catalogs and merge them
+    private void loadStockCatalogs(IntConsumer progressListener) {
+        // Parse the supplier catalogs while this thread parses the ASC catalog
+        ForkJoinTask<List<ASCStockItem>> supplierStockItems
+                = new ASCSupplierFeedLoader().submit(new ArrayList<>(supplierFeeds));
+
+        List<ASCStockItem> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+        ASCStockItem.loadStock(getCatalogFile(), item -> {
+            chunk.add(item);
+            if (chunk.size() == LOAD_CHUNK_SIZE) {
+                addLoadedChunk(chunk, progressListener);
+            }
+        });
+        addLoadedChunk(chunk, progressListener);
+
+        // Merge stock items from ASC and the suppliers, ensuring no duplicates
+        mergeReport = mergeSupplierItems(stockItems, supplierStockItems.join());
+    }
+
+    // Helper method to index the loaded stock for searching, copying it first
+    // so the stock table is not held up while the indexes are built
+    private void indexStock() {
+        List<ASCStockItem> loadedItems;
+        synchronized (stockItems) {
+            loadedItems = new ArrayList<>(stockItems);
+        }
+        searchIndex.clear();
+        searchIndex.addAll(loadedItems);
+        codeIndex.clear();
+        codeIndex.addAll(loadedItems);
+    }
+
+    /**
+     * Gets the running sales totals by product, department and shop.
+     *
+     * @return The sales aggregates.
+     */
+    public ASCSalesAggregates getSalesAggregates() {
+        return salesAggregates;
+    }
+
+    /**
+     * Gets the sales totals of a product without reading the sales files.
+     *
+     * @param productCode The product code.
+     * @return The product's sales summary, or null if it has not been sold.
+     */
+    public ASCSalesSummary getProductSalesSummary(String productCode) {
+        return salesAggregates.getProductSummary(productCode);
+    }
+
+    /**
+     * Gets the sales totals of a department without reading the sales files.
+     *
+     * @param department The department, such as RUN, SWM or CYC.
+     * @return The department's sales summary, or null if nothing in it has
+     * been sold.
+     */
+    public ASCSalesSummary getDepartmentSalesSummary(String department) {
+        return salesAggregates.getDepartmentSummary(department);
+    }
+
+    // Helper method to total the sales history once, on a cold start, holding the history
+    // so the Sales table cannot refresh it mid-way
+    private void rebuildSalesAggregates() {
+        synchronized (salesHistory) {
+            refreshSalesHistory();
+            salesAggregates.rebuild(salesHistory.getSalesItems());
+        }
+    }
+
+    /**
+     * Checks whether the stock has been loaded and indexed, so stock can be
+     * bought and sold.
+     *
+     * @return True once loading has finished.
+     */
+    public boolean isStockLoaded() {
+        return stockLoaded;
+    }
+
+    // Helper method to add a chunk of loaded items to the stock and the stock table
+    private void addLoadedChunk(List<ASCStockItem> chunk, IntConsumer progressListener) {
+        if (chunk.isEmpty()) {
+            return;
         }
+        stockItems.addAll(chunk);
+        chunk.clear();
+        refreshStockTable();
+        reportProgress(progressListener);
+    }
 
-        stockItems = ascStockItems;
-        initializeTableModel();
+    // Helper method to report the number of items loaded so far
+    private void reportProgress(IntConsumer progressListener) {
+        if (progressListener != null) {
+            progressListener.accept(stockItems.size());
+        }
     }
 
-    // Helper method to generate ASC product code from MSMStockItem
-    private String getASCProductCode(MSMStockItem mengdaStockItem) {
-        int id = mengdaStockItem.getDepartmentId();
-        String code = mengdaStockItem.getCode();
-        String dept = null;
-        switch (id) {
-            case 1:
-                dept = "RUN";
-                break;
-            case 2:
-                dept = "SWM";
-                break;
-            case 3:
-                dept = "CYC";
-                break;
+    /**
+     * Merges Mengda's Sports Mart stock into the given stock list in a single
+     * pass. Each supplier item is looked up once in the product code index;
+     * items whose code is already present are skipped, and counted as a
+     * conflict when their price or quantity differs from the item in stock.
+     *
+     * @param stockItems The stock list to merge into.
+     * @param mengdaStockItems The supplier items to merge.
+     * @return A report of the items added, skipped and in conflict.
+     */
+    static ASCMergeReport mergeSupplierStock(ASCStockStore stockItems, List<MSMStockItem> mengdaStockItems) {
+        MSMSupplierFeed feed = new MSMSupplierFeed();
+        List<ASCStockItem> supplierItems = new ArrayList<>(mengdaStockItems.size());
+        for (MSMStockItem mengdaStockItem : mengdaStockItems) {
+            supplierItems.add(feed.adapt(mengdaStockItem, feed.getASCProductCode(mengdaStockItem)));
         }
-        return dept + "-" + code + "-MSM";
+        return mergeSupplierItems(stockItems, supplierItems);
+    }
+
+    /**
+     * Merges adapted supplier items into the given stock list in a single pass,
+     * as for {@link #mergeSupplierStock}.
+     *
+     * @param stockItems The stock list to merge into.
+     * @param supplierItems The adapted supplier items to merge, in order.
+     * @return A report of the items added, skipped and in conflict.
+     */
+    static ASCMergeReport mergeSupplierItems(ASCStockStore stockItems, List<ASCStockItem> supplierItems) {
+        long startTime = System.nanoTime();
+        int added = 0;
+        int duplicates = 0;
+        int conflicts = 0;
+
+        for (ASCStockItem supplierItem : supplierItems) {
+            ASCStockItem existingItem = stockItems.findByProductCode(supplierItem.getProductCode());
+
+            if (existingItem == null) {
+                stockItems.add(supplierItem);
+                added++;
+            } else if (existingItem.getUnitPricePounds() == supplierItem.getUnitPricePounds()
+                    && existingItem.getUnitPricePence() == supplierItem.getUnitPricePence()
+                    && existingItem.getQuantityInStock() == supplierItem.getQuantityInStock()) {
+                duplicates++;
+            } else {
+                conflicts++;
+            }
+        }
+
+        return new ASCMergeReport(added, duplicates, conflicts, System.nanoTime() - startTime);
     }
 
     /**
@@ -72,25 +449,216 @@ public class ASCStockManager {
     }
 
     /**
-     * Gets the table model for stock items.
+     * Gets the report of the supplier stock merge performed on construction.
+     *
+     * @return The merge report.
+     */
+    public ASCMergeReport getMergeReport() {
+        return mergeReport;
+    }
+
+    /**
+     * Finds the stock item with the given product code using the product code
+     * index.
+     *
+     * @param productCode The product code of the item.
+     * @return The stock item, or null if there is no item with the code.
+     */
+    public ASCStockItem findStockItem(String productCode) {
+        return stockItems.findByProductCode(productCode);
+    }
+
+    /**
+     * Finds the stock items whose title or description contains every word of
+     * a query, ignoring case, using the search index rather than scanning the
+     * stock. A word being typed matches as a prefix, so the results can be
+     * refreshed on every keystroke.
+     *
+     * @param query The search text.
+     * @return The matching stock items in stock order, or every item if the
+     * query has no words.
+     */
+    public List<ASCStockItem> searchStock(String query) {
+        long start = System.nanoTime();
+        List<ASCStockItem> results = searchIndex.search(query);
+        metrics.recordSince(ASCStockMetrics.Operation.SEARCH, start);
+        return results;
+    }
+
+    /**
+     * Finds the stock items whose product code starts with a prefix, such as
+     * the department RUN, SWM or CYC, using the product code index.
+     *
+     * @param prefix The start of the product codes.
+     * @return The matching stock items in product code order.
+     */
+    public List<ASCStockItem> findStockByCodePrefix(String prefix) {
+        return codeIndex.findByPrefix(prefix);
+    }
+
+    /**
+     * Finds the stock items whose product code carries a supplier tag, such
+     * as MSM for the items adapted from Mengda's Sports Mart, using the
+     * product code index.
+     *
+     * @param tag The tag, with or without its leading hyphen.
+     * @return The matching stock items in product code order.
+     */
+    public List<ASCStockItem> findStockByCodeTag(String tag) {
+        return codeIndex.findByTag(tag);
+    }
+
+    /**
+     * Finds the stock items whose product code falls in a range, using the
+     * product code index.
+     *
+     * @param fromCode The first product code of the range, inclusive.
+     * @param toCode The last product code of the range, inclusive.
+     * @return The matching stock items in product code order.
+     */
+    public List<ASCStockItem> findStockInCodeRange(String fromCode, String toCode) {
+        return codeIndex.findByRange(fromCode, toCode);
+    }
+
+    /**
+     * Finds the stock items matching a search query whose product code starts
+     * with a prefix. Only the smaller side is read: if the query matches fewer
+     * items than the prefix, its matches are checked for the prefix, and
+     * otherwise the prefix's items are read from the product code index and
+     * checked against the query.
+     *
+     * @param query The search text.
+     * @param prefix The start of the product codes.
+     * @return The matching stock items in product code order.
+     */
+    public List<ASCStockItem> searchStockByCodePrefix(String query, String prefix) {
+        return searchWithinCodes(query, codeIndex.countByPrefix(prefix), () -> codeIndex.findByPrefix(prefix),
+                item -> item.getProductCode().startsWith(prefix));
+    }
+
+    /**
+     * Finds the stock items matching a search query whose product code
+     * carries a supplier tag, reading only the smaller side as
+     * {@link #searchStockByCodePrefix} does.
+     *
+     * @param query The search text.
+     * @param tag The tag, with or without its leading hyphen.
+     * @return The matching stock items in product code order.
+     */
+    public List<ASCStockItem> searchStockByCodeTag(String query, String tag) {
+        String bareTag = tag.startsWith("-") ? tag.substring(1) : tag;
+        return searchWithinCodes(query, codeIndex.countByTag(tag), () -> codeIndex.findByTag(tag),
+                item -> bareTag.equals(ASCProductCodeIndex.getTag(item.getProductCode())));
+    }
+
+    // Helper method to intersect search results with a product code query, reading whichever side is smaller
+    private List<ASCStockItem> searchWithinCodes(String query, int codeCount,
+            Supplier<List<ASCStockItem>> codeItems, Predicate<ASCStockItem> codeFilter) {
+        long start = System.nanoTime();
+        List<ASCStockItem> searchResults = searchIndex.search(query);
+        List<ASCStockItem> results;
+        if (searchResults.size() <= codeCount) {
+            List<ASCStockItem> sorted = new ArrayList<>(searchResults);
+            // The sort is stable, so the first item with each code stays first, as in the code index
+            sorted.sort(Comparator.comparing(ASCStockItem::getProductCode));
+            results = new ArrayList<>();
+            for (ASCStockItem item : sorted) {
+                boolean repeated = !results.isEmpty()
+                        && results.get(results.size() - 1).getProductCode().equals(item.getProductCode());
+                if (!repeated && codeFilter.test(item)) {
+                    results.add(item);
+                }
+            }
+        } else {
+            results = codeItems.get();
+            results.removeIf(ASCProductSearchIndex.matcher(query).negate());
+        }
+        metrics.recordSince(ASCStockMetrics.Operation.SEARCH, start);
+        return results;
+    }
+
+    /**
+     * Gets the table model for stock items. The model is created on first use,
+     * so a manager running without a user interface never builds one.
      *
      * @return The stock table model.
      */
-    public DefaultTableModel getStockTableModel() {
+    public synchronized ASCStockTableModel getStockTableModel() {
+        if (stockTableModel == null) {
+            stockTableModel = new ASCStockTableModel(stockItems);
+        }
         return stockTableModel;
     }
 
     /**
-     * Gets the table model for sales items.
+     * Gets the table model for sales items. The model is created on first use
+     * and filled by {@link #updateSalesTable}.
      *
      * @return The sales table model.
      */
-    public DefaultTableModel getSalesTableModel() {
+    public synchronized DefaultTableModel getSalesTableModel() {
+        if (salesTableModel == null) {
+            salesTableModel = createSalesTableModel();
+        }
         return salesTableModel;
     }
 
     /**
-     * Gets the low stock threshold.
+     * Gets every recorded sale, including sales still queued in the sales
+     * journal, oldest file first.
+     *
+     * @return A copy of the sales items.
+     */
+    public List<ASCSalesItem> getSalesItems() {
+        flushSalesJournal();
+        synchronized (salesHistory) {
+            refreshSalesHistory();
+            return new ArrayList<>(salesHistory.getSalesItems());
+        }
+    }
+
+    /**
+     * Gets the sales recorded in a time range, including sales still queued
+     * in the sales journal, in time order. Only the days of sales overlapping
+     * the range are read.
+     *
+     * @param fromMillis The start of the range in milliseconds since the
+     * epoch, inclusive.
+     * @param toMillis The end of the range in milliseconds since the epoch,
+     * exclusive.
+     * @return The sales items in the range.
+     */
+    public List<ASCSalesItem> getSalesItems(long fromMillis, long toMillis) {
+        flushSalesJournal();
+        try {
+            return salesIndex.getSalesItems(fromMillis, toMillis);
+        } catch (IOException e) {
+            ASCErrorReporter.showError("An error occurred while loading sales data: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Creates a table model holding the sales recorded in a time range. Unlike
+     * {@link #getSalesTableModel()}, the model is not kept up to date.
+     *
+     * @param fromMillis The start of the range in milliseconds since the
+     * epoch, inclusive.
+     * @param toMillis The end of the range in milliseconds since the epoch,
+     * exclusive.
+     * @return The sales table model.
+     */
+    public DefaultTableModel getSalesTableModel(long fromMillis, long toMillis) {
+        DefaultTableModel model = createSalesTableModel();
+        for (ASCSalesItem item : getSalesItems(fromMillis, toMillis)) {
+            addSalesRow(model, item);
+        }
+        return model;
+    }
+
+    /**
+     * Gets the default low stock threshold, used for items with no product or
+     * department threshold.
      *
      * @return The low stock threshold.
      */
@@ -99,104 +667,466 @@ public class ASCStockManager {
     }
 
     /**
-     * Updates the stock level and shows a warning if the stock is low.
+     * Gets the monitor that tracks items below their low stock threshold and
+     * alerts its listeners about them.
      *
-     * @param updatedItem The stock item being updated.
+     * @return The low stock monitor.
      */
-    public void updateStockLevel(ASCStockItem updatedItem) {
-        if (updatedItem.getQuantityInStock() < LOW_STOCK_THRESHOLD) {
-            showLowStockWarning(updatedItem);
-        }
+    public ASCLowStockMonitor getLowStockMonitor() {
+        return lowStockMonitor;
     }
 
-    // Helper method to show a low stock warning
-    private void showLowStockWarning(ASCStockItem item) {
-        JOptionPane.showMessageDialog(null,
-                "Low stock warning for: " + item.getProductCode() + " QTY: " + item.getQuantityInStock(),
-                "Low Stock Warning", JOptionPane.WARNING_MESSAGE);
+    /**
+     * Updates the stock level in the low stock monitor. Never blocks; low
+     * stock is reported to the monitor's listeners.
+     *
+     * @param updatedItem The stock item being updated.
+     */
+    public void updateStockLevel(ASCStockItem updatedItem) {
+        lowStockMonitor.update(updatedItem);
     }
 
     /**
-     * Buys new stock and notifies observers.
+     * Buys new stock, adds it to the search and product code indexes and
+     * notifies observers.
      *
      * @param newItem The new stock item.
      */
     public void buyStock(ASCStockItem newItem) {
+        long start = System.nanoTime();
         stockItems.add(newItem);
+        addBoughtItem(start, newItem);
+    }
+
+    /**
+     * Buys a new product, unless an item with its product code is already in
+     * stock. The check and the add are atomic, so when several tills add the
+     * same product at once only one of them succeeds.
+     *
+     * @param newItem The new stock item.
+     * @return True if the item was bought, false if its product code was
+     * already in stock.
+     */
+    public boolean buyStockIfAbsent(ASCStockItem newItem) {
+        long start = System.nanoTime();
+        if (!stockItems.addIfAbsent(newItem)) {
+            return false;
+        }
+        addBoughtItem(start, newItem);
+        return true;
+    }
+
+    // Helper method to index, persist and announce an item just added to the stock
+    private void addBoughtItem(long start, ASCStockItem newItem) {
+        searchIndex.add(newItem);
+        codeIndex.add(newItem);
+        markDirty(newItem);
         ASCStockSubject.getInstance().notifyObservers(newItem);
+        metrics.recordSince(ASCStockMetrics.Operation.BUY, start);
     }
 
     /**
-     * Sells stock, updates quantity, and records the sales transaction.
+     * Sells stock, updates quantity, and records the sales transaction. The
+     * quantity is removed from stock atomically, so concurrent sales of the
+     * same product from several threads never oversell or lose an update.
+     * The removal holds the product's sell lock, so it never sees a basket
+     * half sold.
      *
      * @param productCode The product code of the item being sold.
      * @param quantitySold The quantity sold.
+     * @return The result of the sale; the sale is only recorded on success.
+     */
+    public ASCSaleResult sellStock(String productCode, int quantitySold) {
+        long start = System.nanoTime();
+        ASCSaleResult result = sellStockItem(productCode, quantitySold);
+        recordSell(start, result);
+        return result;
+    }
+
+    // Helper method to sell stock once the sale is being timed
+    private ASCSaleResult sellStockItem(String productCode, int quantitySold) {
+        if (quantitySold <= 0) {
+            return ASCSaleResult.INVALID_QUANTITY;
+        }
+        ASCStockItem item = stockItems.findByProductCode(productCode);
+        if (item == null) {
+            return ASCSaleResult.UNKNOWN_PRODUCT;
+        }
+        synchronized (sellLocks[getSellLockIndex(productCode)]) {
+            if (!item.removeFromStock(quantitySold)) {
+                return ASCSaleResult.INSUFFICIENT_STOCK;
+            }
+        }
+
+        markDirty(item);
+        ASCStockSubject.getInstance().notifyObservers(item);
+        recordSalesTransaction(item, quantitySold);
+        return ASCSaleResult.SUCCESS;
+    }
+
+    /**
+     * Sells a whole basket of stock as one transaction. The sell locks of the
+     * basket's products are taken in a fixed order, so baskets never deadlock,
+     * and every line is checked before any quantity is removed, so other sales
+     * never see a basket half sold. If any line cannot be sold, nothing is
+     * sold. A successful basket is written to the sales journal as one
+     * entry and each product in it is announced to observers once.
+     *
+     * @param basket The quantities to sell, keyed by product code.
+     * @return The result of the sale; the sale is only recorded on success.
      */
-    public void sellStock(String productCode, int quantitySold) {
-        for (ASCStockItem item : stockItems) {
-            if (item.getProductCode().equals(productCode)) {
-                item.setQuantityInStock(item.getQuantityInStock() - quantitySold);
-                ASCStockSubject.getInstance().notifyObservers(item);
-                recordSalesTransaction(item, quantitySold);
-                break;
+    public ASCBasketResult sellBasket(Map<String, Integer> basket) {
+        long start = System.nanoTime();
+        ASCBasketResult result = sellBasketItems(basket);
+        recordSell(start, result.getResult());
+        return result;
+    }
+
+    // Helper method to sell a basket once the sale is being timed
+    private ASCBasketResult sellBasketItems(Map<String, Integer> basket) {
+        if (basket.isEmpty()) {
+            return new ASCBasketResult(ASCSaleResult.INVALID_QUANTITY, null, 0);
+        }
+        ASCStockItem[] items = new ASCStockItem[basket.size()];
+        int[] quantities = new int[basket.size()];
+        int lines = 0;
+        for (Map.Entry<String, Integer> line : basket.entrySet()) {
+            Integer quantity = line.getValue();
+            if (quantity == null || quantity <= 0) {
+                return new ASCBasketResult(ASCSaleResult.INVALID_QUANTITY, line.getKey(), 0);
             }
+            ASCStockItem item = stockItems.findByProductCode(line.getKey());
+            if (item == null) {
+                return new ASCBasketResult(ASCSaleResult.UNKNOWN_PRODUCT, line.getKey(), 0);
+            }
+            items[lines] = item;
+            quantities[lines] = quantity;
+            lines++;
+        }
+
+        int[] lockIndexes = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            lockIndexes[i] = getSellLockIndex(items[i].getProductCode());
+        }
+        Arrays.sort(lockIndexes);
+        String unsoldCode = withSellLocks(lockIndexes, 0, () -> removeBasketStock(items, quantities));
+        if (unsoldCode != null) {
+            return new ASCBasketResult(ASCSaleResult.INSUFFICIENT_STOCK, unsoldCode, 0);
+        }
+
+        String dateTime = getCurrentDateTime();
+        List<String> records = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            ASCStockItem item = items[i];
+            markDirty(item);
+            records.add(ASCSalesJournal.formatRecord(dateTime, item.getProductCode(), quantities[i],
+                    item.getUnitPricePounds(), item.getUnitPricePence()));
+            salesAggregates.record(dateTime, item.getProductCode(), quantities[i], item.getUnitPricePounds(),
+                    item.getUnitPricePence());
+        }
+        ASCStockSubject subject = ASCStockSubject.getInstance();
+        for (int i = 0; i < lines; i++) {
+            subject.notifyObservers(items[i]);
         }
+        long start = System.nanoTime();
+        try {
+            getSalesJournal().appendAll(records);
+            metrics.recordSince(ASCStockMetrics.Operation.SALES_RECORD, start);
+        } catch (IOException e) {
+            ASCErrorReporter.showError("Error writing to sales transactions file. Please check the file path.");
+        }
+        return new ASCBasketResult(ASCSaleResult.SUCCESS, null, lines);
+    }
+
+    // Helper method to remove a basket's quantities while holding its sell locks, returning the code of a line
+    // that cannot be sold, or null once every line is removed
+    private String removeBasketStock(ASCStockItem[] items, int[] quantities) {
+        for (int i = 0; i < quantities.length; i++) {
+            if (items[i].getQuantityInStock() < quantities[i]) {
+                return items[i].getProductCode();
+            }
+        }
+        for (int i = 0; i < quantities.length; i++) {
+            if (!items[i].removeFromStock(quantities[i])) {
+                // The quantity was lowered outside a sale, so put back what this basket has already taken
+                for (int j = i - 1; j >= 0; j--) {
+                    items[j].addToStock(quantities[j]);
+                    markDirty(items[j]);
+                    ASCStockSubject.getInstance().notifyObservers(items[j]);
+                }
+                return items[i].getProductCode();
+            }
+        }
+        return null;
+    }
+
+    // Helper method to run a task while holding the sell locks at the given sorted indexes, skipping repeats
+    private <T> T withSellLocks(int[] lockIndexes, int from, Supplier<T> task) {
+        if (from == lockIndexes.length) {
+            return task.get();
+        }
+        int next = from + 1;
+        while (next < lockIndexes.length && lockIndexes[next] == lockIndexes[from]) {
+            next++;
+        }
+        synchronized (sellLocks[lockIndexes[from]]) {
+            return withSellLocks(lockIndexes, next, task);
+        }
+    }
+
+    // Helper method to get the index of the lock that guards the removal of a product's stock
+    private static int getSellLockIndex(String productCode) {
+        int hash = productCode.hashCode();
+        return (hash ^ (hash >>> 16)) & (SELL_LOCK_COUNT - 1);
+    }
+
+    // Helper method to create the sell locks
+    private static Object[] createSellLocks() {
+        Object[] locks = new Object[SELL_LOCK_COUNT];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
     }
 
     // Helper method to record sales transaction
     private void recordSalesTransaction(ASCStockItem item, int quantitySold) {
-        String timestamp = getCurrentDateTime();
-        String salesFilePath = "src/main/resources/SalesTransactions_" + timestamp.replaceAll("[\\s:-]", "") + ".csv";
-
-        try (PrintWriter writer = new PrintWriter(new FileWriter(salesFilePath, true))) {
-            writer.println(timestamp + "," + item.getProductCode() + "," + quantitySold + ","
-                    + item.getUnitPricePounds() + "," + +item.getUnitPricePence());
+        String dateTime = getCurrentDateTime();
+        salesAggregates.record(dateTime, item.getProductCode(), quantitySold, item.getUnitPricePounds(),
+                item.getUnitPricePence());
+        long start = System.nanoTime();
+        try {
+            getSalesJournal().record(dateTime, item.getProductCode(), quantitySold,
+                    item.getUnitPricePounds(), item.getUnitPricePence());
+            metrics.recordSince(ASCStockMetrics.Operation.SALES_RECORD, start);
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error writing to sales transactions file. Please check the file path.",
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            ASCErrorReporter.showError("Error writing to sales transactions file. Please check the file path.");
+        }
+    }
+
+    // Helper method to record the latency and outcome of a sale
+    private void recordSell(long startNanos, ASCSaleResult result) {
+        metrics.recordSince(ASCStockMetrics.Operation.SELL, startNanos);
+        if (result != ASCSaleResult.SUCCESS) {
+            metrics.recordFailedSell();
         }
     }
 
     /**
-     * Saves the current stock to a CSV file.
+     * Gets the sales journal that sales transactions are recorded to, opening
+     * a journal in the resources directory on first use. Once a journal is
+     * open, sales read it without taking the manager's lock.
+     *
+     * @return The sales journal.
      */
+    public ASCSalesJournal getSalesJournal() {
+        ASCSalesJournal journal = salesJournal;
+        if (journal != null) {
+            return journal;
+        }
+        synchronized (this) {
+            if (salesJournal == null) {
+                salesJournal = new ASCSalesJournal(RESOURCES_DIRECTORY, ASCSalesJournal.SyncPolicy.EVERY_WRITE, 0);
+            }
+            return salesJournal;
+        }
+    }
+
     /**
-     * Saves the current stock to a CSV file.
+     * Replaces the sales journal, for example to use a different sync policy.
+     * The previous journal is closed.
+     *
+     * @param journal The new sales journal.
      */
-    public void saveStockToCSV() {
-        String csvFilePath = "src/main/resources/AshersSportsCollective.csv";
+    public synchronized void setSalesJournal(ASCSalesJournal journal) {
+        closeSalesJournal();
+        salesJournal = journal;
+    }
+
+    /**
+     * Starts saving stock changes in the background. From then on, each bought
+     * or sold item is marked dirty and written to the catalog's change log
+     * once no further changes have arrived for the debounce delay.
+     * <p>
+     * In sharded mode, once the stock is loaded, every shard that has no
+     * catalog yet is saved in full straight away. A shard's change log only
+     * holds the items that changed, so a catalog must exist for every shard
+     * before the next start reads the shard catalogs in place of the ASC and
+     * supplier catalogs.
+     *
+     * @param debounceMillis The debounce delay in milliseconds.
+     */
+    public synchronized void enableBackgroundPersistence(long debounceMillis) {
+        if (stockPersisters == null) {
+            ASCStockPersister[] persisters = new ASCStockPersister[getShardCount()];
+            for (int shard = 0; shard < persisters.length; shard++) {
+                int persistedShard = shard;
+                persisters[shard] = new ASCStockPersister(getCatalogFilePath(shard),
+                        () -> copyStockItems(persistedShard), () -> getPersistedItems(persistedShard).size(),
+                        debounceMillis, e -> showSaveError());
+            }
+            stockPersisters = persisters;
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(csvFilePath))) {
-            for (ASCStockItem item : stockItems) {
-                writer.println(item.getProductCode() + "," + item.getProductTitle() + "," + item.getProductDescription()
-                        + "," + item.getUnitPricePounds() + "," + item.getUnitPricePence() + ","
-                        + item.getQuantityInStock());
+            if (shardedStockItems != null && stockLoaded) {
+                try {
+                    for (int shard = 0; shard < persisters.length; shard++) {
+                        if (!Files.exists(Paths.get(getCatalogFilePath(shard)))) {
+                            persisters[shard].snapshot();
+                        }
+                    }
+                } catch (IOException e) {
+                    showSaveError();
+                }
             }
+        }
+    }
+
+    /**
+     * Sets the directory the ASC catalog and the shard catalogs are read from
+     * and saved to, in place of the resources directory. Must be called
+     * before the stock is loaded.
+     *
+     * @param directory The catalog directory.
+     */
+    void setCatalogDirectory(String directory) {
+        catalogDirectory = directory;
+    }
+
+    /**
+     * Starts compacting the sales transactions files in the background, so
+     * that each finished day of sales is kept in one indexed segment rather
+     * than in many small files.
+     *
+     * @param intervalMillis The delay between compaction runs in milliseconds.
+     */
+    public synchronized void enableSalesCompaction(long intervalMillis) {
+        if (salesCompactor == null) {
+            salesCompactor = new ASCSalesCompactor(RESOURCES_DIRECTORY, SALES_COMPACTION_MIN_AGE_MILLIS,
+                    e -> ASCErrorReporter.showError("Error compacting sales transactions files: " + e.getMessage()));
+            salesCompactor.start(intervalMillis);
+        }
+    }
+
+    /**
+     * Shuts the stock manager down, flushing and closing the sales journal,
+     * stopping the sales history watch and sales compaction, and writing a
+     * final snapshot of the stock if background persistence is enabled.
+     */
+    public synchronized void shutdown() {
+        lowStockMonitor.close();
+        if (salesCompactor != null) {
+            salesCompactor.close();
+            salesCompactor = null;
+        }
+        closeSalesJournal();
+        try {
+            salesHistory.close();
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error writing to CSV file. Please check the file path.", "Error",
-                    JOptionPane.ERROR_MESSAGE);
+            // Nothing is lost if the directory watch cannot be closed cleanly
+        }
+        if (stockPersisters != null) {
+            for (ASCStockPersister persister : stockPersisters) {
+                try {
+                    persister.close();
+                } catch (IOException e) {
+                    showSaveError();
+                }
+            }
+            stockPersisters = null;
         }
     }
 
-    // Helper method to initialize table models
-    private void initializeTableModel() {
-        String[] stockColumnNames
-                = {"Product Code", "Product Title", "Product Description", "Unit Price (Pounds)", "Unit Price (ُPence)",
-                    "Quantity in Stock"};
+    // Helper method to mark an item for background persistence, low stock checks and repainting
+    private void markDirty(ASCStockItem item) {
+        lowStockMonitor.update(item);
+        ASCStockTableModel model = stockTableModel;
+        if (model != null) {
+            model.stockItemChanged(item);
+        }
+        ASCStockPersister[] persisters = stockPersisters;
+        if (persisters != null) {
+            persisters[shardedStockItems == null ? 0 : shardedStockItems.getShardIndex(item.getProductCode())]
+                    .markDirty(item);
+        }
+    }
 
-        stockTableModel = new DefaultTableModel(stockColumnNames, 0) {
-            private static final long serialVersionUID = -1185274943993659109L;
+    // Helper method to count the parts the stock is persisted in: one per shard, or just one
+    private int getShardCount() {
+        return shardedStockItems == null ? 1 : shardedStockItems.getShardCount();
+    }
 
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+    // Helper method to get the catalog file a shard of the stock is persisted in
+    private String getCatalogFilePath(int shard) {
+        return shardedStockItems == null ? getCatalogFile().toString()
+                : Paths.get(catalogDirectory, String.format(SHARD_CATALOG_FILE_NAME,
+                        shardedStockItems.getRouter().getShardName(shard))).toString();
+    }
+
+    // Helper method to get the ASC catalog file
+    private Path getCatalogFile() {
+        return Paths.get(catalogDirectory, CATALOG_FILE_NAME);
+    }
+
+    // Helper method to get the part of the stock a shard's catalog file holds
+    private ASCStockStore getPersistedItems(int shard) {
+        return shardedStockItems == null ? stockItems : shardedStockItems.getShard(shard);
+    }
+
+    // Helper method to take a consistent copy of a shard of the stock for a snapshot
+    private List<ASCStockItem> copyStockItems(int shard) {
+        ASCStockStore items = getPersistedItems(shard);
+        synchronized (items) {
+            return new ArrayList<>(items);
+        }
+    }
+
+    // Helper method to show a stock save error dialog
+    private void showSaveError() {
+        ASCErrorReporter.showError("Error writing to CSV file. Please check the file path.");
+    }
+
+    // Helper method to close the sales journal if one is open
+    private void closeSalesJournal() {
+        if (salesJournal != null) {
+            try {
+                salesJournal.close();
+            } catch (IOException e) {
+                ASCErrorReporter.showError("Error writing to sales transactions file. Please check the file path.");
             }
-        };
+            salesJournal = null;
+        }
+    }
+
+    /**
+     * Saves a full snapshot of the current stock to the CSV file, or of each
+     * shard to its own CSV file in sharded mode. The snapshot is written to a
+     * temporary file and atomically renamed over the catalog, so a failed
+     * write never leaves a partial catalog behind.
+     */
+    public void saveStockToCSV() {
+        long start = System.nanoTime();
+        ASCStockPersister[] persisters = stockPersisters;
 
+        try {
+            for (int shard = 0; shard < getShardCount(); shard++) {
+                if (persisters != null) {
+                    persisters[shard].snapshot();
+                } else {
+                    ASCStockPersister.writeCatalog(getCatalogFilePath(shard), copyStockItems(shard));
+                }
+            }
+            metrics.recordSince(ASCStockMetrics.Operation.SAVE, start);
+        } catch (IOException e) {
+            showSaveError();
+        }
+    }
+
+    // Helper method to create the sales table model
+    private DefaultTableModel createSalesTableModel() {
         String[] salesColumnNames
                 = {"Date and Time", "Product Code", "Quantity Sold", "Unit Price", "Total Price"};
 
-        salesTableModel = new DefaultTableModel(salesColumnNames, 0) {
+        return new DefaultTableModel(salesColumnNames, 0) {
             private static final long serialVersionUID = 7935032288793891213L;
 
             @Override
@@ -206,35 +1136,77 @@ public class ASCStockManager {
         };
     }
 
-    // Helper method to update the stock table
+    // Helper method to bring the stock table in line with the stock after bulk changes
     public void updateStockTable() {
-        stockTableModel.setRowCount(0);
+        refreshStockTable();
+    }
 
-        for (ASCStockItem item : stockItems) {
-            Object[] rowData
-                    = {item.getProductCode(), item.getProductTitle(), item.getProductDescription(), item.getUnitPricePounds(),
-                        item.getUnitPricePence(), item.getQuantityInStock()};
-            stockTableModel.addRow(rowData);
+    // Helper method to bring the stock table, if one has been created, in line with the stock
+    private void refreshStockTable() {
+        ASCStockTableModel model = stockTableModel;
+        if (model != null) {
+            model.refresh();
         }
     }
 
     // Helper method to get the current date and time as a formatted string
     public void updateSalesTable() {
-        salesTableModel.setRowCount(0);
-        List<ASCSalesItem> salesItems = ASCSalesItem.loadSalesData();
+        DefaultTableModel model = getSalesTableModel();
+        flushSalesJournal();
+
+        // Only the sales read since the last update are copied, unless a sales
+        // file was rewritten and the history had to be rebuilt
+        boolean reset;
+        List<ASCSalesItem> newSalesItems;
+        synchronized (salesHistory) {
+            refreshSalesHistory();
+            int resetCount = salesHistory.getResetCount();
+            reset = resetCount != salesTableResetCount;
+            salesTableResetCount = resetCount;
+            List<ASCSalesItem> salesItems = salesHistory.getSalesItems();
+            int firstNewItem = reset ? 0 : Math.min(model.getRowCount(), salesItems.size());
+            newSalesItems = new ArrayList<>(salesItems.subList(firstNewItem, salesItems.size()));
+        }
 
-        for (ASCSalesItem item : salesItems) {
-            Object[] rowData
-                    = {item.getDateTime(), item.getProductCode(), item.getQuantitySold(), item.getUnitPrice(),
-                        item.getTotalPrice()};
-            salesTableModel.addRow(rowData);
+        if (reset) {
+            model.setRowCount(0);
+        }
+        for (ASCSalesItem item : newSalesItems) {
+            addSalesRow(model, item);
+        }
+    }
+
+    // Helper method to read new sales into the history, holding its lock
+    private void refreshSalesHistory() {
+        try {
+            salesHistory.refresh();
+        } catch (IOException e) {
+            ASCErrorReporter.showError("An error occurred while loading sales data: " + e.getMessage());
+        }
+    }
+
+    // Helper method to add a sales item to a sales table model
+    private static void addSalesRow(DefaultTableModel model, ASCSalesItem item) {
+        Object[] rowData
+                = {item.getDateTime(), item.getProductCode(), item.getQuantitySold(), item.getUnitPrice(),
+                    item.getTotalPrice()};
+        model.addRow(rowData);
+    }
+
+    // Helper method to make queued sales visible to the sales loader, without holding the manager's lock
+    private void flushSalesJournal() {
+        ASCSalesJournal journal = salesJournal;
+        if (journal != null) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                ASCErrorReporter.showError("Error writing to sales transactions file. Please check the file path.");
+            }
         }
     }
 
     // Helper method to show an error dialog with a specified message
     public String getCurrentDateTime() {
-        LocalDateTime currentDateTime = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return currentDateTime.format(formatter);
+        return LocalDateTime.now().format(DATE_TIME_FORMATTER);
     }
 }
@@ -6,16 +6,31 @@ import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 /**
  * GUI for the ASCStockManager, providing a user interface for stock control
@@ -24,15 +39,31 @@ import javax.swing.SwingUtilities;
 public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
 
     private static final long serialVersionUID = -7499419580391087152L;
+    private static final long STOCK_SAVE_DEBOUNCE_MILLIS = 500;
+    private static final long SALES_COMPACTION_INTERVAL_MILLIS = 60 * 60 * 1000;
+    private static final int STOCK_EVENT_CAPACITY = 1024;
+    private static final int LOW_STOCK_ITEMS_SHOWN = 5;
+    private static final int RANGE_DATE_LENGTH = 10;
+    private static final String METRICS_REPORT_PROPERTY = "asc.metrics.reportIntervalSeconds";
+    private static final String ALL_PRODUCTS_FILTER = "All products";
+    private static final String MSM_FILTER = "MSM-sourced";
+    private static final String MSM_TAG = "MSM";
     private ASCStockManager stockManager;
     private JTable stockTable;
+    private JLabel lowStockLabel;
+    private JTextField searchField;
+    private JComboBox<String> quickFilterBox;
+    private JButton buyButton;
+    private JButton sellButton;
+    private JProgressBar loadProgressBar;
 
     /**
      * GUI for the ASCStockManager, providing a user interface for stock control
      * operations.
      */
     public ASCStockManagerGUI() {
-        stockManager = new ASCStockManager();
+        // Show the window straight away and load the stock in the background
+        stockManager = new ASCStockManager(new ASCStockItemList(), false);
 
         setTitle("Stock Control with low stock reporting");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -41,11 +72,30 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
 
         initializeComponents();
 
+        // Deliver stock events off the selling thread, one pending event per product
+        ASCStockSubject.getInstance().enableAsyncDispatch(STOCK_EVENT_CAPACITY, 1,
+                ASCStockSubject.OverflowPolicy.COALESCE_PER_PRODUCT);
         ASCStockSubject.getInstance().addObserver(this);
+        stockManager.getLowStockMonitor().addListener(this::showLowStockAlert);
+
+        loadStockInBackground();
+        publishMetrics();
+
+        // Flush the sales journal and save the stock before the application exits
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                ASCStockSubject.getInstance().disableAsyncDispatch();
+                ASCStockMetrics.getInstance().stopReporting();
+                stockManager.shutdown();
+            }
+        });
     }
 
     /**
      * Updates the stock level in response to changes in the stock manager.
+     * The low stock monitor is thread-safe, so the update runs on whichever
+     * thread delivered the event.
      *
      * @param updatedItem The updated stock item.
      */
@@ -54,6 +104,83 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
         stockManager.updateStockLevel(updatedItem);
     }
 
+    /**
+     * Shows a low stock alert in the status line without blocking the thread
+     * that raised it.
+     *
+     * @param lowStockItems The items that have fallen below their threshold.
+     */
+    private void showLowStockAlert(List<ASCStockItem> lowStockItems) {
+        StringBuilder message = new StringBuilder("Low stock warning for:");
+        for (int i = 0; i < lowStockItems.size() && i < LOW_STOCK_ITEMS_SHOWN; i++) {
+            ASCStockItem item = lowStockItems.get(i);
+            message.append(' ').append(item.getProductCode()).append(" QTY: ").append(item.getQuantityInStock());
+            message.append(';');
+        }
+        if (lowStockItems.size() > LOW_STOCK_ITEMS_SHOWN) {
+            message.append(" and ").append(lowStockItems.size() - LOW_STOCK_ITEMS_SHOWN).append(" more");
+        }
+        int lowStockCount = stockManager.getLowStockMonitor().getLowStockCount();
+        message.append(" (").append(lowStockCount).append(" items low in total)");
+        SwingUtilities.invokeLater(() -> lowStockLabel.setText(message.toString()));
+    }
+
+    /**
+     * Loads the stock on a background thread while rows stream into the table,
+     * enabling buying and selling once the stock is loaded and indexed.
+     */
+    private void loadStockInBackground() {
+        new SwingWorker<Void, Integer>() {
+            @Override
+            protected Void doInBackground() {
+                stockManager.loadStock(this::publish);
+                return null;
+            }
+
+            @Override
+            protected void process(List<Integer> itemCounts) {
+                loadProgressBar.setString("Loading stock: " + itemCounts.get(itemCounts.size() - 1) + " items");
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    JOptionPane.showMessageDialog(ASCStockManagerGUI.this, "Error loading stock.", "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                stockManager.enableBackgroundPersistence(STOCK_SAVE_DEBOUNCE_MILLIS);
+                stockManager.enableSalesCompaction(SALES_COMPACTION_INTERVAL_MILLIS);
+                loadProgressBar.setVisible(false);
+                buyButton.setEnabled(true);
+                sellButton.setEnabled(true);
+                searchField.setEnabled(true);
+                quickFilterBox.setEnabled(true);
+            }
+        }.execute();
+    }
+
+    /**
+     * Publishes the stock metrics over JMX and, if the
+     * asc.metrics.reportIntervalSeconds system property is set, prints a
+     * metrics report to standard output at that interval.
+     */
+    private void publishMetrics() {
+        ASCStockMetrics metrics = ASCStockMetrics.getInstance();
+        try {
+            metrics.registerMBeans();
+        } catch (JMException e) {
+            JOptionPane.showMessageDialog(this, "Stock metrics could not be published over JMX.", "Warning",
+                    JOptionPane.WARNING_MESSAGE);
+        }
+        long reportIntervalSeconds = Long.getLong(METRICS_REPORT_PROPERTY, 0);
+        if (reportIntervalSeconds > 0) {
+            metrics.startReporting(TimeUnit.SECONDS.toMillis(reportIntervalSeconds), System.out::print);
+        }
+    }
+
     /**
      * Updates the stock level in response to changes in the stock manager.
      *
@@ -63,14 +190,28 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
         JPanel mainPanel = new JPanel();
         mainPanel.setLayout(new BorderLayout());
 
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        lowStockLabel = new JLabel(" ");
+        statusPanel.add(lowStockLabel, BorderLayout.CENTER);
+        statusPanel.add(createSearchPanel(), BorderLayout.EAST);
+        mainPanel.add(statusPanel, BorderLayout.NORTH);
+
         stockTable = createStockTable();
         mainPanel.add(new JScrollPane(stockTable), BorderLayout.CENTER);
 
         JPanel buttonPanel = new JPanel();
-        JButton buyButton = new JButton("Buy Stock");
-        JButton sellButton = new JButton("Sell Stock");
+        buyButton = new JButton("Buy Stock");
+        sellButton = new JButton("Sell Stock");
         JButton salesButton = new JButton("Sales");
 
+        // Buying and selling need the product index, so wait until the stock is loaded
+        buyButton.setEnabled(false);
+        sellButton.setEnabled(false);
+        loadProgressBar = new JProgressBar();
+        loadProgressBar.setIndeterminate(true);
+        loadProgressBar.setStringPainted(true);
+        loadProgressBar.setString("Loading stock");
+
         buyButton.addActionListener(e -> openBuyStockDialog());
         sellButton.addActionListener(e -> openSellStockDialog());
         salesButton.addActionListener(e -> openSalesDialog());
@@ -78,6 +219,7 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
         buttonPanel.add(buyButton);
         buttonPanel.add(sellButton);
         buttonPanel.add(salesButton);
+        buttonPanel.add(loadProgressBar);
 
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
 
@@ -85,6 +227,80 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
         setVisible(true);
     }
 
+    /**
+     * Creates the quick filters, which show one department or the items
+     * sourced from Mengda's Sports Mart, and the search box, which filters
+     * the stock table to the items whose title or description matches as the
+     * user types.
+     *
+     * @return The search panel.
+     */
+    private JPanel createSearchPanel() {
+        JPanel searchPanel = new JPanel();
+        quickFilterBox = new JComboBox<>();
+        quickFilterBox.addItem(ALL_PRODUCTS_FILTER);
+        for (String department : ASCStockShardRouter.DEFAULT_DEPARTMENTS) {
+            quickFilterBox.addItem(department);
+        }
+        quickFilterBox.addItem(MSM_FILTER);
+        searchField = new JTextField(20);
+
+        // Filtering needs the indexes, so wait until the stock is loaded
+        quickFilterBox.setEnabled(false);
+        searchField.setEnabled(false);
+        quickFilterBox.addActionListener(e -> applyFilters());
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applyFilters();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applyFilters();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applyFilters();
+            }
+        });
+        searchPanel.add(new JLabel("Show:"));
+        searchPanel.add(quickFilterBox);
+        searchPanel.add(new JLabel("Search:"));
+        searchPanel.add(searchField);
+        return searchPanel;
+    }
+
+    /**
+     * Filters the stock table to the items matching the quick filter and the
+     * search box, or shows the whole stock when neither is set. A quick filter
+     * on its own is answered from the product code index, in code order; with
+     * a search, the search results are narrowed to the quick filter.
+     */
+    private void applyFilters() {
+        String query = searchField.getText();
+        String quickFilter = (String) quickFilterBox.getSelectedItem();
+        boolean allProducts = ALL_PRODUCTS_FILTER.equals(quickFilter);
+        List<ASCStockItem> items;
+        if (query.isBlank()) {
+            items = allProducts ? null : findQuickFilterItems(quickFilter);
+        } else if (allProducts) {
+            items = stockManager.searchStock(query);
+        } else if (MSM_FILTER.equals(quickFilter)) {
+            items = stockManager.searchStockByCodeTag(query, MSM_TAG);
+        } else {
+            items = stockManager.searchStockByCodePrefix(query, quickFilter);
+        }
+        stockManager.getStockTableModel().setFilter(items);
+    }
+
+    // Helper method to look up the items of a quick filter in the product code index
+    private List<ASCStockItem> findQuickFilterItems(String quickFilter) {
+        return MSM_FILTER.equals(quickFilter) ? stockManager.findStockByCodeTag(MSM_TAG)
+                : stockManager.findStockByCodePrefix(quickFilter);
+    }
+
     /**
      * Opens the "Buy Stock" dialog for purchasing new stock items.
      */
@@ -167,8 +383,10 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
 
                     stockManager.buyStock(newItem);
 
-                    stockManager.updateStockTable();
-                    stockManager.saveStockToCSV();
+                    // Show the new item if it matches the current filters
+                    if (stockManager.getStockTableModel().isFiltered()) {
+                        applyFilters();
+                    }
 
                     // Close the dialog
                     buyDialog.dispose();
@@ -196,13 +414,21 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
             return;
         }
 
-        // Extract product details from the selected row
+        // Look up the live stock item for the selected row
         String productCode = (String) stockManager.getStockTableModel().getValueAt(selectedRow, 0);
-        String productTitle = (String) stockManager.getStockTableModel().getValueAt(selectedRow, 1);
-        String productDescription = (String) stockManager.getStockTableModel().getValueAt(selectedRow, 2);
-        int unitPricePounds = (int) stockManager.getStockTableModel().getValueAt(selectedRow, 3);
-        int unitPricePence = (int) stockManager.getStockTableModel().getValueAt(selectedRow, 4);
-        int quantityInStock = (int) stockManager.getStockTableModel().getValueAt(selectedRow, 5);
+        ASCStockItem item = stockManager.findStockItem(productCode);
+
+        if (item == null) {
+            JOptionPane.showMessageDialog(this, "The selected product is no longer in stock.", "Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        String productTitle = item.getProductTitle();
+        String productDescription = item.getProductDescription();
+        int unitPricePounds = item.getUnitPricePounds();
+        int unitPricePence = item.getUnitPricePence();
+        int quantityInStock = item.getQuantityInStock();
 
         openSellStockDialog(productCode, productTitle, productDescription, unitPricePounds, unitPricePence,
                 quantityInStock);
@@ -301,16 +527,19 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
                 try {
                     int quantitySold = Integer.parseInt(quantityToBeSold.getText());
 
-                    if (quantitySold <= 0 || quantitySold > quantityInStock) {
+                    // The stock may have changed since the dialog opened, so
+                    // the sale itself decides whether enough is in stock
+                    ASCSaleResult result = stockManager.sellStock(productCode, quantitySold);
+                    if (result == ASCSaleResult.UNKNOWN_PRODUCT) {
+                        JOptionPane.showMessageDialog(sellDialog, "The product is no longer in stock.", "Error",
+                                JOptionPane.ERROR_MESSAGE);
+                        return;
+                    } else if (result != ASCSaleResult.SUCCESS) {
                         JOptionPane.showMessageDialog(sellDialog, "Invalid quantity to sell.", "Error",
                                 JOptionPane.ERROR_MESSAGE);
                         return;
                     }
 
-                    stockManager.sellStock(productCode, quantitySold);
-                    stockManager.updateStockTable();
-                    stockManager.saveStockToCSV();
-
                     sellDialog.dispose();
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(sellDialog, "Please enter a valid numeric value for quantity.",
@@ -326,7 +555,10 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
     }
 
     /**
-     * Opens the "Sales Information" dialog for displaying sales details.
+     * Opens the "Sales Information" dialog for displaying sales details. The
+     * sales can be filtered to a date range, given as yyyy-MM-dd, optionally
+     * followed by HH:mm or HH:mm:ss; a date alone in the "To" field includes
+     * the whole of that day.
      */
     private void openSalesDialog() {
         JDialog salesDialog = new JDialog(this, "Sales Information", true);
@@ -337,6 +569,37 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
         JTable salesTable = createSalesTable();
         salesDialog.add(new JScrollPane(salesTable), BorderLayout.CENTER);
 
+        // Create the date range filter
+        JPanel filterPanel = new JPanel();
+        JTextField fromField = new JTextField(12);
+        JTextField toField = new JTextField(12);
+        JButton filterButton = new JButton("Filter");
+        JButton showAllButton = new JButton("Show All");
+        filterPanel.add(new JLabel("From:"));
+        filterPanel.add(fromField);
+        filterPanel.add(new JLabel("To:"));
+        filterPanel.add(toField);
+        filterPanel.add(filterButton);
+        filterPanel.add(showAllButton);
+        salesDialog.add(filterPanel, BorderLayout.NORTH);
+
+        filterButton.addActionListener(e -> {
+            try {
+                long fromMillis = parseRangeBound(fromField.getText(), false);
+                long toMillis = parseRangeBound(toField.getText(), true);
+                salesTable.setModel(stockManager.getSalesTableModel(fromMillis, toMillis));
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(salesDialog, "Please enter dates as yyyy-MM-dd or yyyy-MM-dd HH:mm.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        showAllButton.addActionListener(e -> {
+            fromField.setText("");
+            toField.setText("");
+            salesTable.setModel(stockManager.getSalesTableModel());
+            stockManager.updateSalesTable();
+        });
+
         // Create a "Close" button
         JButton closeButton = new JButton("Close");
         closeButton.addActionListener(e -> salesDialog.dispose());
@@ -347,6 +610,22 @@ public class ASCStockManagerGUI extends JFrame implements ASCStockObserver {
         salesDialog.setVisible(true);
     }
 
+    // Helper method to convert a date range field to milliseconds since the epoch
+    private static long parseRangeBound(String text, boolean end) {
+        String trimmed = text.strip();
+        if (trimmed.isEmpty()) {
+            return end ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        LocalDateTime dateTime;
+        if (trimmed.length() == RANGE_DATE_LENGTH) {
+            LocalDate date = LocalDate.parse(trimmed);
+            dateTime = (end ? date.plusDays(1) : date).atStartOfDay();
+        } else {
+            dateTime = LocalDateTime.parse(trimmed.replace(' ', 'T'));
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
     /**
      * Creates and returns a JTable for displaying stock information.
      *
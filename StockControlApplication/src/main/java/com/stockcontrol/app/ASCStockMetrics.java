@@ -0,0 +1,227 @@
+package com.stockcontrol.app;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Runtime metrics for stock operations: a latency histogram per operation,
+ * a count of refused sales, and gauges for the catalog size and the number
+ * of items low on stock. Recording an operation costs a few nanoseconds, so
+ * the metrics are always on. They can be published as JMX MBeans and
+ * written out as a text report at a fixed interval.
+ */
+public class ASCStockMetrics implements ASCStockMetricsMBean {
+
+    /**
+     * The operations whose latency is measured.
+     */
+    public enum Operation {
+        /**
+         * Selling stock, whether or not the sale succeeds.
+         */
+        SELL("sell"),
+        /**
+         * Buying stock.
+         */
+        BUY("buy"),
+        /**
+         * Saving the stock to the catalog CSV file.
+         */
+        SAVE("save"),
+        /**
+         * Loading the stock from the catalogs on start.
+         */
+        LOAD("load"),
+        /**
+         * Writing a sales record to the sales journal.
+         */
+        SALES_RECORD("salesRecord"),
+        /**
+         * Delivering one stock update to every observer.
+         */
+        OBSERVER_DISPATCH("observerDispatch"),
+        /**
+         * Searching the product titles and descriptions.
+         */
+        SEARCH("search");
+
+        private final String metricName;
+
+        Operation(String metricName) {
+            this.metricName = metricName;
+        }
+
+        /**
+         * Gets the name the operation is published under.
+         *
+         * @return The metric name.
+         */
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    static final String OBJECT_NAME = "com.stockcontrol.app:type=ASCStockMetrics";
+
+    private final Map<Operation, ASCLatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    private final LongAdder failedSells = new LongAdder();
+    private volatile IntSupplier catalogSize = () -> 0;
+    private volatile IntSupplier lowStockCount = () -> 0;
+    private ScheduledExecutorService reportExecutor;
+    private ScheduledFuture<?> reportTask;
+
+    // Private constructor to enforce singleton pattern
+    private ASCStockMetrics() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ASCLatencyHistogram());
+        }
+    }
+
+    // Holder class so the singleton is created lazily and safely published
+    private static class InstanceHolder {
+
+        private static final ASCStockMetrics INSTANCE = new ASCStockMetrics();
+    }
+
+    /**
+     * Gets the singleton instance of ASCStockMetrics.
+     *
+     * @return The ASCStockMetrics instance.
+     */
+    public static ASCStockMetrics getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Gets the latency histogram of an operation.
+     *
+     * @param operation The operation.
+     * @return The histogram.
+     */
+    public ASCLatencyHistogram getHistogram(Operation operation) {
+        return histograms.get(operation);
+    }
+
+    /**
+     * Records the time an operation took, from a start time taken from
+     * System.nanoTime.
+     *
+     * @param operation The operation.
+     * @param startNanos The start time.
+     */
+    public void recordSince(Operation operation, long startNanos) {
+        histograms.get(operation).recordSince(startNanos);
+    }
+
+    /**
+     * Counts a sale that was refused.
+     */
+    public void recordFailedSell() {
+        failedSells.increment();
+    }
+
+    /**
+     * Sets where the catalog size and low-stock count gauges are read from,
+     * typically the stock manager that is serving sales.
+     *
+     * @param catalogSize Supplies the number of items in the catalog.
+     * @param lowStockCount Supplies the number of items low on stock.
+     */
+    public void setStockGauges(IntSupplier catalogSize, IntSupplier lowStockCount) {
+        this.catalogSize = catalogSize;
+        this.lowStockCount = lowStockCount;
+    }
+
+    @Override
+    public int getCatalogSize() {
+        return catalogSize.getAsInt();
+    }
+
+    @Override
+    public int getLowStockCount() {
+        return lowStockCount.getAsInt();
+    }
+
+    @Override
+    public long getFailedSellCount() {
+        return failedSells.sum();
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("CATALOG SIZE: %d - LOW STOCK: %d - FAILED SALES: %d%n", getCatalogSize(),
+                getLowStockCount(), getFailedSellCount()));
+        for (Operation operation : Operation.values()) {
+            report.append(operation.getMetricName()).append(": ").append(histograms.get(operation))
+                    .append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Publishes the metrics, and a histogram per operation, on the platform
+     * MBean server. Publishing again has no effect.
+     *
+     * @throws JMException If the MBeans cannot be registered.
+     */
+    public synchronized void registerMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        register(server, this, new ObjectName(OBJECT_NAME));
+        for (Operation operation : Operation.values()) {
+            register(server, histograms.get(operation),
+                    new ObjectName(OBJECT_NAME + ",name=" + operation.getMetricName()));
+        }
+    }
+
+    /**
+     * Starts passing the text report to a consumer at a fixed interval,
+     * replacing any report already scheduled.
+     *
+     * @param intervalMillis The interval between reports in milliseconds.
+     * @param reportConsumer Receives each report.
+     */
+    public synchronized void startReporting(long intervalMillis, Consumer<String> reportConsumer) {
+        stopReporting();
+        if (reportExecutor == null) {
+            reportExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ASC-metrics-report");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        reportTask = reportExecutor.scheduleAtFixedRate(() -> reportConsumer.accept(getReport()), intervalMillis,
+                intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic report.
+     */
+    public synchronized void stopReporting() {
+        if (reportTask != null) {
+            reportTask.cancel(false);
+            reportTask = null;
+        }
+    }
+
+    // Helper method to register an MBean unless it is already registered
+    private static void register(MBeanServer server, Object mbean, ObjectName name) throws JMException {
+        try {
+            server.registerMBean(mbean, name);
+        } catch (InstanceAlreadyExistsException e) {
+            // Already published by an earlier call
+        }
+    }
+}
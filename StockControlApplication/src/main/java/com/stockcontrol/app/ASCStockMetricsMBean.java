@@ -0,0 +1,36 @@
+package com.stockcontrol.app;
+
+/**
+ * JMX view of the stock metrics. The latency of each operation is published
+ * as a separate ASCLatencyHistogramMBean.
+ */
+public interface ASCStockMetricsMBean {
+
+    /**
+     * Gets the number of stock items in the catalog.
+     *
+     * @return The catalog size.
+     */
+    int getCatalogSize();
+
+    /**
+     * Gets the number of stock items below their low-stock threshold.
+     *
+     * @return The low-stock count.
+     */
+    int getLowStockCount();
+
+    /**
+     * Gets the number of sales that were refused.
+     *
+     * @return The number of failed sales.
+     */
+    long getFailedSellCount();
+
+    /**
+     * Generates a text report of every metric.
+     *
+     * @return The report.
+     */
+    String getReport();
+}
@@ -0,0 +1,339 @@
+package com.stockcontrol.app;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Persists changes to the stock catalog in the background. Changed items are
+ * marked dirty and, after a short debounce delay, all items changed since the
+ * last write are appended to a change log next to the catalog CSV file, so a
+ * burst of sales of one item produces a single row. The change log is
+ * replayed over the catalog on startup and folded into the catalog by a
+ * snapshot, which is written to a temporary file and atomically renamed over
+ * the catalog. Each snapshot also writes the binary ASCStockSnapshot next to
+ * the catalog, after the CSV, so a binary snapshot at least as new as the
+ * catalog always matches it.
+ */
+public class ASCStockPersister implements Closeable {
+
+    private static final String COMMIT_MARKER = "#COMMIT";
+    private static final String CHANGE_LOG_SUFFIX = ".changes";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path catalogFile;
+    private final Path changeLogFile;
+    private final Supplier<? extends Collection<ASCStockItem>> catalogSource;
+    private final IntSupplier catalogSize;
+    private final Consumer<IOException> errorHandler;
+    private final long debounceMillis;
+    private final Map<String, ASCStockItem> dirtyItems = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+
+    // Owned by the executor thread
+    private int changeLogRows;
+
+    /**
+     * Constructor for ASCStockPersister class.
+     *
+     * @param catalogFilePath The path of the catalog CSV file.
+     * @param catalogSource Supplies a consistent copy of every stock item when
+     * a snapshot is written.
+     * @param catalogSize Gets the current number of stock items without
+     * copying them, to decide when the change log has outgrown the catalog.
+     * @param debounceMillis How long to wait after an item is marked dirty
+     * before writing, so that bursts of changes are written together.
+     * @param errorHandler Called on the persistence thread if a write fails.
+     */
+    public ASCStockPersister(String catalogFilePath, Supplier<? extends Collection<ASCStockItem>> catalogSource,
+            IntSupplier catalogSize, long debounceMillis, Consumer<IOException> errorHandler) {
+        this.catalogFile = Paths.get(catalogFilePath);
+        this.changeLogFile = getChangeLogFile(catalogFile);
+        this.catalogSource = catalogSource;
+        this.catalogSize = catalogSize;
+        this.debounceMillis = debounceMillis;
+        this.errorHandler = errorHandler;
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ASC-stock-persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Marks a stock item as changed, scheduling a write of its current state.
+     *
+     * @param item The changed stock item.
+     */
+    public void markDirty(ASCStockItem item) {
+        dirtyItems.put(item.getProductCode(), item);
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flushChanges, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Gets the number of changed items that have not been written yet.
+     *
+     * @return The number of dirty items.
+     */
+    public int getDirtyCount() {
+        return dirtyItems.size();
+    }
+
+    /**
+     * Writes all pending changes to the change log and waits for the write to
+     * finish.
+     *
+     * @throws IOException If the write fails.
+     */
+    public void flush() throws IOException {
+        await(executor.submit(() -> {
+            writeChanges();
+            return null;
+        }));
+    }
+
+    /**
+     * Writes a full snapshot of the catalog and clears the change log, waiting
+     * for the snapshot to finish.
+     *
+     * @throws IOException If the snapshot fails.
+     */
+    public void snapshot() throws IOException {
+        await(executor.submit(() -> {
+            writeChanges();
+            writeSnapshot();
+            return null;
+        }));
+    }
+
+    /**
+     * Writes a final snapshot and stops the persistence thread.
+     *
+     * @throws IOException If the final snapshot fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (executor.isShutdown()) {
+            return;
+        }
+        try {
+            snapshot();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Replays the change log of a catalog file over the loaded stock items.
+     * Rows for known product codes update the quantity in stock; rows for new
+     * product codes add the item. Rows after the last complete commit, left by
+     * an interrupted write, are ignored.
+     *
+     * @param catalogFilePath The path of the catalog CSV file.
+     * @param stockItems The loaded stock items to update.
+     * @return The number of rows applied.
+     * @throws IOException If the change log cannot be read.
+     */
+    public static int replayChanges(String catalogFilePath, ASCStockStore stockItems) throws IOException {
+        Path changeLog = getChangeLogFile(Paths.get(catalogFilePath));
+        if (!Files.exists(changeLog)) {
+            return 0;
+        }
+
+        int applied = 0;
+        List<ASCStockItem> batch = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(changeLog, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(COMMIT_MARKER)) {
+                    if (batch.size() == parseCommitCount(line)) {
+                        for (ASCStockItem changedItem : batch) {
+                            applyChange(stockItems, changedItem);
+                        }
+                        applied += batch.size();
+                    }
+                    batch.clear();
+                } else {
+                    ASCStockItem changedItem = parseRow(line);
+                    if (changedItem != null) {
+                        batch.add(changedItem);
+                    }
+                }
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Writes the given stock items to a catalog CSV file atomically: the items
+     * are written and forced to a temporary file, which is then renamed over
+     * the catalog.
+     *
+     * @param catalogFilePath The path of the catalog CSV file.
+     * @param stockItems The stock items to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeCatalog(String catalogFilePath, Collection<ASCStockItem> stockItems)
+            throws IOException {
+        Path catalog = Paths.get(catalogFilePath);
+        Path tempFile = catalog.resolveSibling(catalog.getFileName() + TEMP_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8));
+            for (ASCStockItem item : stockItems) {
+                writeRow(writer, item);
+            }
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(tempFile, catalog, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Debounced task: writes the changes collected since it was scheduled
+    private void flushChanges() {
+        flushScheduled.set(false);
+        try {
+            writeChanges();
+            if (changeLogRows > catalogSize.getAsInt()) {
+                // The log has outgrown the catalog, so fold it into a snapshot
+                writeSnapshot();
+            }
+        } catch (IOException e) {
+            errorHandler.accept(e);
+        }
+    }
+
+    // Helper method to append the dirty items and a commit marker to the log
+    private void writeChanges() throws IOException {
+        if (dirtyItems.isEmpty()) {
+            return;
+        }
+
+        int rows = 0;
+        try (FileChannel channel = FileChannel.open(changeLogFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8));
+            for (String productCode : dirtyItems.keySet()) {
+                ASCStockItem item = dirtyItems.remove(productCode);
+                if (item != null) {
+                    writeRow(writer, item);
+                    rows++;
+                }
+            }
+            writer.write(COMMIT_MARKER + "," + rows + System.lineSeparator());
+            writer.flush();
+            channel.force(false);
+        }
+        changeLogRows += rows;
+    }
+
+    // Helper method to write a snapshot of the catalog and drop the change log
+    private void writeSnapshot() throws IOException {
+        Collection<ASCStockItem> stockItems = catalogSource.get();
+        writeCatalog(catalogFile.toString(), stockItems);
+        ASCStockSnapshot.write(ASCStockSnapshot.getSnapshotFile(catalogFile), stockItems);
+        Files.deleteIfExists(changeLogFile);
+        changeLogRows = 0;
+    }
+
+    // Helper method to wait for a persistence task, unwrapping its failure
+    private static void await(Future<?> task) throws IOException {
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the stock to be saved", e);
+        }
+    }
+
+    // Helper method to write a stock item as a catalog CSV row
+    private static void writeRow(Writer writer, ASCStockItem item) throws IOException {
+        writer.write(item.getProductCode());
+        writer.write(',');
+        writer.write(item.getProductTitle());
+        writer.write(',');
+        writer.write(item.getProductDescription());
+        writer.write(',');
+        writer.write(Integer.toString(item.getUnitPricePounds()));
+        writer.write(',');
+        writer.write(Integer.toString(item.getUnitPricePence()));
+        writer.write(',');
+        writer.write(Integer.toString(item.getQuantityInStock()));
+        writer.write(System.lineSeparator());
+    }
+
+    // Helper method to parse a change log row, returning null if it is damaged
+    private static ASCStockItem parseRow(String line) {
+        String[] data = line.split(",");
+        if (data.length != 6) {
+            return null;
+        }
+        try {
+            return new ASCStockItem(data[0], data[1], data[2], Integer.parseInt(data[3]), Integer.parseInt(data[4]),
+                    Integer.parseInt(data[5]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Helper method to read the row count of a commit marker
+    private static int parseCommitCount(String line) {
+        try {
+            return Integer.parseInt(line.substring(COMMIT_MARKER.length() + 1));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    // Helper method to apply one replayed row to the stock
+    private static void applyChange(ASCStockStore stockItems, ASCStockItem changedItem) {
+        ASCStockItem item = stockItems.findByProductCode(changedItem.getProductCode());
+        if (item == null) {
+            stockItems.add(changedItem);
+        } else {
+            item.setQuantityInStock(changedItem.getQuantityInStock());
+        }
+    }
+
+    // Helper method to locate the change log of a catalog file
+    private static Path getChangeLogFile(Path catalog) {
+        return catalog.resolveSibling(catalog.getFileName() + CHANGE_LOG_SUFFIX);
+    }
+}
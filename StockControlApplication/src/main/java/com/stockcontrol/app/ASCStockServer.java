@@ -0,0 +1,386 @@
+package com.stockcontrol.app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+
+/**
+ * Serves the stock over HTTP without a user interface, for tills and other
+ * services. The server uses the JDK's built-in HTTP server, which holds open
+ * connections on a single selector thread, so thousands of idle till
+ * connections cost no threads; requests are handled on a pool of worker
+ * threads. Responses are JSON, except for the metrics report.
+ * <p>
+ * Endpoints:
+ * <ul>
+ * <li>GET /stock - every stock item;</li>
+ * <li>GET /stock/{code} - one stock item;</li>
+ * <li>POST /stock - buy a new item, with the form fields code, title,
+ * description, pounds, pence and quantity;</li>
+ * <li>POST /stock/{code}/sell - sell the form field quantity of an item;</li>
+ * <li>GET /sales - every recorded sale;</li>
+ * <li>GET /sales/summary - sales totals for the query parameter code or
+ * department, or for the whole shop;</li>
+ * <li>GET /metrics - the stock metrics report.</li>
+ * </ul>
+ */
+public class ASCStockServer {
+
+    static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_WORKER_THREADS = 256;
+    private static final int CONNECTION_BACKLOG = 4096;
+    private static final long STOCK_SAVE_DEBOUNCE_MILLIS = 500;
+    private static final long SALES_COMPACTION_INTERVAL_MILLIS = 60 * 60 * 1000;
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private final ASCStockManager stockManager;
+    private final HttpServer server;
+    private final ExecutorService workers;
+
+    /**
+     * Constructor for ASCStockServer class, handling requests on a pool of
+     * the default number of worker threads.
+     *
+     * @param stockManager The stock manager to serve.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ASCStockServer(ASCStockManager stockManager, int port) throws IOException {
+        this(stockManager, new InetSocketAddress(port), createWorkers(DEFAULT_WORKER_THREADS));
+    }
+
+    /**
+     * Constructor for ASCStockServer class. The server shuts the executor
+     * down when it is stopped.
+     *
+     * @param stockManager The stock manager to serve.
+     * @param address The address to listen on.
+     * @param workers The executor that handles requests.
+     * @throws IOException If the address cannot be bound.
+     */
+    public ASCStockServer(ASCStockManager stockManager, InetSocketAddress address, ExecutorService workers)
+            throws IOException {
+        this.stockManager = stockManager;
+        this.workers = workers;
+        server = HttpServer.create(address, CONNECTION_BACKLOG);
+        server.setExecutor(workers);
+        server.createContext("/stock", exchange -> handle(exchange, this::handleStock));
+        server.createContext("/sales", exchange -> handle(exchange, this::handleSales));
+        server.createContext("/metrics", exchange -> handle(exchange, this::handleMetrics));
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops serving requests, giving requests in progress up to the given
+     * time to finish, and shuts down the worker threads.
+     *
+     * @param delaySeconds The longest time to wait for requests in progress.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Loads the stock and serves it over HTTP until the process is stopped.
+     *
+     * @param args The port to listen on, optionally followed by the number of
+     * worker threads.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int workerThreads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WORKER_THREADS;
+
+        ASCStockManager stockManager = new ASCStockManager();
+        stockManager.enableBackgroundPersistence(STOCK_SAVE_DEBOUNCE_MILLIS);
+        stockManager.enableSalesCompaction(SALES_COMPACTION_INTERVAL_MILLIS);
+        stockManager.getLowStockMonitor().addListener(lowStockItems
+                -> System.out.println("Low stock: " + lowStockItems.size() + " items below their threshold"));
+        try {
+            ASCStockMetrics.getInstance().registerMBeans();
+        } catch (JMException e) {
+            ASCErrorReporter.showError("Stock metrics could not be published over JMX.");
+        }
+
+        ASCStockServer stockServer = new ASCStockServer(stockManager, new InetSocketAddress(port),
+                createWorkers(workerThreads));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stockServer.stop(1);
+            stockManager.shutdown();
+        }, "ASC-http-shutdown"));
+        stockServer.start();
+        System.out.println("Serving " + stockManager.getStockItems().size() + " stock items on port "
+                + stockServer.getPort());
+    }
+
+    /**
+     * Handles one kind of request and produces its response.
+     */
+    private interface RequestHandler {
+
+        Response handle(HttpExchange exchange, String[] path) throws IOException;
+    }
+
+    /**
+     * A status code, content type and body to send back.
+     */
+    private static final class Response {
+
+        private final int status;
+        private final String contentType;
+        private final String body;
+
+        Response(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Response json(int status, String body) {
+            return new Response(status, JSON_CONTENT_TYPE, body);
+        }
+
+        static Response error(int status, String message) {
+            return json(status, "{\"error\":" + quote(message) + "}");
+        }
+    }
+
+    // Helper method to run a handler and send its response, turning failures into error responses
+    private static void handle(HttpExchange exchange, RequestHandler handler) throws IOException {
+        Response response;
+        try {
+            String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+            response = handler.handle(exchange, path);
+        } catch (NumberFormatException e) {
+            response = Response.error(400, "Invalid number: " + e.getMessage());
+        } catch (RuntimeException e) {
+            response = Response.error(500, String.valueOf(e));
+        }
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    // Helper method to handle requests under /stock
+    private Response handleStock(HttpExchange exchange, String[] path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.length == 1 && method.equals("GET")) {
+            List<ASCStockItem> stockItems;
+            synchronized (stockManager.getStockItems()) {
+                stockItems = new ArrayList<>(stockManager.getStockItems());
+            }
+            StringBuilder json = new StringBuilder("[");
+            for (ASCStockItem item : stockItems) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                appendStockItem(json, item);
+            }
+            return Response.json(200, json.append(']').toString());
+        }
+        if (path.length == 1 && method.equals("POST")) {
+            return buyStock(readForm(exchange));
+        }
+        if (path.length == 2 && method.equals("GET")) {
+            ASCStockItem item = stockManager.findStockItem(path[1]);
+            return item == null ? Response.error(404, "Unknown product " + path[1])
+                    : Response.json(200, appendStockItem(new StringBuilder(), item).toString());
+        }
+        if (path.length == 3 && path[2].equals("sell") && method.equals("POST")) {
+            return sellStock(path[1], readForm(exchange));
+        }
+        return notFoundOrNotAllowed(path.length <= 3);
+    }
+
+    // Helper method to handle requests under /sales
+    private Response handleSales(HttpExchange exchange, String[] path) {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            return notFoundOrNotAllowed(path.length <= 2);
+        }
+        if (path.length == 1) {
+            StringBuilder json = new StringBuilder("[");
+            for (ASCSalesItem item : stockManager.getSalesItems()) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append("{\"dateTime\":").append(quote(item.getDateTime()))
+                        .append(",\"productCode\":").append(quote(item.getProductCode()))
+                        .append(",\"quantitySold\":").append(item.getQuantitySold())
+                        .append(",\"unitPricePounds\":").append(item.getUnitPrice())
+                        .append(",\"unitPricePence\":").append(item.getUnitPricePence())
+                        .append(",\"totalPricePence\":").append(item.getTotalPricePence()).append('}');
+            }
+            return Response.json(200, json.append(']').toString());
+        }
+        if (path.length == 2 && path[1].equals("summary")) {
+            Map<String, String> query = parseForm(exchange.getRequestURI().getRawQuery());
+            ASCSalesSummary summary;
+            if (query.containsKey("code")) {
+                summary = stockManager.getProductSalesSummary(query.get("code"));
+            } else if (query.containsKey("department")) {
+                summary = stockManager.getDepartmentSalesSummary(query.get("department"));
+            } else {
+                summary = stockManager.getSalesAggregates().getTotalSummary();
+            }
+            if (summary == null) {
+                return Response.json(200, "{\"unitsSold\":0,\"revenuePence\":0,\"lastSaleDateTime\":null}");
+            }
+            return Response.json(200, "{\"unitsSold\":" + summary.getUnitsSold()
+                    + ",\"revenuePence\":" + summary.getRevenuePence()
+                    + ",\"lastSaleDateTime\":" + quote(summary.getLastSaleDateTime()) + "}");
+        }
+        return notFoundOrNotAllowed(false);
+    }
+
+    // Helper method to handle requests for the metrics report
+    private Response handleMetrics(HttpExchange exchange, String[] path) {
+        if (path.length != 1 || !exchange.getRequestMethod().equals("GET")) {
+            return notFoundOrNotAllowed(path.length == 1);
+        }
+        return new Response(200, TEXT_CONTENT_TYPE, ASCStockMetrics.getInstance().getReport());
+    }
+
+    // Helper method to buy a new stock item from the submitted form
+    private Response buyStock(Map<String, String> form) {
+        String productCode = form.get("code");
+        String productTitle = form.get("title");
+        String productDescription = form.get("description");
+        if (productCode == null || productCode.isEmpty() || productTitle == null || productDescription == null) {
+            return Response.error(400, "The code, title and description are required");
+        }
+        int unitPricePounds = Integer.parseInt(form.getOrDefault("pounds", ""));
+        int unitPricePence = Integer.parseInt(form.getOrDefault("pence", "0"));
+        int quantityInStock = Integer.parseInt(form.getOrDefault("quantity", ""));
+        if (unitPricePounds < 0 || unitPricePence < 0 || unitPricePence > 99 || quantityInStock < 0) {
+            return Response.error(400, "Invalid price or quantity");
+        }
+        ASCStockItem newItem = new ASCStockItem(productCode, productTitle, productDescription, unitPricePounds,
+                unitPricePence, quantityInStock);
+        if (!stockManager.buyStockIfAbsent(newItem)) {
+            return Response.error(409, "Product " + productCode + " is already in stock");
+        }
+        return Response.json(201, appendStockItem(new StringBuilder(), newItem).toString());
+    }
+
+    // Helper method to sell stock, mapping the sale result to a status code
+    private Response sellStock(String productCode, Map<String, String> form) {
+        ASCSaleResult result = stockManager.sellStock(productCode,
+                Integer.parseInt(form.getOrDefault("quantity", "")));
+        switch (result) {
+            case SUCCESS:
+                return Response.json(200, appendStockItem(new StringBuilder(), stockManager.findStockItem(productCode))
+                        .toString());
+            case UNKNOWN_PRODUCT:
+                return Response.error(404, "Unknown product " + productCode);
+            case INSUFFICIENT_STOCK:
+                return Response.error(409, "Insufficient stock of " + productCode);
+            default:
+                return Response.error(400, "Invalid quantity");
+        }
+    }
+
+    // Helper method to answer a request for an unknown path or with an unsupported method
+    private static Response notFoundOrNotAllowed(boolean knownPath) {
+        return knownPath ? Response.error(405, "Method not allowed") : Response.error(404, "Not found");
+    }
+
+    // Helper method to write a stock item as a JSON object
+    private static StringBuilder appendStockItem(StringBuilder json, ASCStockItem item) {
+        return json.append("{\"productCode\":").append(quote(item.getProductCode()))
+                .append(",\"productTitle\":").append(quote(item.getProductTitle()))
+                .append(",\"productDescription\":").append(quote(item.getProductDescription()))
+                .append(",\"unitPricePounds\":").append(item.getUnitPricePounds())
+                .append(",\"unitPricePence\":").append(item.getUnitPricePence())
+                .append(",\"quantityInStock\":").append(item.getQuantityInStock()).append('}');
+    }
+
+    // Helper method to write a string as a JSON string literal
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    // Helper method to read form fields from the query string and the request body
+    private static Map<String, String> readForm(HttpExchange exchange) throws IOException {
+        Map<String, String> form = parseForm(exchange.getRequestURI().getRawQuery());
+        try (InputStream input = exchange.getRequestBody()) {
+            form.putAll(parseForm(new String(input.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+        return form;
+    }
+
+    // Helper method to parse URL-encoded form fields
+    private static Map<String, String> parseForm(String encoded) {
+        Map<String, String> form = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return form;
+        }
+        for (String field : encoded.split("&")) {
+            int equals = field.indexOf('=');
+            String name = equals < 0 ? field : field.substring(0, equals);
+            String value = equals < 0 ? "" : field.substring(equals + 1);
+            form.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return form;
+    }
+
+    // Helper method to create the pool of worker threads that handle requests
+    private static ExecutorService createWorkers(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads,
+                runnable -> new Thread(runnable, "ASC-http-" + threadNumber.getAndIncrement()));
+    }
+}
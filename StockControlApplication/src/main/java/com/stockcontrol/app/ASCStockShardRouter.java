@@ -0,0 +1,112 @@
+package com.stockcontrol.app;
+
+import java.util.Arrays;
+
+/**
+ * Decides which shard of an ASCShardedStockStore holds a product, either by
+ * the product code's department or by a hash of the whole product code.
+ * Routing is a pure function of the product code, so every item with a given
+ * code always lands in the same shard.
+ */
+public abstract class ASCStockShardRouter {
+
+    /**
+     * The departments the stock is sharded by unless others are given.
+     */
+    public static final String[] DEFAULT_DEPARTMENTS = {"RUN", "SWM", "CYC"};
+
+    private static final String OTHER_SHARD_NAME = "OTHER";
+
+    // Package-private constructor; routers are created with the factory methods
+    ASCStockShardRouter() {
+    }
+
+    /**
+     * Creates a router with one shard per department, plus a shard for
+     * product codes that start with none of them.
+     *
+     * @param departments The department prefixes, such as RUN, SWM and CYC.
+     * @return The router.
+     */
+    public static ASCStockShardRouter byDepartment(String... departments) {
+        String[] prefixes = departments.clone();
+        if (prefixes.length == 0 || Arrays.asList(prefixes).contains(OTHER_SHARD_NAME)) {
+            throw new IllegalArgumentException("At least one department other than " + OTHER_SHARD_NAME
+                    + " is required");
+        }
+        return new ASCStockShardRouter() {
+            @Override
+            public int getShardCount() {
+                return prefixes.length + 1;
+            }
+
+            @Override
+            public int getShard(String productCode) {
+                for (int i = 0; i < prefixes.length; i++) {
+                    if (productCode.startsWith(prefixes[i])) {
+                        return i;
+                    }
+                }
+                return prefixes.length;
+            }
+
+            @Override
+            public String getShardName(int shard) {
+                return shard == prefixes.length ? OTHER_SHARD_NAME : prefixes[shard];
+            }
+        };
+    }
+
+    /**
+     * Creates a router that spreads product codes over a fixed number of
+     * shards by their hash, for catalogs dominated by one department.
+     *
+     * @param shardCount The number of shards.
+     * @return The router.
+     */
+    public static ASCStockShardRouter byHash(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        return new ASCStockShardRouter() {
+            @Override
+            public int getShardCount() {
+                return shardCount;
+            }
+
+            @Override
+            public int getShard(String productCode) {
+                int hash = productCode.hashCode();
+                return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+            }
+
+            @Override
+            public String getShardName(int shard) {
+                return "SHARD" + shard;
+            }
+        };
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return The shard count.
+     */
+    public abstract int getShardCount();
+
+    /**
+     * Gets the shard that holds a product.
+     *
+     * @param productCode The product code.
+     * @return The shard, from 0 to one less than the shard count.
+     */
+    public abstract int getShard(String productCode);
+
+    /**
+     * Gets the name of a shard, used in the names of its persistence files.
+     *
+     * @param shard The shard.
+     * @return The shard name.
+     */
+    public abstract String getShardName(int shard);
+}
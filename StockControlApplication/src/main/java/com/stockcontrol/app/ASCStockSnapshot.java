@@ -0,0 +1,303 @@
+package com.stockcontrol.app;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * A versioned binary snapshot of the stock, read through a memory mapping so
+ * that the stock can be restored without parsing text. The file holds:
+ * <ul>
+ * <li>a header with a magic number, the format version, the row count, the
+ * size of the index and string sections, and a CRC32C checksum of everything
+ * after the header;</li>
+ * <li>an open-addressing hash index from product code to row;</li>
+ * <li>fixed-width int columns for the unit price in pounds and pence, the
+ * quantity in stock, and the offsets of the product code, title and
+ * description;</li>
+ * <li>a section of length-prefixed UTF-8 strings, each distinct string stored
+ * once.</li>
+ * </ul>
+ * The CSV catalog remains the import and export format; the snapshot is
+ * written next to it and used as the fast path on start.
+ */
+public class ASCStockSnapshot {
+
+    /**
+     * The magic number at the start of every snapshot, "ASCS" in ASCII.
+     */
+    public static final int MAGIC = 0x41534353;
+    /**
+     * The snapshot format version written by this class.
+     */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int COLUMN_COUNT = 6;
+    private static final int POUNDS_COLUMN = 0;
+    private static final int PENCE_COLUMN = 1;
+    private static final int QUANTITY_COLUMN = 2;
+    private static final int CODE_COLUMN = 3;
+    private static final int TITLE_COLUMN = 4;
+    private static final int DESCRIPTION_COLUMN = 5;
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int indexSlots;
+    private final int columnsOffset;
+    private final int stringsOffset;
+
+    // Private constructor; snapshots are opened with open()
+    private ASCStockSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a stock snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported stock snapshot version " + buffer.getInt(4));
+        }
+        rowCount = buffer.getInt(8);
+        indexSlots = buffer.getInt(12);
+        int stringsLength = buffer.getInt(16);
+        columnsOffset = HEADER_SIZE + indexSlots * Integer.BYTES;
+        stringsOffset = columnsOffset + rowCount * COLUMN_COUNT * Integer.BYTES;
+        if (rowCount < 0 || indexSlots <= rowCount || Integer.bitCount(indexSlots) != 1
+                || (long) stringsOffset + stringsLength != buffer.capacity()) {
+            throw new IOException("The stock snapshot is truncated or damaged");
+        }
+        if (buffer.getLong(24) != checksum(buffer)) {
+            throw new IOException("The stock snapshot checksum does not match");
+        }
+    }
+
+    /**
+     * Gets the snapshot file kept next to a catalog CSV file.
+     *
+     * @param catalogFile The catalog CSV file.
+     * @return The snapshot file.
+     */
+    public static Path getSnapshotFile(Path catalogFile) {
+        return catalogFile.resolveSibling(catalogFile.getFileName() + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Maps a snapshot file and checks its header and checksum.
+     *
+     * @param file The snapshot file.
+     * @return The opened snapshot.
+     * @throws IOException If the file cannot be read, is not a snapshot of a
+     * supported version, or is damaged.
+     */
+    public static ASCStockSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The stock snapshot is too large");
+            }
+            return new ASCStockSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given stock items atomically: the snapshot is
+     * written and forced to a temporary file, which is then renamed over the
+     * snapshot file.
+     *
+     * @param file The snapshot file.
+     * @param stockItems The stock items to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path file, Collection<ASCStockItem> stockItems) throws IOException {
+        List<ASCStockItem> items = new ArrayList<>(stockItems);
+        int rows = items.size();
+        int slots = Integer.highestOneBit(Math.max(rows, 1)) << 2;
+        int[] index = new int[slots];
+        int[] columns = new int[rows * COLUMN_COUNT];
+        List<byte[]> codes = new ArrayList<>(rows);
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        ByteArrayOutputStream stringSection = new ByteArrayOutputStream();
+        DataOutputStream strings = new DataOutputStream(stringSection);
+
+        for (int row = 0; row < rows; row++) {
+            ASCStockItem item = items.get(row);
+            int base = row * COLUMN_COUNT;
+            columns[base + POUNDS_COLUMN] = item.getUnitPricePounds();
+            columns[base + PENCE_COLUMN] = item.getUnitPricePence();
+            columns[base + QUANTITY_COLUMN] = item.getQuantityInStock();
+            byte[] code = item.getProductCode().getBytes(StandardCharsets.UTF_8);
+            codes.add(code);
+
+            columns[base + CODE_COLUMN] = writeString(item.getProductCode(), stringOffsets, strings);
+            columns[base + TITLE_COLUMN] = writeString(item.getProductTitle(), stringOffsets, strings);
+            columns[base + DESCRIPTION_COLUMN] = writeString(item.getProductDescription(), stringOffsets, strings);
+
+            // Index the first row with each product code
+            for (int slot = hash(code) & (slots - 1);; slot = (slot + 1) & (slots - 1)) {
+                if (index[slot] == 0) {
+                    index[slot] = row + 1;
+                    break;
+                }
+                if (Arrays.equals(codes.get(index[slot] - 1), code)) {
+                    break;
+                }
+            }
+        }
+
+        byte[] stringBytes = stringSection.toByteArray();
+        int stringsLength = stringBytes.length;
+        ByteBuffer output = ByteBuffer.allocate(HEADER_SIZE + slots * Integer.BYTES + columns.length * Integer.BYTES
+                + stringsLength);
+        output.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(slots).putInt(stringsLength).putInt(0).putLong(0);
+        output.asIntBuffer().put(index).put(columns);
+        output.position(HEADER_SIZE + (slots + columns.length) * Integer.BYTES);
+        output.put(stringBytes);
+        output.putLong(24, checksum(output));
+        output.flip();
+
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Gets the number of stock items in the snapshot.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Finds the row of a product code through the snapshot's index.
+     *
+     * @param productCode The product code to look up.
+     * @return The row of the first item with the product code, or -1 if no
+     * item has it.
+     */
+    public int indexOf(String productCode) {
+        byte[] code = productCode.getBytes(StandardCharsets.UTF_8);
+        for (int slot = hash(code) & (indexSlots - 1);; slot = (slot + 1) & (indexSlots - 1)) {
+            int entry = buffer.getInt(HEADER_SIZE + slot * Integer.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            if (stringEquals(getColumn(entry - 1, CODE_COLUMN), code)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Gets the stock item in a row of the snapshot.
+     *
+     * @param row The row.
+     * @return A new stock item with the row's values.
+     */
+    public ASCStockItem getStockItem(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return createStockItem(row, new HashMap<>());
+    }
+
+    /**
+     * Gets every stock item in the snapshot, in the order they were written.
+     * Strings stored once in the snapshot are shared between the items.
+     *
+     * @return A list of new stock items.
+     */
+    public List<ASCStockItem> getStockItems() {
+        List<ASCStockItem> items = new ArrayList<>(rowCount);
+        Map<Integer, String> strings = new HashMap<>();
+        for (int row = 0; row < rowCount; row++) {
+            items.add(createStockItem(row, strings));
+        }
+        return items;
+    }
+
+    // Helper method to build the stock item of a row, reusing strings already decoded
+    private ASCStockItem createStockItem(int row, Map<Integer, String> strings) {
+        return new ASCStockItem(getString(getColumn(row, CODE_COLUMN), strings),
+                getString(getColumn(row, TITLE_COLUMN), strings),
+                getString(getColumn(row, DESCRIPTION_COLUMN), strings),
+                getColumn(row, POUNDS_COLUMN), getColumn(row, PENCE_COLUMN), getColumn(row, QUANTITY_COLUMN));
+    }
+
+    // Helper method to read a fixed-width column of a row
+    private int getColumn(int row, int column) {
+        return buffer.getInt(columnsOffset + (row * COLUMN_COUNT + column) * Integer.BYTES);
+    }
+
+    // Helper method to decode a length-prefixed string once per offset
+    private String getString(int offset, Map<Integer, String> strings) {
+        return strings.computeIfAbsent(offset, key -> {
+            byte[] bytes = new byte[buffer.getInt(stringsOffset + offset)];
+            buffer.get(stringsOffset + offset + Integer.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        });
+    }
+
+    // Helper method to compare a stored string with encoded bytes without decoding it
+    private boolean stringEquals(int offset, byte[] bytes) {
+        int position = stringsOffset + offset;
+        if (buffer.getInt(position) != bytes.length) {
+            return false;
+        }
+        position += Integer.BYTES;
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Helper method to hash an encoded product code for the index
+    private static int hash(byte[] code) {
+        int hash = Arrays.hashCode(code);
+        return hash ^ (hash >>> 16);
+    }
+
+    // Helper method to checksum everything after the header
+    private static long checksum(ByteBuffer snapshot) {
+        CRC32C crc = new CRC32C();
+        crc.update(snapshot.duplicate().limit(snapshot.capacity()).position(HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    // Helper method to append a string to the string section once and return its offset
+    private static int writeString(String value, Map<String, Integer> stringOffsets, DataOutputStream strings)
+            throws IOException {
+        Integer offset = stringOffsets.get(value);
+        if (offset == null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            offset = strings.size();
+            strings.writeInt(bytes.length);
+            strings.write(bytes);
+            stringOffsets.put(value, offset);
+        }
+        return offset;
+    }
+}
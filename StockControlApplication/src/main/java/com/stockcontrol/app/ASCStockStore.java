@@ -0,0 +1,62 @@
+package com.stockcontrol.app;
+
+import java.util.List;
+
+/**
+ * A list of stock items that can also look items up by product code without
+ * scanning. When several items share a product code, lookups return the first
+ * one, matching the behaviour of a front-to-back search.
+ * <p>
+ * Implementations allow lookups and quantity updates on the items they hand
+ * out from any number of threads without locking. Changes to the list itself
+ * are synchronized on the store, so holding its monitor gives a consistent
+ * view for copying or iterating.
+ */
+public interface ASCStockStore extends List<ASCStockItem> {
+
+    /**
+     * Finds the stock item with the given product code.
+     *
+     * @param productCode The product code to look up.
+     * @return The stock item, or null if no item has the product code.
+     */
+    ASCStockItem findByProductCode(String productCode);
+
+    /**
+     * Finds the position in the store of the stock item with the given
+     * product code.
+     *
+     * @param productCode The product code to look up.
+     * @return The index of the stock item, or -1 if no item has the product
+     * code.
+     */
+    int indexOfProductCode(String productCode);
+
+    /**
+     * Checks whether an item with the given product code is in the store.
+     *
+     * @param productCode The product code to look up.
+     * @return True if an item with the product code is in the store.
+     */
+    default boolean containsProductCode(String productCode) {
+        return findByProductCode(productCode) != null;
+    }
+
+    /**
+     * Adds a stock item unless an item with its product code is already in
+     * the store. The check and the add are made atomically, so of several
+     * threads adding the same product code only one succeeds.
+     *
+     * @param item The stock item to add.
+     * @return True if the item was added, false if its product code was
+     * already in the store.
+     */
+    default boolean addIfAbsent(ASCStockItem item) {
+        synchronized (this) {
+            if (containsProductCode(item.getProductCode())) {
+                return false;
+            }
+            return add(item);
+        }
+    }
+}
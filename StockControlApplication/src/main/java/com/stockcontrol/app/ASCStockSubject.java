@@ -2,19 +2,65 @@ package com.stockcontrol.app;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Subject class responsible for managing and notifying observers about changes
  * in the stock.
+ * <p>
+ * By default observers are notified on the thread that changed the stock. Once
+ * asynchronous dispatch is enabled, notifications are placed in a bounded,
+ * lock-free ring buffer and delivered by dedicated consumer threads, so a slow
+ * observer no longer holds up the sale that triggered it. A consumer with
+ * nothing to deliver spins briefly and then parks until a publisher wakes it.
+ * Observers may be added or removed at any time, including while a
+ * notification is being delivered.
  */
 public class ASCStockSubject {
 
-    private static ASCStockSubject instance;
-    private List<ASCStockObserver> observers;
+    /**
+     * Policies deciding what a publisher does when the event buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait until a consumer frees a slot. No event is lost.
+         */
+        BLOCK,
+        /**
+         * Discard the oldest queued event to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Once the buffer is full, merge an update for a product that already
+         * has an event waiting into that event, since observers read the
+         * item's current state when the event is delivered. If the buffer is
+         * full of other products, the publisher waits. While the buffer has
+         * room every event is queued, so publishing costs no more than with
+         * {@link #BLOCK}.
+         */
+        COALESCE_PER_PRODUCT
+    }
+
+    private static final int SPINS_BEFORE_YIELD = 100;
+    private static final int YIELDS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final List<ASCStockObserver> observers;
+    private volatile Dispatcher dispatcher;
 
     // Private constructor to enforce singleton pattern
     private ASCStockSubject() {
-        observers = new ArrayList<>();
+        observers = new CopyOnWriteArrayList<>();
+    }
+
+    // Holder class so the singleton is created lazily and safely published
+    private static class InstanceHolder {
+
+        private static final ASCStockSubject INSTANCE = new ASCStockSubject();
     }
 
     /**
@@ -23,10 +69,7 @@ public class ASCStockSubject {
      * @return The ASCStockSubject instance.
      */
     public static ASCStockSubject getInstance() {
-        if (instance == null) {
-            instance = new ASCStockSubject();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
 
     /**
@@ -48,13 +91,18 @@ public class ASCStockSubject {
     }
 
     /**
-     * Notifies all observers about an updated stock item.
+     * Notifies all observers about an updated stock item. When asynchronous
+     * dispatch is enabled the notification is queued and this method returns
+     * without waiting for the observers.
      *
      * @param updatedItem The updated stock item.
      */
     public void notifyObservers(ASCStockItem updatedItem) {
-        for (ASCStockObserver observer : observers) {
-            observer.updateStockLevel(updatedItem);
+        Dispatcher current = dispatcher;
+        if (current == null) {
+            deliver(updatedItem);
+        } else {
+            current.publish(updatedItem);
         }
     }
 
@@ -66,4 +114,265 @@ public class ASCStockSubject {
     public List<ASCStockObserver> getObservers() {
         return new ArrayList<>(observers);
     }
+
+    /**
+     * Switches to asynchronous dispatch. Any previous asynchronous dispatcher
+     * is drained and stopped first.
+     *
+     * @param capacity The number of events the buffer can hold, rounded up to
+     * a power of two.
+     * @param consumerThreads The number of threads delivering events.
+     * @param overflowPolicy What publishers do when the buffer is full.
+     */
+    public synchronized void enableAsyncDispatch(int capacity, int consumerThreads, OverflowPolicy overflowPolicy) {
+        if (consumerThreads <= 0) {
+            throw new IllegalArgumentException("At least one consumer thread is required");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("The overflow policy must not be null");
+        }
+        Dispatcher replacement = new Dispatcher(capacity, consumerThreads, overflowPolicy);
+        disableAsyncDispatch();
+        replacement.start();
+        dispatcher = replacement;
+    }
+
+    /**
+     * Switches back to synchronous dispatch. Events already queued are
+     * delivered before this method returns.
+     */
+    public synchronized void disableAsyncDispatch() {
+        Dispatcher current = dispatcher;
+        if (current != null) {
+            dispatcher = null;
+            current.stop();
+        }
+    }
+
+    /**
+     * Checks whether notifications are delivered by consumer threads.
+     *
+     * @return True if asynchronous dispatch is enabled.
+     */
+    public boolean isAsyncDispatchEnabled() {
+        return dispatcher != null;
+    }
+
+    /**
+     * Waits until every event queued before the call has been delivered or
+     * discarded. Returns immediately when dispatch is synchronous.
+     *
+     * @param timeoutMillis The maximum time to wait in milliseconds.
+     * @return True if the queued events were handled within the timeout.
+     */
+    public boolean awaitDelivery(long timeoutMillis) {
+        Dispatcher current = dispatcher;
+        return current == null || current.awaitDelivery(timeoutMillis);
+    }
+
+    /**
+     * Gets the number of events discarded by the
+     * {@link OverflowPolicy#DROP_OLDEST} policy since asynchronous dispatch was
+     * last enabled.
+     *
+     * @return The number of dropped events.
+     */
+    public long getDroppedEventCount() {
+        Dispatcher current = dispatcher;
+        return current == null ? 0 : current.droppedEvents.get();
+    }
+
+    /**
+     * Gets the number of events merged into an already queued event by the
+     * {@link OverflowPolicy#COALESCE_PER_PRODUCT} policy since asynchronous
+     * dispatch was last enabled.
+     *
+     * @return The number of coalesced events.
+     */
+    public long getCoalescedEventCount() {
+        Dispatcher current = dispatcher;
+        return current == null ? 0 : current.coalescedEvents.get();
+    }
+
+    // Helper method to pass an updated item to every observer, timing the delivery
+    private void deliver(ASCStockItem updatedItem) {
+        long start = System.nanoTime();
+        try {
+            for (ASCStockObserver observer : observers) {
+                observer.updateStockLevel(updatedItem);
+            }
+        } finally {
+            ASCStockMetrics.getInstance().recordSince(ASCStockMetrics.Operation.OBSERVER_DISPATCH, start);
+        }
+    }
+
+    // Helper method to wait a little longer on each unsuccessful attempt
+    private static void backOff(int attempt) {
+        if (attempt < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+        } else if (attempt < SPINS_BEFORE_YIELD + YIELDS_BEFORE_PARK) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * Owns the ring buffer and the consumer threads of one period of
+     * asynchronous dispatch.
+     */
+    private final class Dispatcher {
+
+        private final ASCStockEventBuffer buffer;
+        private final OverflowPolicy overflowPolicy;
+        private final Thread[] consumers;
+        private final AtomicLong publishedEvents = new AtomicLong();
+        private final AtomicLong handledEvents = new AtomicLong();
+        private final AtomicLong droppedEvents = new AtomicLong();
+        private final AtomicLong coalescedEvents = new AtomicLong();
+        private final AtomicInteger idleConsumers = new AtomicInteger();
+        private volatile boolean running = true;
+
+        Dispatcher(int capacity, int consumerThreads, OverflowPolicy overflowPolicy) {
+            this.buffer = new ASCStockEventBuffer(capacity);
+            this.overflowPolicy = overflowPolicy;
+            this.consumers = new Thread[consumerThreads];
+            for (int i = 0; i < consumerThreads; i++) {
+                consumers[i] = new Thread(this::consume, "ASC-stock-events-" + i);
+                consumers[i].setDaemon(true);
+            }
+        }
+
+        void start() {
+            for (Thread consumer : consumers) {
+                consumer.start();
+            }
+        }
+
+        void publish(ASCStockItem updatedItem) {
+            int attempt = 0;
+            while (running) {
+                if (buffer.offer(updatedItem)) {
+                    publishedEvents.incrementAndGet();
+                    if (running) {
+                        wakeConsumers();
+                    } else {
+                        // The consumers may already have exited, so hand over the event here
+                        drain();
+                    }
+                    return;
+                }
+                if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    ASCStockItem oldest = buffer.poll();
+                    if (oldest != null) {
+                        droppedEvents.incrementAndGet();
+                        handledEvents.incrementAndGet();
+                    }
+                } else if (overflowPolicy == OverflowPolicy.COALESCE_PER_PRODUCT
+                        && buffer.containsProduct(updatedItem.getProductCode())) {
+                    coalescedEvents.incrementAndGet();
+                    return;
+                } else {
+                    backOff(attempt++);
+                }
+            }
+            // Dispatch was switched off while waiting, so deliver on this thread
+            deliver(updatedItem);
+        }
+
+        void stop() {
+            running = false;
+            for (Thread consumer : consumers) {
+                LockSupport.unpark(consumer);
+            }
+            boolean interrupted = false;
+            for (Thread consumer : consumers) {
+                while (consumer.isAlive()) {
+                    try {
+                        consumer.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            drain();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        boolean awaitDelivery(long timeoutMillis) {
+            long target = publishedEvents.get();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            int attempt = 0;
+            while (handledEvents.get() < target) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                backOff(attempt++);
+            }
+            return true;
+        }
+
+        // Helper method run by each consumer thread
+        private void consume() {
+            int attempt = 0;
+            while (true) {
+                ASCStockItem updatedItem = buffer.poll();
+                if (updatedItem != null) {
+                    handle(updatedItem);
+                    attempt = 0;
+                } else if (!running) {
+                    return;
+                } else if (attempt < SPINS_BEFORE_YIELD + YIELDS_BEFORE_PARK) {
+                    backOff(attempt++);
+                } else {
+                    awaitEvent();
+                }
+            }
+        }
+
+        // Helper method to park an idle consumer until a publisher or stop wakes it
+        private void awaitEvent() {
+            idleConsumers.incrementAndGet();
+            try {
+                // Checked after counting this consumer as idle, so a publisher
+                // either sees the count and wakes it or its event is seen here
+                if (running && buffer.isEmpty()) {
+                    LockSupport.park(this);
+                }
+            } finally {
+                idleConsumers.decrementAndGet();
+            }
+        }
+
+        // Helper method to wake the parked consumers after an event is published
+        private void wakeConsumers() {
+            if (idleConsumers.get() > 0) {
+                for (Thread consumer : consumers) {
+                    LockSupport.unpark(consumer);
+                }
+            }
+        }
+
+        // Helper method to deliver every event left in the buffer on the calling thread
+        private void drain() {
+            ASCStockItem updatedItem;
+            while ((updatedItem = buffer.poll()) != null) {
+                handle(updatedItem);
+            }
+        }
+
+        // Helper method to deliver one event without letting an observer failure stop the caller
+        private void handle(ASCStockItem updatedItem) {
+            try {
+                deliver(updatedItem);
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            } finally {
+                handledEvents.incrementAndGet();
+            }
+        }
+    }
 }
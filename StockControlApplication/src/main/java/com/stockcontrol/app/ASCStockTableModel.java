@@ -0,0 +1,202 @@
+package com.stockcontrol.app;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A table model that reads the stock straight from a stock store instead of
+ * copying it into rows, so the table only touches the rows it paints. Changes
+ * are reported row by row: an updated item repaints its own row, items added
+ * to the store are announced as inserted rows, and emptying the store
+ * announces every row as deleted.
+ * <p>
+ * The model can instead show a list of matching items, such as search
+ * results, in place of the whole store. The rows of the list are indexed by
+ * product code when the first change arrives under that filter, so each later
+ * change still repaints only its own row.
+ * <p>
+ * The model may be told about changes from any thread; the table events are
+ * always fired on the event dispatch thread.
+ */
+public class ASCStockTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 4170583226711903467L;
+    private static final String[] COLUMN_NAMES = {"Product Code", "Product Title", "Product Description",
+        "Unit Price (Pounds)", "Unit Price (ُPence)", "Quantity in Stock"};
+    private static final Class<?>[] COLUMN_CLASSES = {String.class, String.class, String.class, Integer.class,
+        Integer.class, Integer.class};
+
+    private final transient ASCStockStore stockItems;
+
+    // Confined to the event dispatch thread
+    private int rowCount;
+    private transient List<ASCStockItem> filteredItems;
+    private transient Map<String, Integer> filteredRows;
+
+    /**
+     * Constructor for ASCStockTableModel class.
+     *
+     * @param stockItems The stock store to show.
+     */
+    public ASCStockTableModel(ASCStockStore stockItems) {
+        this.stockItems = stockItems;
+        this.rowCount = stockItems.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        ASCStockItem item;
+        if (filteredItems != null) {
+            item = filteredItems.get(row);
+        } else {
+            synchronized (stockItems) {
+                // The store may have shrunk before the deletion event reached the table
+                if (row >= stockItems.size()) {
+                    return null;
+                }
+                item = stockItems.get(row);
+            }
+        }
+        switch (column) {
+            case 0:
+                return item.getProductCode();
+            case 1:
+                return item.getProductTitle();
+            case 2:
+                return item.getProductDescription();
+            case 3:
+                return item.getUnitPricePounds();
+            case 4:
+                return item.getUnitPricePence();
+            case 5:
+                return item.getQuantityInStock();
+            default:
+                throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+    }
+
+    /**
+     * Shows only the given stock items, in order, or the whole store again.
+     * Must be called on the event dispatch thread.
+     *
+     * @param items The stock items to show, or null to show the store.
+     */
+    public void setFilter(List<ASCStockItem> items) {
+        filteredItems = items;
+        filteredRows = null;
+        rowCount = items == null ? stockItems.size() : items.size();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Checks whether the model is showing a list of items rather than the
+     * whole store.
+     *
+     * @return True if a filter is set.
+     */
+    public boolean isFiltered() {
+        return filteredItems != null;
+    }
+
+    /**
+     * Reports that a stock item changed or was added. Repaints the item's
+     * row, or announces the new rows if the store has grown. While a filter
+     * is set, only the item's row is repainted, if it is shown, and added
+     * items are left out.
+     *
+     * @param item The changed stock item.
+     */
+    public void stockItemChanged(ASCStockItem item) {
+        runOnEventDispatchThread(() -> {
+            if (filteredItems != null) {
+                int row = indexOfFilteredItem(item);
+                if (row >= 0) {
+                    fireTableRowsUpdated(row, row);
+                }
+                return;
+            }
+            int row = stockItems.indexOfProductCode(item.getProductCode());
+            if (row >= 0 && row < rowCount) {
+                fireTableRowsUpdated(row, row);
+            } else {
+                syncRowCount();
+            }
+        });
+    }
+
+    /**
+     * Brings the row count in line with the store, announcing added rows as
+     * inserted and removed rows as deleted when it can tell which they were,
+     * or otherwise refreshing the whole table.
+     */
+    public void refresh() {
+        runOnEventDispatchThread(this::syncRowCount);
+    }
+
+    // Helper method to fire the events that bring the table in line with the store's size
+    private void syncRowCount() {
+        if (filteredItems != null) {
+            return;
+        }
+        int newRowCount = stockItems.size();
+        if (newRowCount > rowCount) {
+            int firstRow = rowCount;
+            rowCount = newRowCount;
+            fireTableRowsInserted(firstRow, newRowCount - 1);
+        } else if (newRowCount < rowCount) {
+            int lastRow = rowCount - 1;
+            rowCount = newRowCount;
+            if (newRowCount == 0) {
+                fireTableRowsDeleted(0, lastRow);
+            } else {
+                // Removed rows may have been anywhere, shifting those after them
+                fireTableDataChanged();
+            }
+        }
+    }
+
+    // Helper method to find an item's row among the filtered items, indexing them on first use
+    private int indexOfFilteredItem(ASCStockItem item) {
+        if (filteredRows == null) {
+            filteredRows = new HashMap<>(filteredItems.size() * 4 / 3 + 1);
+            int row = 0;
+            for (ASCStockItem filteredItem : filteredItems) {
+                filteredRows.putIfAbsent(filteredItem.getProductCode(), row++);
+            }
+        }
+        Integer row = filteredRows.get(item.getProductCode());
+        return row == null ? -1 : row;
+    }
+
+    // Helper method to run table updates on the event dispatch thread
+    private static void runOnEventDispatchThread(Runnable update) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            update.run();
+        } else {
+            SwingUtilities.invokeLater(update);
+        }
+    }
+}
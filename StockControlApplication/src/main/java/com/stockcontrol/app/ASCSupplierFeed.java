@@ -0,0 +1,59 @@
+package com.stockcontrol.app;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A supplier's stock feed: how to parse the supplier's catalog, how to map a
+ * supplier item to an ASC product code, and how to adapt it to an
+ * ASCStockItem. Feeds are registered with ASCStockManager and loaded in
+ * parallel by ASCSupplierFeedLoader, so implementations must not depend on
+ * other feeds having been loaded.
+ *
+ * @param <T> The supplier's own stock item type.
+ */
+public interface ASCSupplierFeed<T> {
+
+    /**
+     * Gets the name of the supplier, used in messages.
+     *
+     * @return The supplier name.
+     */
+    String getSupplierName();
+
+    /**
+     * Gets the file the supplier's catalog is parsed from, so that a stock
+     * snapshot older than the catalog is not used in its place. Feeds without
+     * a single catalog file return null, and the stock is then always parsed.
+     *
+     * @return The catalog file, or null.
+     */
+    default Path getSourceFile() {
+        return null;
+    }
+
+    /**
+     * Parses the supplier's catalog.
+     *
+     * @return The supplier's stock items in catalog order.
+     */
+    List<T> parse();
+
+    /**
+     * Maps a supplier item to the product code it has in the ASC stock.
+     *
+     * @param supplierItem The supplier item.
+     * @return The ASC product code.
+     */
+    String getASCProductCode(T supplierItem);
+
+    /**
+     * Adapts a supplier item to an ASCStockItem.
+     *
+     * @param supplierItem The supplier item.
+     * @param productCode The ASC product code returned by
+     * {@link #getASCProductCode}.
+     * @return The adapted stock item.
+     */
+    ASCStockItem adapt(T supplierItem, String productCode);
+}
@@ -0,0 +1,121 @@
+package com.stockcontrol.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads supplier feeds in parallel on a fork-join pool. Each feed is parsed
+ * and adapted by its own task, so loading all feeds takes about as long as the
+ * slowest one, provided the pool has a thread per feed. The adapted items are
+ * returned in feed registration order, ready to be merged into the stock in
+ * one pass.
+ */
+public class ASCSupplierFeedLoader {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor for ASCSupplierFeedLoader class that creates a fork-join
+     * pool for each load, with at least one thread per feed, and shuts it down
+     * once the load is done.
+     */
+    public ASCSupplierFeedLoader() {
+        this(null);
+    }
+
+    /**
+     * Constructor for ASCSupplierFeedLoader class.
+     *
+     * @param pool The fork-join pool the feeds are loaded on, or null to
+     * create one for each load.
+     */
+    public ASCSupplierFeedLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Starts loading the feeds in the background.
+     *
+     * @param feeds The feeds to load.
+     * @return A task whose result is the adapted items of every feed, in feed
+     * order.
+     */
+    public ForkJoinTask<List<ASCStockItem>> submit(List<? extends ASCSupplierFeed<?>> feeds) {
+        if (pool != null) {
+            return pool.submit(new LoadAllTask(feeds));
+        }
+        ForkJoinPool loadPool = createPool(feeds.size());
+        try {
+            return loadPool.submit(new LoadAllTask(feeds));
+        } finally {
+            // Queued tasks still run; the threads end once they are done
+            loadPool.shutdown();
+        }
+    }
+
+    /**
+     * Loads the feeds and waits for them all.
+     *
+     * @param feeds The feeds to load.
+     * @return The adapted items of every feed, in feed order.
+     */
+    public List<ASCStockItem> load(List<? extends ASCSupplierFeed<?>> feeds) {
+        return submit(feeds).join();
+    }
+
+    // Helper method to create a pool with a thread per feed, and at least one per processor
+    private static ForkJoinPool createPool(int feedCount) {
+        int parallelism = Math.max(feedCount, Runtime.getRuntime().availableProcessors());
+        return new ForkJoinPool(parallelism);
+    }
+
+    // Task that forks one task per feed and joins their results in order
+    private static final class LoadAllTask extends RecursiveTask<List<ASCStockItem>> {
+
+        private static final long serialVersionUID = 1L;
+        private final transient List<? extends ASCSupplierFeed<?>> feeds;
+
+        LoadAllTask(List<? extends ASCSupplierFeed<?>> feeds) {
+            this.feeds = feeds;
+        }
+
+        @Override
+        protected List<ASCStockItem> compute() {
+            List<FeedTask<?>> tasks = new ArrayList<>(feeds.size());
+            for (ASCSupplierFeed<?> feed : feeds) {
+                tasks.add(new FeedTask<>(feed));
+            }
+            invokeAll(tasks);
+
+            List<ASCStockItem> items = new ArrayList<>();
+            for (FeedTask<?> task : tasks) {
+                items.addAll(task.join());
+            }
+            return items;
+        }
+    }
+
+    // Task that parses one feed and adapts its items
+    private static final class FeedTask<T> extends RecursiveTask<List<ASCStockItem>> {
+
+        private static final long serialVersionUID = 1L;
+        private final transient ASCSupplierFeed<T> feed;
+
+        FeedTask(ASCSupplierFeed<T> feed) {
+            this.feed = feed;
+        }
+
+        @Override
+        protected List<ASCStockItem> compute() {
+            List<T> supplierItems = feed.parse();
+            List<ASCStockItem> items = new ArrayList<>(supplierItems.size());
+            for (T supplierItem : supplierItems) {
+                items.add(feed.adapt(supplierItem, feed.getASCProductCode(supplierItem)));
+            }
+            return items;
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package com.stockcontrol.app;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import javax.swing.JOptionPane;
 
 /**
  * Represents a Mengda's Sportymart stock item.
@@ -22,6 +20,7 @@ public class MSMStockItem
 	private final String nameAndDescription;
 	private final int unitPrice;
 	private int quantityInStock;
+	private String name;
 
 	/**
 	 * Constructor
@@ -72,7 +71,12 @@ public class MSMStockItem
 	 */
 	public String getName()
 	{
-		return nameAndDescription.substring(0, 59).replaceAll("\u00a0", "").stripTrailing();
+		// Worked out on first use and kept, as the name never changes
+		if (name == null)
+		{
+			name = nameAndDescription.substring(0, 59).replace("\u00a0", "").stripTrailing();
+		}
+		return name;
 	}
 
 	/**
@@ -139,34 +143,48 @@ public class MSMStockItem
 	 */
 	public static List<MSMStockItem> loadStock()
 	{
-		final List<MSMStockItem> loadedStock = new ArrayList<>();
+		return loadStock(Paths.get("src/main/resources/MengdasSportyMart.csv"));
+	}
 
-		String csvFilePath = "src/main/resources/MengdasSportyMart.csv";
+	/**
+	 * Load a collection of MSMStockItems from the given CSV file into a list
+	 * 
+	 * @param csvFile the catalog CSV file.
+	 * @return a list of the Mengda's Sportymart stock items.
+	 * @since 1.0
+	 */
+	public static List<MSMStockItem> loadStock(Path csvFile)
+	{
+		final List<MSMStockItem> loadedStock = new ArrayList<>();
 
-		try (BufferedReader reader = new BufferedReader(new FileReader(csvFilePath,StandardCharsets.UTF_8)))
+		try
 		{
-			String line;
-			while ((line = reader.readLine()) != null)
+			ASCMappedCsvParser.parseFile(csvFile, row ->
 			{
-				String[] data = line.split(",");
-
-				// Extracting data from CSV
-				int productDepartmentID = Integer.parseInt(data[0].replaceAll("\\D", ""));
-				String productCode = data[1];
-				String productNameAndDescription = data[2];
-				int unitPrice = Integer.parseInt(data[3]);
-				int quantityInStock = Integer.parseInt(data[4]);
-
-				// Creating MSMStockItem object and adding to the list
-				MSMStockItem stockItem = new MSMStockItem(productDepartmentID, productCode,
-						productNameAndDescription, unitPrice, quantityInStock);
-				loadedStock.add(stockItem);
-			}
+				try
+				{
+					// Extracting data from CSV; the department ID is read from its
+					// digits only, as the first field may carry a byte order mark
+					int productDepartmentID = row.getInt(0);
+					String productCode = row.getString(1);
+					String productNameAndDescription = row.getString(2);
+					int unitPrice = row.getInt(3);
+					int quantityInStock = row.getInt(4);
+
+					// Creating MSMStockItem object and adding to the list
+					MSMStockItem stockItem = new MSMStockItem(productDepartmentID, productCode,
+							productNameAndDescription, unitPrice, quantityInStock);
+					loadedStock.add(stockItem);
+				}
+				catch (ArrayIndexOutOfBoundsException | NumberFormatException e)
+				{
+					// Skip malformed rows rather than losing the rest of the file
+				}
+			});
 		}
-		catch (IOException | ArrayIndexOutOfBoundsException | NumberFormatException e)
+		catch (IOException e)
 		{
-			JOptionPane.showMessageDialog(null, "Error reading CSV file. Please check the file path.", "Error",
-					JOptionPane.ERROR_MESSAGE);
+			ASCErrorReporter.showError("Error reading CSV file. Please check the file path.");
 		}
 
 		return loadedStock;
@@ -0,0 +1,38 @@
+package com.stockcontrol.app;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * The supplier feed for Mengda's Sports Mart (MSM).
+ */
+public class MSMSupplierFeed implements ASCSupplierFeed<MSMStockItem> {
+
+    private static final String CATALOG_FILE_PATH = "src/main/resources/MengdasSportyMart.csv";
+
+    @Override
+    public String getSupplierName() {
+        return "Mengda's Sports Mart";
+    }
+
+    @Override
+    public Path getSourceFile() {
+        return Paths.get(CATALOG_FILE_PATH);
+    }
+
+    @Override
+    public List<MSMStockItem> parse() {
+        return MSMStockItem.loadStock();
+    }
+
+    @Override
+    public String getASCProductCode(MSMStockItem supplierItem) {
+        return MSMToASCStockItemAdapter.getASCProductCode(supplierItem);
+    }
+
+    @Override
+    public ASCStockItem adapt(MSMStockItem supplierItem, String productCode) {
+        return new MSMToASCStockItemAdapter(supplierItem, productCode);
+    }
+}
@@ -1,10 +1,17 @@
 package com.stockcontrol.app;
 
 /**
- * Adapter class to convert an MSMStockItem to an ASCStockItem.
+ * Adapter class to convert an MSMStockItem to an ASCStockItem. The ASC product
+ * code, title and description are worked out once, when the adapter is
+ * created, so an adapted item is read exactly like a native ASCStockItem.
  */
 public class MSMToASCStockItemAdapter extends ASCStockItem {
 
+    // ASC department prefixes indexed by MSM department ID
+    private static final String[] DEPARTMENT_CODES = {null, "RUN", "SWM", "CYC"};
+    // ASC department prefix for MSM department IDs with no ASC department
+    private static final String UNKNOWN_DEPARTMENT_CODE = "UNK";
+
     private final MSMStockItem msmStockItem;
 
     /**
@@ -13,7 +20,18 @@ public class MSMToASCStockItemAdapter extends ASCStockItem {
      * @param msmStockItem The MSMStockItem to be adapted.
      */
     public MSMToASCStockItemAdapter(MSMStockItem msmStockItem) {
-        super(msmStockItem.getCode(), msmStockItem.getName(), msmStockItem.getDescription(),
+        this(msmStockItem, getASCProductCode(msmStockItem));
+    }
+
+    /**
+     * Constructor for the adapter when the ASC product code has already been
+     * worked out.
+     *
+     * @param msmStockItem The MSMStockItem to be adapted.
+     * @param productCode The ASC product code of the item.
+     */
+    MSMToASCStockItemAdapter(MSMStockItem msmStockItem, String productCode) {
+        super(productCode, msmStockItem.getName(), msmStockItem.getDescription(),
                 msmStockItem.getUnitPrice() / 100, msmStockItem.getUnitPrice() % 100,
                 msmStockItem.getQuantityInStock());
         // Save a reference to the original MSMStockItem
@@ -21,32 +39,30 @@ public class MSMToASCStockItemAdapter extends ASCStockItem {
     }
 
     /**
-     * Overrides the getProductCode method to adjust the code format.
+     * Gets the original MSMStockItem.
      *
+     * @return The adapted MSMStockItem.
+     */
+    public MSMStockItem getMSMStockItem() {
+        return msmStockItem;
+    }
+
+    /**
+     * Gets the ASC product code of an MSMStockItem, which is its department
+     * prefix, its code and the suffix MSM, such as RUN-234567-MSM. Items
+     * from a department with no ASC equivalent get the prefix UNK.
+     *
+     * @param msmStockItem The MSMStockItem.
      * @return The adapted product code.
      */
-    @Override
-    public String getProductCode() {
+    public static String getASCProductCode(MSMStockItem msmStockItem) {
         int id = msmStockItem.getDepartmentId();
-        String code = msmStockItem.getCode();
-        String dept = null;
-        switch (id) {
-            case 1:
-                dept = "RUN";
-                break;
-            case 2:
-                dept = "SWM";
-                break;
-            case 3:
-                dept = "CYC";
-                break;
-
-            default:
-                break;
+        String dept = id >= 0 && id < DEPARTMENT_CODES.length ? DEPARTMENT_CODES[id] : null;
+        if (dept == null) {
+            dept = UNKNOWN_DEPARTMENT_CODE;
         }
 
         // Adjusted format for ASC system
-        return dept + "-" + code + "-MSM";
+        return dept + "-" + msmStockItem.getCode() + "-MSM";
     }
-
 }
@@ -0,0 +1,121 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCColumnarStockStore.
+ */
+public class ASCColumnarStockStoreTest {
+
+    private ASCColumnarStockStore instance;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize a store with two stock items before each test
+        instance = new ASCColumnarStockStore();
+        instance.add(new ASCStockItem("RUN1234567", "Run-Tech shorts", "High-quality running shorts", 10, 0, 10));
+        instance.add(new ASCStockItem("SWM2222222", "4Oceans Goggles", "Hi-tech goggles", 25, 15, 4));
+    }
+
+    @Test
+    public void testViewsReadColumns() {
+        System.out.println("get");
+        ASCStockItem item = instance.get(1);
+        assertEquals("SWM2222222", item.getProductCode());
+        assertEquals("4Oceans Goggles", item.getProductTitle());
+        assertEquals("Hi-tech goggles", item.getProductDescription());
+        assertEquals(25, item.getUnitPricePounds());
+        assertEquals(15, item.getUnitPricePence());
+        assertEquals(4, item.getQuantityInStock());
+        assertEquals("SWM2222222-4Oceans Goggles - Hi-tech goggles - UNIT PRICE: £25.15 - QTY: 4", item.toString());
+        assertSame(item.getProductCode(), item.getProductCode());
+    }
+
+    @Test
+    public void testLookupsDuringAppends() throws InterruptedException {
+        System.out.println("findByProductCode during add");
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 50_000; i++) {
+                instance.add(new ASCStockItem("CYC" + i, "Jacket " + i, "Cycling jacket " + i, 50, 0, i));
+            }
+        });
+        AtomicInteger misses = new AtomicInteger();
+        writer.start();
+        while (writer.isAlive()) {
+            ASCStockItem item = instance.findByProductCode("SWM2222222");
+            if (item == null || !"4Oceans Goggles".equals(item.getProductTitle())) {
+                misses.incrementAndGet();
+            }
+        }
+        writer.join();
+        assertEquals(0, misses.get());
+        assertEquals("Cycling jacket 49999", instance.findByProductCode("CYC49999").getProductDescription());
+    }
+
+    @Test
+    public void testSetQuantityWritesThrough() {
+        System.out.println("setQuantityInStock");
+        instance.findByProductCode("RUN1234567").setQuantityInStock(3);
+        instance.findByProductCode("RUN1234567").setQuantityInStock(-1);
+        assertEquals(3, instance.get(0).getQuantityInStock());
+    }
+
+    @Test
+    public void testConcurrentRemoveFromStock() throws InterruptedException {
+        System.out.println("removeFromStock");
+        instance.findByProductCode("RUN1234567").setQuantityInStock(4000);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1500; i++) {
+                    instance.findByProductCode("RUN1234567").removeFromStock(1);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, instance.get(0).getQuantityInStock());
+    }
+
+    @Test
+    public void testDescriptionsAreStoredOnce() {
+        System.out.println("intern");
+        int distinctStrings = instance.getDistinctStringCount();
+        instance.add(new ASCStockItem("RUN7654321", "Run-Tech shorts", "High-quality running shorts", 12, 0, 5));
+        assertEquals(distinctStrings + 1, instance.getDistinctStringCount());
+    }
+
+    @Test
+    public void testRemoveReindexesRows() {
+        System.out.println("remove");
+        ASCStockItem removed = instance.remove(0);
+        assertEquals("RUN1234567", removed.getProductCode());
+        assertFalse(instance.containsProductCode("RUN1234567"));
+        assertEquals(4, instance.findByProductCode("SWM2222222").getQuantityInStock());
+        assertTrue(instance.remove(instance.get(0)));
+        assertNull(instance.findByProductCode("SWM2222222"));
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testManyRows() {
+        System.out.println("add");
+        instance.clear();
+        for (int i = 0; i < 10_000; i++) {
+            instance.add(new ASCStockItem("CYC" + i, "Jacket", "Cycling jacket", 50, 0, i));
+        }
+        assertEquals(10_000, instance.size());
+        assertEquals(1234, instance.findByProductCode("CYC1234").getQuantityInStock());
+        assertEquals(4321, instance.indexOfProductCode("CYC4321"));
+        assertNull(instance.findByProductCode("CYC10000"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCLatencyHistogram.
+ */
+public class ASCLatencyHistogramTest {
+
+    private ASCLatencyHistogram instance;
+
+    @BeforeEach
+    public void setUp() {
+        // Start each test with an empty histogram
+        instance = new ASCLatencyHistogram();
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        System.out.println("getValueAtPercentile");
+        assertEquals(0, instance.getCount());
+        assertEquals(0, instance.getMeanNanos());
+        assertEquals(0, instance.getP99Nanos());
+        assertEquals(0, instance.getMaxNanos());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        System.out.println("record");
+        for (int i = 0; i < 32; i++) {
+            instance.record(i);
+        }
+        instance.record(-5);
+        assertEquals(33, instance.getCount());
+        assertEquals(0, instance.getValueAtPercentile(0));
+        assertEquals(15, instance.getP50Nanos());
+        assertEquals(31, instance.getMaxNanos());
+    }
+
+    @Test
+    public void testPercentilesWithinPrecision() {
+        System.out.println("getP99Nanos");
+        for (long i = 1; i <= 100_000; i++) {
+            instance.record(i * 1000);
+        }
+        assertEquals(100_000, instance.getCount());
+        assertEquals(50_000_500, instance.getMeanNanos(), 1);
+        assertWithinPrecision(50_000_000, instance.getP50Nanos());
+        assertWithinPrecision(90_000_000, instance.getP90Nanos());
+        assertWithinPrecision(99_000_000, instance.getP99Nanos());
+        assertWithinPrecision(99_900_000, instance.getP999Nanos());
+        assertEquals(100_000_000, instance.getMaxNanos());
+        assertEquals(100_000_000, instance.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testLargestValue() {
+        System.out.println("getMaxNanos");
+        instance.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, instance.getP50Nanos());
+        assertEquals(Long.MAX_VALUE, instance.getMaxNanos());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        System.out.println("recordSince");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    instance.recordSince(System.nanoTime());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, instance.getCount());
+    }
+
+    // Helper method to check a percentile is reported within the histogram's 1/32 precision
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 32, "Expected about " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,105 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCLowStockMonitor.
+ */
+public class ASCLowStockMonitorTest {
+
+    private ASCStockItemList stockItems;
+    private ASCLowStockMonitor instance;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize a monitor over three stock items before each test
+        stockItems = new ASCStockItemList();
+        stockItems.add(new ASCStockItem("RUN1234567", "Run-Tech shorts", "High-quality running shorts", 10, 0, 10));
+        stockItems.add(new ASCStockItem("SWM2222222", "4Oceans Goggles", "Hi-tech goggles", 25, 15, 4));
+        stockItems.add(new ASCStockItem("CYC3333333", "Helmet", "Cycling helmet", 40, 0, 6));
+        instance = new ASCLowStockMonitor(stockItems, 5, 50);
+        instance.refresh();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        instance.close();
+    }
+
+    @Test
+    public void testRefresh() {
+        System.out.println("refresh");
+        assertEquals(1, instance.getLowStockCount());
+        assertEquals("SWM2222222", instance.getLowStockItems().get(0).getProductCode());
+    }
+
+    @Test
+    public void testUpdate() {
+        System.out.println("update");
+        ASCStockItem item = stockItems.findByProductCode("RUN1234567");
+        item.removeFromStock(6);
+        instance.update(item);
+        assertTrue(instance.isLow(item));
+        assertEquals(2, instance.getLowStockCount());
+
+        item.addToStock(6);
+        instance.update(item);
+        assertEquals(1, instance.getLowStockCount());
+    }
+
+    @Test
+    public void testThresholds() {
+        System.out.println("setDepartmentThreshold");
+        instance.setDepartmentThreshold("CYC", 10);
+        assertEquals(10, instance.getThreshold("CYC3333333"));
+        assertEquals(2, instance.getLowStockCount());
+
+        instance.setProductThreshold("CYC3333333", 2);
+        assertEquals(2, instance.getThreshold("CYC3333333"));
+        instance.setProductThreshold("SWM2222222", 1);
+        assertEquals(0, instance.getLowStockCount());
+        assertEquals(5, instance.getThreshold("RUN1234567"));
+    }
+
+    @Test
+    public void testAlertsAreCoalesced() throws InterruptedException {
+        System.out.println("lowStockAlert");
+        List<List<String>> alerts = new CopyOnWriteArrayList<>();
+        CountDownLatch firstAlert = new CountDownLatch(1);
+        CountDownLatch secondAlert = new CountDownLatch(2);
+        instance.addListener(lowStockItems -> {
+            List<String> codes = new ArrayList<>();
+            for (ASCStockItem item : lowStockItems) {
+                codes.add(item.getProductCode());
+            }
+            alerts.add(codes);
+            firstAlert.countDown();
+            secondAlert.countDown();
+        });
+
+        // The item that was low before the listener was added is reported first
+        assertTrue(firstAlert.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("SWM2222222"), alerts.get(0));
+
+        ASCStockItem item = stockItems.findByProductCode("RUN1234567");
+        for (int i = 0; i < 10; i++) {
+            item.removeFromStock(1);
+            instance.update(item);
+        }
+        assertTrue(secondAlert.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("RUN1234567"), alerts.get(1));
+        Thread.sleep(200);
+        assertEquals(2, alerts.size());
+        assertFalse(instance.getLowStockItems().isEmpty());
+    }
+}
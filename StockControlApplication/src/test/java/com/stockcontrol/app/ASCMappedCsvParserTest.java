@@ -0,0 +1,109 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for ASCMappedCsvParser.
+ */
+public class ASCMappedCsvParserTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testParseSkipsByteOrderMarkAndBlankLines() throws IOException {
+        System.out.println("parse");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        bytes.write("2,123456,Swim hat,1099,100\r\n\r\n1,234567,Trainers,8850,50".getBytes(StandardCharsets.UTF_8));
+        Path file = directory.resolve("feed.csv");
+        Files.write(file, bytes.toByteArray());
+
+        List<String> rows = new ArrayList<>();
+        long count = ASCMappedCsvParser.parseFile(file, row -> rows.add(row.getInt(0) + "|" + row.getString(1) + "|"
+                + row.getString(2) + "|" + row.getInt(3) + "|" + row.getInt(4)));
+
+        assertEquals(2, count);
+        assertEquals(List.of("2|123456|Swim hat|1099|100", "1|234567|Trainers|8850|50"), rows);
+    }
+
+    @Test
+    public void testInvalidUtf8IsReadAsLatin1() throws IOException {
+        System.out.println("getString");
+        Path file = directory.resolve("catalog.csv");
+        Files.write(file, new byte[]{'R', 'u', 'n', (byte) 0xA0, 'T', 'e', 'c', 'h', ',', '1', '\n'});
+
+        List<String> titles = new ArrayList<>();
+        ASCMappedCsvParser.parseFile(file, row -> titles.add(row.getString(0)));
+
+        assertEquals(List.of("Run Tech"), titles);
+    }
+
+    @Test
+    public void testGetIntAllowsPaddingAroundDigits() throws IOException {
+        System.out.println("getInt");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(" 12 ,-7,".getBytes(StandardCharsets.UTF_8));
+        bytes.write(new byte[]{(byte) 0xC2, (byte) 0xA0, '3', (byte) 0xA0, ','});
+        bytes.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '4', '\n'});
+        Path file = directory.resolve("numbers.csv");
+        Files.write(file, bytes.toByteArray());
+
+        List<Integer> values = new ArrayList<>();
+        ASCMappedCsvParser.parseFile(file, row -> {
+            for (int i = 0; i < 4; i++) {
+                values.add(row.getInt(i));
+            }
+            assertThrows(ArrayIndexOutOfBoundsException.class, () -> row.getInt(4));
+        });
+
+        assertEquals(List.of(12, -7, 3, 4), values);
+    }
+
+    @Test
+    public void testGetIntRejectsMalformedNumbers() throws IOException {
+        System.out.println("getInt malformed");
+        Path file = directory.resolve("malformed.csv");
+        Files.write(file, "10.50,1-2,12abc,x,-,1 2,--3,2147483648\n".getBytes(StandardCharsets.UTF_8));
+
+        List<Integer> fields = new ArrayList<>();
+        ASCMappedCsvParser.parseFile(file, row -> {
+            for (int i = 0; i < 8; i++) {
+                int field = i;
+                assertThrows(NumberFormatException.class, () -> row.getInt(field));
+                fields.add(field);
+            }
+        });
+
+        assertEquals(8, fields.size());
+    }
+
+    @Test
+    public void testLinesSpanningMappingWindows() throws IOException {
+        System.out.println("parse windows");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            text.append("RUN").append(i).append(",Title ").append(i).append(',').append(i).append('\n');
+        }
+        Path file = directory.resolve("windows.csv");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+
+        List<Integer> values = new ArrayList<>();
+        long count = new ASCMappedCsvParser(64).parse(file, row -> values.add(row.getInt(2)));
+
+        assertEquals(100, count);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, values.get(i));
+        }
+    }
+}
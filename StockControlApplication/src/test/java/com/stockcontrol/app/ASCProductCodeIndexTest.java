@@ -0,0 +1,107 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCProductCodeIndex.
+ */
+public class ASCProductCodeIndexTest {
+
+    private ASCProductCodeIndex instance;
+
+    @BeforeEach
+    public void setUp() {
+        // Index a small catalog, out of code order, before each test
+        instance = new ASCProductCodeIndex();
+        instance.addAll(List.of(
+                createStockItem("SWM2222222"),
+                createStockItem("RUN1234567"),
+                createStockItem("CYC-345678-MSM"),
+                createStockItem("RUN-234567-MSM"),
+                createStockItem("CYC3333333"),
+                createStockItem("RUN1000000")));
+    }
+
+    @Test
+    public void testGetTag() {
+        System.out.println("getTag");
+        assertEquals("MSM", ASCProductCodeIndex.getTag("SWM-123456-MSM"));
+        assertNull(ASCProductCodeIndex.getTag("RUN1234567"));
+        assertNull(ASCProductCodeIndex.getTag("RUN-123456"));
+        assertNull(ASCProductCodeIndex.getTag("RUN-"));
+    }
+
+    @Test
+    public void testFindByPrefix() {
+        System.out.println("findByPrefix");
+        assertEquals(List.of("RUN-234567-MSM", "RUN1000000", "RUN1234567"), codes(instance.findByPrefix("RUN")));
+        assertEquals(List.of("CYC-345678-MSM", "CYC3333333"), codes(instance.findByPrefix("CYC")));
+        assertEquals(List.of("RUN1234567"), codes(instance.findByPrefix("RUN12")));
+        assertTrue(instance.findByPrefix("TEN").isEmpty());
+        assertEquals(6, instance.findByPrefix("").size());
+    }
+
+    @Test
+    public void testFindByTag() {
+        System.out.println("findByTag");
+        assertEquals(List.of("CYC-345678-MSM", "RUN-234567-MSM"), codes(instance.findByTag("MSM")));
+        assertEquals(2, instance.findByTag("-MSM").size());
+        assertTrue(instance.findByTag("XYZ").isEmpty());
+    }
+
+    @Test
+    public void testCount() {
+        System.out.println("count");
+        assertEquals(3, instance.countByPrefix("RUN"));
+        assertEquals(1, instance.countByPrefix("RUN12"));
+        assertEquals(0, instance.countByPrefix("TEN"));
+        assertEquals(6, instance.countByPrefix(""));
+        assertEquals(2, instance.countByTag("-MSM"));
+        assertEquals(0, instance.countByTag("XYZ"));
+    }
+
+    @Test
+    public void testFindByRange() {
+        System.out.println("findByRange");
+        assertEquals(List.of("RUN1000000", "RUN1234567"), codes(instance.findByRange("RUN1000000", "RUN1234567")));
+        assertEquals(List.of("RUN1234567", "SWM2222222"), codes(instance.findByRange("RUN1000001", "SWM9999999")));
+        assertTrue(instance.findByRange("SWM3000000", "SWM9999999").isEmpty());
+        assertTrue(instance.findByRange("SWM9999999", "RUN0000000").isEmpty());
+    }
+
+    @Test
+    public void testAddKeepsCodeOrderAndFirstItem() {
+        System.out.println("add");
+        ASCStockItem first = instance.findByPrefix("SWM2222222").get(0);
+        instance.add(createStockItem("SWM2222222"));
+        instance.add(createStockItem("RUN1111111"));
+        instance.add(createStockItem("SWM-999999-MSM"));
+        instance.addAll(List.of(createStockItem("RUN1234567"), createStockItem("CYC0000001")));
+
+        assertEquals(9, instance.size());
+        assertSame(first, instance.findByPrefix("SWM2222222").get(0));
+        assertEquals(List.of("RUN-234567-MSM", "RUN1000000", "RUN1111111", "RUN1234567"),
+                codes(instance.findByPrefix("RUN")));
+        assertEquals(List.of("CYC-345678-MSM", "RUN-234567-MSM", "SWM-999999-MSM"), codes(instance.findByTag("MSM")));
+
+        instance.clear();
+        assertEquals(0, instance.size());
+        assertTrue(instance.findByTag("MSM").isEmpty());
+    }
+
+    // Helper method to create a stock item with a product code
+    private static ASCStockItem createStockItem(String productCode) {
+        return new ASCStockItem(productCode, "Title", "Description", 10, 0, 1);
+    }
+
+    // Helper method to get the product codes of stock items
+    private static List<String> codes(List<ASCStockItem> items) {
+        return items.stream().map(ASCStockItem::getProductCode).toList();
+    }
+}
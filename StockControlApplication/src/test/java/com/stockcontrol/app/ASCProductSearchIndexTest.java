@@ -0,0 +1,106 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCProductSearchIndex.
+ */
+public class ASCProductSearchIndexTest {
+
+    private ASCProductSearchIndex instance;
+
+    @BeforeEach
+    public void setUp() {
+        // Index a small catalog before each test
+        instance = new ASCProductSearchIndex();
+        instance.addAll(List.of(
+                new ASCStockItem("RUN1234567", "Run-Tech shorts", "High-quality running shorts", 10, 0, 10),
+                new ASCStockItem("SWM2222222", "4Oceans Goggles", "Hi-tech goggles", 25, 15, 4),
+                new ASCStockItem("CYC3333333", "Helmet", "Cycling helmet, shock-absorbing", 40, 0, 6),
+                new ASCStockItem("SWM-123456-MSM", "Swim shorts", "Quick-dry swimming shorts", 15, 50, 8)));
+    }
+
+    @Test
+    public void testSearchWholeWords() {
+        System.out.println("search");
+        assertEquals(4, instance.size());
+        assertEquals(List.of("RUN1234567", "SWM-123456-MSM"), codes(instance.search("shorts")));
+        assertEquals(List.of("CYC3333333"), codes(instance.search("HELMET")));
+        assertEquals(List.of("RUN1234567", "SWM2222222"), codes(instance.search("tech")));
+    }
+
+    @Test
+    public void testSearchMatchesPartWords() {
+        System.out.println("search as you type");
+        assertEquals(List.of("RUN1234567", "CYC3333333", "SWM-123456-MSM"), codes(instance.search("sh")));
+        assertEquals(4, instance.search("s").size());
+        assertEquals(List.of("SWM2222222"), codes(instance.search("ocean")));
+        assertEquals(List.of("RUN1234567", "SWM-123456-MSM"), codes(instance.search("ing shor")));
+        assertEquals(List.of("SWM-123456-MSM"), codes(instance.search("swim sh")));
+    }
+
+    @Test
+    public void testMatcherAgreesWithSearch() {
+        System.out.println("matcher");
+        ASCStockItem goggles = instance.search("goggles").get(0);
+        for (String query : List.of("goggles", "GOG hi", "tech 4oceans", "shorts", "", "goggles shorts")) {
+            assertEquals(instance.search(query).contains(goggles), ASCProductSearchIndex.matcher(query).test(goggles),
+                    query);
+        }
+    }
+
+    @Test
+    public void testSearchWithoutMatches() {
+        System.out.println("search no match");
+        assertTrue(instance.search("tennis").isEmpty());
+        assertTrue(instance.search("shorts helmet").isEmpty());
+        assertTrue(instance.search("xq").isEmpty());
+        assertEquals(4, instance.search(" - ").size());
+    }
+
+    @Test
+    public void testAddedItemsAreSearchable() {
+        System.out.println("add");
+        instance.add(new ASCStockItem("RUN7777777", "Trail shoes", "Running shoes for rough ground", 60, 0, 3));
+        assertEquals(List.of("RUN1234567", "RUN7777777"), codes(instance.search("runn")));
+
+        instance.clear();
+        assertEquals(0, instance.size());
+        assertEquals(0, instance.getWordCount());
+        assertTrue(instance.search("shorts").isEmpty());
+    }
+
+    @Test
+    public void testSearchLargeCatalog() {
+        System.out.println("search large catalog");
+        // Rare words are searched through their posting lists, common ones through bitmaps
+        ASCProductSearchIndex large = new ASCProductSearchIndex();
+        for (int i = 0; i < 2000; i++) {
+            large.add(new ASCStockItem(String.format("RUN%07d", i), i % 100 == 0 ? "Rare trainers" : "Trainers",
+                    (i % 50 == 0 ? "Special " : "") + (i % 2 == 0 ? "Even running" : "Odd running"), 10, 0, 1));
+        }
+
+        List<ASCStockItem> rareEven = large.search("rare even");
+        assertEquals(20, rareEven.size());
+        assertEquals("RUN0000100", rareEven.get(1).getProductCode());
+        assertTrue(large.search("rare odd").isEmpty());
+        assertEquals(20, large.search("runn rar").size());
+        assertEquals(20, large.search("special rare").size());
+
+        List<ASCStockItem> odd = large.search("od train");
+        assertEquals(1000, odd.size());
+        assertEquals("RUN0000001", odd.get(0).getProductCode());
+        assertEquals("RUN0001555", odd.get(777).getProductCode());
+        assertEquals("RUN0001999", odd.get(999).getProductCode());
+        assertEquals(2000, large.search("running").size());
+    }
+
+    // Helper method to get the product codes of stock items
+    private static List<String> codes(List<ASCStockItem> items) {
+        return items.stream().map(ASCStockItem::getProductCode).toList();
+    }
+}
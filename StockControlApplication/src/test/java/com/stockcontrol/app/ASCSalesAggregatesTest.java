@@ -0,0 +1,85 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCSalesAggregates.
+ */
+public class ASCSalesAggregatesTest {
+
+    private ASCSalesAggregates instance;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize aggregates with three sales over two days before each test
+        instance = new ASCSalesAggregates();
+        instance.record("2023-12-23 16:12:53", "SWM2222222", 4, 25, 15);
+        instance.record("2023-12-24 09:00:00", "SWM2222222", 1, 25, 15);
+        instance.record("2023-12-23 17:30:00", "SWM3333333", 2, 5, 0);
+    }
+
+    @Test
+    public void testGetProductSummary() {
+        System.out.println("getProductSummary");
+        ASCSalesSummary summary = instance.getProductSummary("SWM2222222");
+        assertEquals(5, summary.getUnitsSold());
+        assertEquals(12575, summary.getRevenuePence());
+        assertEquals("2023-12-24 09:00:00", summary.getLastSaleDateTime());
+        assertEquals(4L, summary.getDailyUnitsSold().get("2023-12-23"));
+        assertEquals(2515L, summary.getDailyRevenuePence().get("2023-12-24"));
+        assertNull(instance.getProductSummary("RUN1234567"));
+    }
+
+    @Test
+    public void testGetDepartmentSummary() {
+        System.out.println("getDepartmentSummary");
+        ASCSalesSummary summary = instance.getDepartmentSummary("SWM");
+        assertEquals(7, summary.getUnitsSold());
+        assertEquals(13575, summary.getRevenuePence());
+        assertEquals(6L, summary.getDailyUnitsSold().get("2023-12-23"));
+        assertNull(instance.getDepartmentSummary("CYC"));
+        assertEquals(7, instance.getTotalSummary().getUnitsSold());
+    }
+
+    @Test
+    public void testConcurrentRecords() throws InterruptedException {
+        System.out.println("record");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            String productCode = "RUN" + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    instance.record(i % 2 == 0 ? "2023-12-25 10:00:00" : "2023-12-26 10:00:00", productCode, 1, 1, 0);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        ASCSalesSummary department = instance.getDepartmentSummary("RUN");
+        assertEquals(40_000, department.getUnitsSold());
+        assertEquals(4_000_000, department.getRevenuePence());
+        assertEquals(20_000L, department.getDailyUnitsSold().get("2023-12-25"));
+        assertEquals("2023-12-26 10:00:00", department.getLastSaleDateTime());
+        assertEquals(10_000, instance.getProductSummary("RUN2").getUnitsSold());
+        assertEquals(40_007, instance.getTotalSummary().getUnitsSold());
+    }
+
+    @Test
+    public void testRebuild() {
+        System.out.println("rebuild");
+        instance.rebuild(List.of(ASCSalesItem.parseSalesItem("2023-12-23 16:12:53,RUN1234567,3,10,50")));
+        assertNull(instance.getProductSummary("SWM2222222"));
+        assertEquals(3150, instance.getDepartmentSummary("RUN").getRevenuePence());
+        assertEquals("UNITS: 3 - REVENUE: £31.50 - LAST SALE: 2023-12-23 16:12:53",
+                instance.getTotalSummary().toString());
+    }
+}
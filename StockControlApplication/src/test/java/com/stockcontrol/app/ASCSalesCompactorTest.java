@@ -0,0 +1,124 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for ASCSalesCompactor.
+ */
+public class ASCSalesCompactorTest {
+
+    @TempDir
+    Path directory;
+
+    private ASCSalesCompactor instance;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Write one sales file per second of trading, out of time order, before each test
+        append("SalesTransactions_20231223161308.csv", "2023-12-23 16:13:08,RUN6568998,30,56,77\r\n");
+        append("SalesTransactions_20231223161253.csv", "2023-12-23 16:12:53,SWM2222222,4,25,15\r\n");
+        append("SalesTransactions_20231224090000.csv", "2023-12-24 09:00:00,CYC1111111,1,50,0\n");
+        instance = new ASCSalesCompactor(directory.toString(), 0, e -> {
+        });
+    }
+
+    @Test
+    public void testCompactMergesFilesIntoDailySegments() throws IOException {
+        System.out.println("compact");
+        assertEquals(3, instance.compact());
+
+        assertTrue(Files.exists(directory.resolve("SalesTransactions_20231223.segment")));
+        assertTrue(Files.exists(directory.resolve("SalesTransactions_20231224.segment")));
+        assertFalse(Files.exists(directory.resolve("SalesTransactions_20231223161253.csv")));
+
+        ASCSalesSegment segment = ASCSalesSegment.open(directory.resolve("SalesTransactions_20231223.segment"));
+        assertEquals(2, segment.size());
+        assertEquals(2, segment.getSources().size());
+        List<ASCSalesItem> salesItems = segment.getSalesItems();
+        assertEquals("2023-12-23 16:12:53", salesItems.get(0).getDateTime());
+        assertEquals(77, salesItems.get(1).getUnitPricePence());
+
+        assertEquals(3, ASCSalesItem.loadSalesDataFromDirectory(directory.toString()).size());
+        assertEquals(0, instance.compact());
+    }
+
+    @Test
+    public void testCompactFoldsLaterFilesIntoExistingSegment() throws IOException {
+        System.out.println("compact again");
+        instance.compact();
+        append("SalesTransactions_20231223.csv", "2023-12-23 10:00:00,RUN1234567,2,10,0\n");
+
+        assertEquals(1, instance.compact());
+        List<ASCSalesItem> salesItems = ASCSalesSegment.open(
+                directory.resolve("SalesTransactions_20231223.segment")).getSalesItems();
+        assertEquals(3, salesItems.size());
+        assertEquals("RUN1234567", salesItems.get(0).getProductCode());
+    }
+
+    @Test
+    public void testReadersSkipTheCoveredPartOfRawFiles() throws IOException {
+        System.out.println("loadSalesDataFromDirectory");
+        instance.compact();
+        String record = "2023-12-23 17:00:00,RUN1234567,2,10,0\n";
+        append("SalesTransactions_20231223.csv", record);
+        instance.compact();
+        // Put the raw file back, as if compaction stopped after the swap, and append to it
+        append("SalesTransactions_20231223.csv", record + "2023-12-23 18:00:00,RUN1234567,3,10,0\n");
+
+        List<ASCSalesItem> salesItems = ASCSalesItem.loadSalesDataFromDirectory(directory.toString());
+        assertEquals(5, salesItems.size());
+        assertEquals(1, salesItems.stream().filter(item -> item.getQuantitySold() == 2).count());
+        assertEquals(1, salesItems.stream().filter(item -> item.getQuantitySold() == 3).count());
+    }
+
+    @Test
+    public void testCompactLeavesTodayAndRecentFiles() throws IOException {
+        System.out.println("compact recent");
+        String today = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        append("SalesTransactions_" + today + ".csv",
+                LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE) + " 09:00:00,CYC1111111,1,50,0\n");
+        ASCSalesCompactor waiting = new ASCSalesCompactor(directory.toString(), TimeUnit.HOURS.toMillis(1), e -> {
+        });
+        Files.setLastModifiedTime(directory.resolve("SalesTransactions_20231224090000.csv"),
+                FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1)));
+
+        assertEquals(1, waiting.compact());
+        assertTrue(Files.exists(directory.resolve("SalesTransactions_" + today + ".csv")));
+        assertTrue(Files.exists(directory.resolve("SalesTransactions_20231223161253.csv")));
+        assertEquals(4, ASCSalesItem.loadSalesDataFromDirectory(directory.toString()).size());
+    }
+
+    @Test
+    public void testMalformedLinesAreSkipped() throws IOException {
+        System.out.println("compact malformed");
+        append("SalesTransactions_20231224090000.csv", "not a sale\n2023-12-24 09:05:00,CYC1111111,x,50,0\n");
+        List<ASCSalesItem> expected = ASCSalesItem.loadSalesDataFromDirectory(directory.toString());
+
+        assertEquals(3, instance.compact());
+        assertEquals(2, instance.getSkippedRecordCount());
+        assertFalse(Files.exists(directory.resolve("SalesTransactions_20231224090000.csv")));
+        assertEquals(1, ASCSalesSegment.open(directory.resolve("SalesTransactions_20231224.segment")).size());
+        assertEquals(expected.size(), ASCSalesItem.loadSalesDataFromDirectory(directory.toString()).size());
+    }
+
+    private void append(String fileName, String text) throws IOException {
+        // Helper method to append raw text to a sales file
+        Files.writeString(directory.resolve(fileName), text, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+}
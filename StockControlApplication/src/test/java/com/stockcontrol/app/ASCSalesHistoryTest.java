@@ -0,0 +1,112 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for ASCSalesHistory.
+ */
+public class ASCSalesHistoryTest {
+
+    @TempDir
+    Path directory;
+
+    private ASCSalesHistory instance;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Write one sales file and open a history over the directory before each test
+        append("SalesTransactions_20231223.csv", "2023-12-23 16:12:53,SWM2222222,4,25,15\r\n"
+                + "2023-12-23 16:13:08,RUN6568998,30,56,77\r\n");
+        instance = new ASCSalesHistory(directory.toString());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        instance.close();
+    }
+
+    @Test
+    public void testInitialRefresh() throws IOException {
+        System.out.println("refresh");
+        assertEquals(2, instance.refresh());
+        assertEquals("SWM2222222", instance.getSalesItems().get(0).getProductCode());
+        assertEquals(30 * 56, instance.getSalesItems().get(1).getTotalPrice());
+    }
+
+    @Test
+    public void testRefreshReadsOnlyAppendedLines() throws IOException {
+        System.out.println("refresh appended");
+        instance.refresh();
+
+        append("SalesTransactions_20231223.csv", "2023-12-23 16:14:00,CYC1111111,1,50,0\n2023-12-23 16:15");
+        assertEquals(1, instance.refresh());
+        assertEquals(3, instance.getSalesItems().size());
+
+        append("SalesTransactions_20231223.csv", ":00,CYC1111111,2,50,0\n");
+        assertEquals(1, instance.refresh());
+        assertEquals(2, instance.getSalesItems().get(3).getQuantitySold());
+    }
+
+    @Test
+    public void testRefreshFindsNewAndDeletedFiles() throws IOException, InterruptedException {
+        System.out.println("refresh files");
+        instance.refresh();
+
+        append("SalesTransactions_20231224.csv", "2023-12-24 09:00:00,RUN1234567,1,10,0\n");
+        refreshUntil(() -> instance.getSalesItems().size() == 3);
+        assertEquals(3, instance.getSalesItems().size());
+
+        int resetCount = instance.getResetCount();
+        Files.delete(directory.resolve("SalesTransactions_20231223.csv"));
+        refreshUntil(() -> instance.getResetCount() != resetCount);
+        assertEquals(resetCount + 1, instance.getResetCount());
+        assertEquals(1, instance.getSalesItems().size());
+    }
+
+    @Test
+    public void testRefreshFollowsCompaction() throws IOException, InterruptedException {
+        System.out.println("refresh compacted");
+        instance.refresh();
+        append("SalesTransactions_20231224.csv", "2023-12-24 09:00:00,RUN1234567,1,10,0\n");
+        refreshUntil(() -> instance.getSalesItems().size() == 3);
+
+        int resetCount = instance.getResetCount();
+        assertEquals(2, new ASCSalesCompactor(directory.toString(), 0, e -> {
+        }).compact());
+        refreshUntil(() -> instance.getResetCount() != resetCount && instance.getSalesItems().size() == 3);
+        assertEquals(3, instance.getSalesItems().size());
+        assertEquals("SWM2222222", instance.getSalesItems().get(0).getProductCode());
+
+        append("SalesTransactions_20231224.csv", "2023-12-24 10:00:00,RUN1234567,2,10,0\n");
+        refreshUntil(() -> instance.getSalesItems().size() == 4);
+        assertEquals(4, instance.getSalesItems().size());
+    }
+
+    private void refreshUntil(BooleanSupplier condition) throws IOException, InterruptedException {
+        // Helper method to refresh until the watch service has delivered the
+        // events for a directory change, which it does asynchronously
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        instance.refresh();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            instance.refresh();
+        }
+    }
+
+    private void append(String fileName, String text) throws IOException {
+        // Helper method to append raw text to a sales file
+        Files.writeString(directory.resolve(fileName), text, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,103 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for ASCSalesIndex.
+ */
+public class ASCSalesIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private ASCSalesIndex instance;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Write a compacted day with one sale a minute, and an uncompacted day, before each test
+        List<ASCSalesItem> salesItems = new ArrayList<>();
+        for (int minute = 0; minute < 24 * 60; minute++) {
+            salesItems.add(ASCSalesItem.parseSalesItem(String.format("2023-12-23 %02d:%02d:00,RUN%07d,1,10,0",
+                    minute / 60, minute % 60, minute)));
+        }
+        Collections.shuffle(salesItems);
+        ASCSalesSegment.write(ASCSalesSegment.getSegmentFile(directory, "20231223"), salesItems,
+                Collections.emptyMap());
+        append("SalesTransactions_20231224.csv", "2023-12-24 15:30:00,SWM2222222,2,25,15\n"
+                + "2023-12-24 09:00:00,CYC1111111,1,50,0\n");
+        instance = new ASCSalesIndex(directory.toString());
+    }
+
+    @Test
+    public void testTimestamp() {
+        System.out.println("getTimestamp");
+        ASCSalesItem item = ASCSalesItem.parseSalesItem("2023-12-23 16:12:53,SWM2222222,4,25,15");
+        assertEquals(LocalDateTime.of(2023, 12, 23, 16, 12, 53).atZone(ZoneId.systemDefault()).toInstant()
+                .toEpochMilli(), item.getTimestamp());
+    }
+
+    @Test
+    public void testQueryWithinCompactedDay() throws IOException {
+        System.out.println("query");
+        List<ASCSalesItem> salesItems = instance.getSalesItems(millis(2023, 12, 23, 14, 0),
+                millis(2023, 12, 23, 15, 0));
+        assertEquals(60, salesItems.size());
+        assertEquals("2023-12-23 14:00:00", salesItems.get(0).getDateTime());
+        assertEquals("2023-12-23 14:59:00", salesItems.get(59).getDateTime());
+        assertEquals(2, instance.getPartitionCount());
+    }
+
+    @Test
+    public void testQueryAcrossDaysIsInTimeOrder() throws IOException {
+        System.out.println("query days");
+        List<ASCSalesItem> salesItems = instance.getSalesItems(millis(2023, 12, 23, 23, 58), Long.MAX_VALUE);
+        assertEquals(4, salesItems.size());
+        assertEquals("2023-12-23 23:58:00", salesItems.get(0).getDateTime());
+        assertEquals("CYC1111111", salesItems.get(2).getProductCode());
+        assertEquals("SWM2222222", salesItems.get(3).getProductCode());
+
+        assertEquals(24 * 60 + 2, instance.getSalesItems(Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertTrue(instance.getSalesItems(millis(2023, 12, 25, 0, 0), Long.MAX_VALUE).isEmpty());
+        assertTrue(instance.getSalesItems(millis(2023, 12, 24, 9, 0), millis(2023, 12, 24, 9, 0)).isEmpty());
+    }
+
+    @Test
+    public void testQuerySeesLaterFilesAndCompaction() throws IOException {
+        System.out.println("query refresh");
+        long from = millis(2023, 12, 24, 0, 0);
+        append("SalesTransactions_20231224.csv", "2023-12-24 12:00:00,RUN1234567,3,10,0\n");
+        assertEquals(3, instance.getSalesItems(from, Long.MAX_VALUE).size());
+
+        new ASCSalesCompactor(directory.toString(), 0, e -> {
+        }).compact();
+        List<ASCSalesItem> salesItems = instance.getSalesItems(from, Long.MAX_VALUE);
+        assertEquals(3, salesItems.size());
+        assertEquals(3, salesItems.get(1).getQuantitySold());
+    }
+
+    private static long millis(int year, int month, int day, int hour, int minute) {
+        // Helper method to get a local date and time in milliseconds since the epoch
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZoneId.systemDefault()).toInstant()
+                .toEpochMilli();
+    }
+
+    private void append(String fileName, String text) throws IOException {
+        // Helper method to append raw text to a sales file
+        Files.writeString(directory.resolve(fileName), text, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,106 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for ASCSalesJournal.
+ */
+public class ASCSalesJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecord() throws IOException {
+        System.out.println("record");
+        try (ASCSalesJournal journal = new ASCSalesJournal(directory.toString(),
+                ASCSalesJournal.SyncPolicy.EVERY_WRITE, 0)) {
+            journal.record("2023-12-23 16:12:53", "SWM2222222", 4, 25, 15);
+        }
+
+        List<String> lines = Files.readAllLines(directory.resolve("SalesTransactions_20231223.csv"),
+                StandardCharsets.UTF_8);
+        assertEquals(List.of("2023-12-23 16:12:53,SWM2222222,4,25,15"), lines);
+    }
+
+    @Test
+    public void testAppendAll() throws IOException {
+        System.out.println("appendAll");
+        try (ASCSalesJournal journal = new ASCSalesJournal(directory.toString(),
+                ASCSalesJournal.SyncPolicy.EVERY_WRITE, 0)) {
+            journal.appendAll(List.of(
+                    ASCSalesJournal.formatRecord("2023-12-23 16:12:53", "SWM2222222", 4, 25, 15),
+                    ASCSalesJournal.formatRecord("2023-12-23 16:12:53", "RUN1234567", 1, 10, 0)));
+        }
+
+        List<String> lines = Files.readAllLines(directory.resolve("SalesTransactions_20231223.csv"),
+                StandardCharsets.UTF_8);
+        assertEquals(List.of("2023-12-23 16:12:53,SWM2222222,4,25,15", "2023-12-23 16:12:53,RUN1234567,1,10,0"),
+                lines);
+    }
+
+    @Test
+    public void testConcurrentAppendsAreGroupCommitted() throws Exception {
+        System.out.println("concurrent append");
+        int threadCount = 8;
+        int recordsPerThread = 500;
+
+        try (ASCSalesJournal journal = new ASCSalesJournal(directory.toString(),
+                ASCSalesJournal.SyncPolicy.RECORD_COUNT, 100)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < recordsPerThread; i++) {
+                        try {
+                            journal.record("2023-12-23 16:12:53", "RUN1234567", 1, 10, 0);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        List<String> lines = Files.readAllLines(directory.resolve("SalesTransactions_20231223.csv"),
+                StandardCharsets.UTF_8);
+        assertEquals(threadCount * recordsPerThread, lines.size());
+    }
+
+    @Test
+    public void testRollsToDailyFiles() throws IOException {
+        System.out.println("daily files");
+        try (ASCSalesJournal journal = new ASCSalesJournal(directory.toString(),
+                ASCSalesJournal.SyncPolicy.INTERVAL, 10)) {
+            journal.record("2023-12-23 23:59:59", "RUN1234567", 1, 10, 0);
+            journal.record("2023-12-24 00:00:01", "RUN1234567", 2, 10, 0);
+            journal.flush();
+            assertTrue(Files.exists(directory.resolve("SalesTransactions_20231224.csv")));
+        }
+
+        assertEquals(1, Files.readAllLines(directory.resolve("SalesTransactions_20231223.csv")).size());
+        assertEquals(1, Files.readAllLines(directory.resolve("SalesTransactions_20231224.csv")).size());
+    }
+
+    @Test
+    public void testAppendAfterClose() throws IOException {
+        System.out.println("append after close");
+        ASCSalesJournal journal = new ASCSalesJournal(directory.toString(), ASCSalesJournal.SyncPolicy.EVERY_WRITE, 0);
+        journal.close();
+        assertThrows(IOException.class, () -> journal.record("2023-12-23 16:12:53", "RUN1234567", 1, 10, 0));
+    }
+}
@@ -0,0 +1,108 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCShardedStockStore.
+ */
+public class ASCShardedStockStoreTest {
+
+    private ASCShardedStockStore instance;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize a department-sharded store with one item in each department before each test
+        instance = new ASCShardedStockStore(ASCStockShardRouter.byDepartment(ASCStockShardRouter.DEFAULT_DEPARTMENTS));
+        instance.add(new ASCStockItem("SWM2222222", "4Oceans Goggles", "Hi-tech goggles", 25, 15, 4));
+        instance.add(new ASCStockItem("RUN1234567", "Run-Tech shorts", "High-quality running shorts", 10, 0, 10));
+        instance.add(new ASCStockItem("CYC3333333", "Cycling jacket", "Waterproof jacket", 50, 0, 2));
+        instance.add(new ASCStockItem("GYM4444444", "Kettlebell", "Cast iron kettlebell", 30, 0, 6));
+    }
+
+    @Test
+    public void testItemsAreRoutedByDepartment() {
+        System.out.println("add");
+        assertEquals(4, instance.getShardCount());
+        assertEquals("RUN1234567", instance.getShard(0).get(0).getProductCode());
+        assertEquals("SWM2222222", instance.getShard(1).get(0).getProductCode());
+        assertEquals("CYC3333333", instance.getShard(2).get(0).getProductCode());
+        assertEquals("GYM4444444", instance.getShard(3).get(0).getProductCode());
+        assertEquals("OTHER", instance.getRouter().getShardName(3));
+    }
+
+    @Test
+    public void testAddIfAbsent() {
+        System.out.println("addIfAbsent");
+        assertFalse(instance.addIfAbsent(new ASCStockItem("CYC3333333", "Cycling jacket", "Other jacket", 40, 0, 1)));
+        assertEquals(1, instance.getShard(2).size());
+        assertTrue(instance.addIfAbsent(new ASCStockItem("CYC5555555", "Cycling gloves", "Gloves", 15, 0, 3)));
+        assertEquals(2, instance.getShard(2).size());
+    }
+
+    @Test
+    public void testIndexesSpanShards() {
+        System.out.println("indexOfProductCode");
+        assertEquals(4, instance.size());
+        for (int i = 0; i < instance.size(); i++) {
+            ASCStockItem item = instance.get(i);
+            assertEquals(i, instance.indexOfProductCode(item.getProductCode()));
+            assertSame(item, instance.findByProductCode(item.getProductCode()));
+        }
+        assertEquals(-1, instance.indexOfProductCode("RUN0000000"));
+        assertNull(instance.findByProductCode("RUN0000000"));
+    }
+
+    @Test
+    public void testRemove() {
+        System.out.println("remove");
+        ASCStockItem removed = instance.remove(instance.indexOfProductCode("SWM2222222"));
+        assertEquals("SWM2222222", removed.getProductCode());
+        assertFalse(instance.containsProductCode("SWM2222222"));
+        assertTrue(instance.getShard(1).isEmpty());
+        assertTrue(instance.remove(instance.findByProductCode("GYM4444444")));
+        assertEquals(2, instance.size());
+        instance.clear();
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAddsToDifferentShards() throws InterruptedException {
+        System.out.println("addAll");
+        instance.clear();
+        String[] departments = ASCStockShardRouter.DEFAULT_DEPARTMENTS;
+        Thread[] threads = new Thread[departments.length];
+        for (int t = 0; t < threads.length; t++) {
+            String department = departments[t];
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    instance.addAll(List.of(new ASCStockItem(department + i, "Item", "Item", 1, 0, i)));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(6000, instance.size());
+        assertEquals(6000, instance.toArray().length);
+        assertEquals(1234, instance.findByProductCode("CYC1234").getQuantityInStock());
+    }
+
+    @Test
+    public void testHashRouting() {
+        System.out.println("byHash");
+        ASCStockShardRouter router = ASCStockShardRouter.byHash(8);
+        assertEquals(8, router.getShardCount());
+        assertEquals("SHARD3", router.getShardName(3));
+        int shard = router.getShard("RUN1234567");
+        assertTrue(shard >= 0 && shard < 8);
+        assertEquals(shard, router.getShard("RUN1234567"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCStockEventBuffer.
+ */
+public class ASCStockEventBufferTest {
+
+    @Test
+    public void testOfferAndPollInOrder() {
+        System.out.println("offer");
+        ASCStockEventBuffer instance = new ASCStockEventBuffer(3);
+        assertEquals(4, instance.capacity());
+        ASCStockItem[] items = new ASCStockItem[5];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new ASCStockItem("RUN" + i, "Shorts", "Running shorts", 10, 0, i);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertTrue(instance.offer(items[i]));
+        }
+        assertFalse(instance.offer(items[4]));
+        assertSame(items[0], instance.poll());
+        assertTrue(instance.offer(items[4]));
+        for (int i = 1; i < 5; i++) {
+            assertSame(items[i], instance.poll());
+        }
+        assertNull(instance.poll());
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testContainsProduct() {
+        System.out.println("containsProduct");
+        ASCStockEventBuffer instance = new ASCStockEventBuffer(2);
+        instance.offer(new ASCStockItem("RUN1", "Shorts", "Running shorts", 10, 0, 1));
+        instance.offer(new ASCStockItem("RUN2", "Shorts", "Running shorts", 10, 0, 2));
+        assertTrue(instance.containsProduct("RUN1"));
+        assertTrue(instance.containsProduct("RUN2"));
+        assertFalse(instance.containsProduct("RUN3"));
+
+        instance.poll();
+        assertFalse(instance.containsProduct("RUN1"));
+        assertTrue(instance.containsProduct("RUN2"));
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        System.out.println("poll");
+        ASCStockEventBuffer instance = new ASCStockEventBuffer(64);
+        ASCStockItem item = new ASCStockItem("SWM1", "Goggles", "Swimming goggles", 25, 15, 4);
+        int eventsPerProducer = 20_000;
+        AtomicInteger consumed = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < 2; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    while (!instance.offer(item)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads[t + 2] = new Thread(() -> {
+                while (consumed.get() < 2 * eventsPerProducer) {
+                    if (instance.poll() != null) {
+                        consumed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(2 * eventsPerProducer, consumed.get());
+        assertTrue(instance.isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCStockItemList.
+ */
+public class ASCStockItemListTest {
+
+    private ASCStockItemList instance;
+    private ASCStockItem runningShorts;
+    private ASCStockItem goggles;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize a list with two stock items before each test
+        runningShorts = new ASCStockItem("RUN1234567", "Shorts", "Running shorts", 10, 0, 10);
+        goggles = new ASCStockItem("SWM2222222", "Goggles", "Swimming goggles", 25, 15, 4);
+        instance = new ASCStockItemList();
+        instance.add(runningShorts);
+        instance.add(goggles);
+    }
+
+    @Test
+    public void testFindByProductCode() {
+        System.out.println("findByProductCode");
+        assertSame(goggles, instance.findByProductCode("SWM2222222"));
+        assertNull(instance.findByProductCode("CYC1111111"));
+    }
+
+    @Test
+    public void testAddIfAbsent() {
+        System.out.println("addIfAbsent");
+        assertFalse(instance.addIfAbsent(new ASCStockItem("SWM2222222", "Goggles", "Other goggles", 20, 0, 1)));
+        assertSame(goggles, instance.findByProductCode("SWM2222222"));
+        assertEquals(2, instance.size());
+        assertTrue(instance.addIfAbsent(new ASCStockItem("CYC1111111", "Jacket", "Cycling jacket", 50, 0, 2)));
+        assertEquals(3, instance.size());
+    }
+
+    @Test
+    public void testRemoveUpdatesIndex() {
+        System.out.println("remove");
+        instance.remove(goggles);
+        assertFalse(instance.containsProductCode("SWM2222222"));
+        assertTrue(instance.containsProductCode("RUN1234567"));
+    }
+
+    @Test
+    public void testDuplicateCodePromotedOnRemove() {
+        System.out.println("duplicate product code");
+        ASCStockItem duplicate = new ASCStockItem("RUN1234567", "Shorts", "Running shorts", 12, 0, 3);
+        instance.add(duplicate);
+        assertSame(runningShorts, instance.findByProductCode("RUN1234567"));
+
+        instance.remove(0);
+        assertSame(duplicate, instance.findByProductCode("RUN1234567"));
+    }
+
+    @Test
+    public void testIndexOfProductCode() {
+        System.out.println("indexOfProductCode");
+        assertEquals(1, instance.indexOfProductCode("SWM2222222"));
+        instance.add(0, new ASCStockItem("CYC1111111", "Helmet", "Cycling helmet", 40, 0, 6));
+        assertEquals(0, instance.indexOfProductCode("CYC1111111"));
+        assertEquals(2, instance.indexOfProductCode("SWM2222222"));
+        instance.remove(runningShorts);
+        assertEquals(1, instance.indexOfProductCode("SWM2222222"));
+        assertEquals(-1, instance.indexOfProductCode("RUN1234567"));
+    }
+
+    @Test
+    public void testClear() {
+        System.out.println("clear");
+        instance.clear();
+        assertNull(instance.findByProductCode("RUN1234567"));
+        assertTrue(instance.isEmpty());
+    }
+}
@@ -1,8 +1,17 @@
 package com.stockcontrol.app;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * JUnit test class for ASCStockItem.
@@ -73,6 +82,40 @@ public class ASCStockItemTest {
         assertEquals(newQuantity, instance.getQuantityInStock());
     }
 
+    @Test
+    public void testRemoveFromStock() {
+        System.out.println("removeFromStock");
+        assertTrue(instance.removeFromStock(30));
+        assertFalse(instance.removeFromStock(21));
+        assertFalse(instance.removeFromStock(0));
+        assertEquals(20, instance.getQuantityInStock());
+    }
+
+    @Test
+    public void testAddToStock() {
+        System.out.println("addToStock");
+        assertTrue(instance.addToStock(5));
+        assertFalse(instance.addToStock(0));
+        assertFalse(instance.addToStock(Integer.MAX_VALUE));
+        assertEquals(55, instance.getQuantityInStock());
+    }
+
+    @Test
+    public void testLoadStockSkipsMalformedRows(@TempDir Path directory) throws IOException {
+        System.out.println("loadStock");
+        Path csvFile = directory.resolve("catalog.csv");
+        // A price with a letter O and a row missing its fields lie between two good rows
+        Files.write(csvFile, List.of("RUN1234567,Shorts,Running shorts,10,0,10",
+                "CYC1111111,Jacket,Cycling jacket,5O,0,20", "SWM2222222,Goggles",
+                "SWM3333333,Swim hat,Swimming hat,5,99,7"), StandardCharsets.UTF_8);
+        List<ASCStockItem> loadedStock = new ArrayList<>();
+        ASCStockItem.loadStock(csvFile, loadedStock::add);
+
+        assertEquals(2, loadedStock.size());
+        assertEquals("RUN1234567", loadedStock.get(0).getProductCode());
+        assertEquals("SWM3333333", loadedStock.get(1).getProductCode());
+    }
+
     @Test
     public void testToString() {
         System.out.println("toString");
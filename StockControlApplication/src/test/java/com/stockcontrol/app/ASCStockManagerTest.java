@@ -1,9 +1,23 @@
 package com.stockcontrol.app;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * JUnit test class for ASCStockManager.
@@ -30,7 +44,9 @@ public class ASCStockManagerTest {
     }
 
     @Test
-    void sellStock() {
+    void sellStock(@TempDir Path salesDirectory) {
+        stockManager.setSalesJournal(new ASCSalesJournal(salesDirectory.toString(),
+                ASCSalesJournal.SyncPolicy.EVERY_WRITE, 0));
         // Buy an initial stock item
         ASCStockItem newItem = createTestStockItem();
         stockManager.buyStock(newItem);
@@ -50,6 +66,304 @@ public class ASCStockManagerTest {
                 "Stock quantity should decrease after selling stock");
     }
 
+    @Test
+    void salesSummaries(@TempDir Path salesDirectory) {
+        stockManager.setSalesJournal(new ASCSalesJournal(salesDirectory.toString(),
+                ASCSalesJournal.SyncPolicy.RECORD_COUNT, 1000));
+        stockManager.buyStock(createTestStockItem());
+        long unitsBefore = unitsSold(stockManager.getDepartmentSalesSummary("SWM"));
+        long productUnitsBefore = unitsSold(stockManager.getProductSalesSummary("SWM4564523"));
+
+        stockManager.sellStock("SWM4564523", 5);
+        stockManager.sellBasket(Map.of("SWM4564523", 2));
+        stockManager.shutdown();
+
+        assertEquals(productUnitsBefore + 7, unitsSold(stockManager.getProductSalesSummary("SWM4564523")));
+        assertEquals(unitsBefore + 7, unitsSold(stockManager.getDepartmentSalesSummary("SWM")));
+    }
+
+    @Test
+    void sellStockResults() {
+        stockManager.buyStock(createTestStockItem());
+
+        assertEquals(ASCSaleResult.UNKNOWN_PRODUCT, stockManager.sellStock("RUN0000000", 1));
+        assertEquals(ASCSaleResult.INVALID_QUANTITY, stockManager.sellStock("SWM4564523", 0));
+        assertEquals(ASCSaleResult.INSUFFICIENT_STOCK, stockManager.sellStock("SWM4564523", 21));
+        assertEquals(20, stockManager.findStockItem("SWM4564523").getQuantityInStock(),
+                "A refused sale should not change the stock");
+    }
+
+    @Test
+    void concurrentSellStockNeverOversells(@TempDir Path salesDirectory) throws InterruptedException {
+        stockManager.setSalesJournal(new ASCSalesJournal(salesDirectory.toString(),
+                ASCSalesJournal.SyncPolicy.RECORD_COUNT, 1000));
+        stockManager.buyStock(new ASCStockItem("RUN7777777", "Test Product", "Test Description", 10, 99, 1000));
+
+        int threadCount = 8;
+        AtomicInteger sold = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    if (stockManager.sellStock("RUN7777777", 1) == ASCSaleResult.SUCCESS) {
+                        sold.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        stockManager.shutdown();
+
+        assertEquals(1000, sold.get(), "Exactly the stock available should be sold");
+        assertEquals(0, stockManager.findStockItem("RUN7777777").getQuantityInStock());
+    }
+
+    @Test
+    void sellBasket(@TempDir Path salesDirectory) throws IOException {
+        stockManager.setSalesJournal(new ASCSalesJournal(salesDirectory.toString(),
+                ASCSalesJournal.SyncPolicy.EVERY_WRITE, 0));
+        stockManager.buyStock(createTestStockItem());
+        stockManager.buyStock(new ASCStockItem("RUN7777777", "Test Product", "Test Description", 5, 0, 3));
+
+        Map<String, Integer> basket = new LinkedHashMap<>();
+        basket.put("SWM4564523", 5);
+        basket.put("RUN7777777", 3);
+        ASCBasketResult result = stockManager.sellBasket(basket);
+        stockManager.shutdown();
+
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getLinesSold());
+        assertEquals(15, stockManager.findStockItem("SWM4564523").getQuantityInStock());
+        assertEquals(0, stockManager.findStockItem("RUN7777777").getQuantityInStock());
+        List<String> records = new ArrayList<>();
+        try (var files = Files.list(salesDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                records.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(2, records.size(), "Each basket line should be journalled");
+    }
+
+    @Test
+    void sellBasketIsAllOrNothing() {
+        stockManager.buyStock(createTestStockItem());
+        stockManager.buyStock(new ASCStockItem("RUN7777777", "Test Product", "Test Description", 5, 0, 3));
+
+        Map<String, Integer> basket = new LinkedHashMap<>();
+        basket.put("SWM4564523", 5);
+        basket.put("RUN7777777", 4);
+        ASCBasketResult result = stockManager.sellBasket(basket);
+
+        assertEquals(ASCSaleResult.INSUFFICIENT_STOCK, result.getResult());
+        assertEquals("RUN7777777", result.getFailedProductCode());
+        assertEquals(20, stockManager.findStockItem("SWM4564523").getQuantityInStock(),
+                "Lines before the refused one should be left in stock");
+        assertEquals(3, stockManager.findStockItem("RUN7777777").getQuantityInStock());
+
+        basket.put("RUN0000000", 1);
+        assertEquals(ASCSaleResult.UNKNOWN_PRODUCT, stockManager.sellBasket(basket).getResult());
+        assertEquals(ASCSaleResult.INVALID_QUANTITY, stockManager.sellBasket(Map.of("SWM4564523", 0)).getResult());
+        assertEquals(ASCSaleResult.INVALID_QUANTITY, stockManager.sellBasket(Map.of()).getResult());
+        assertEquals(20, stockManager.findStockItem("SWM4564523").getQuantityInStock());
+    }
+
+    @Test
+    void refusedBasketNeverTakesStock() {
+        // Count every removal, so a line taken and put back again would show
+        AtomicInteger removals = new AtomicInteger();
+        stockManager.buyStock(new ASCStockItem("SWM4564523", "Test Product", "Test Description", 10, 99, 1) {
+            @Override
+            public boolean removeFromStock(int quantity) {
+                removals.incrementAndGet();
+                return super.removeFromStock(quantity);
+            }
+        });
+        stockManager.buyStock(new ASCStockItem("RUN7777777", "Test Product", "Test Description", 5, 0, 1));
+
+        Map<String, Integer> basket = new LinkedHashMap<>();
+        basket.put("SWM4564523", 1);
+        basket.put("RUN7777777", 2);
+        assertEquals(ASCSaleResult.INSUFFICIENT_STOCK, stockManager.sellBasket(basket).getResult());
+        assertEquals(0, removals.get(), "A refused basket should not take stock that a sale could need");
+        assertEquals(1, stockManager.findStockItem("SWM4564523").getQuantityInStock());
+    }
+
+    @Test
+    void loadStockInBackground() throws InterruptedException, InvocationTargetException {
+        ASCStockManager deferredManager = new ASCStockManager(new ASCStockItemList(), false);
+        assertFalse(deferredManager.isStockLoaded());
+        assertEquals(0, deferredManager.getStockTableModel().getRowCount());
+
+        List<Integer> progress = new ArrayList<>();
+        Thread loader = new Thread(() -> deferredManager.loadStock(progress::add));
+        loader.start();
+        loader.join();
+        SwingUtilities.invokeAndWait(() -> {
+        });
+
+        int loadedSize = deferredManager.getStockItems().size();
+        assertTrue(deferredManager.isStockLoaded());
+        assertEquals(stockManager.getMergeReport().getAdded(), deferredManager.getMergeReport().getAdded());
+        assertEquals(loadedSize, progress.get(progress.size() - 1));
+        assertEquals(loadedSize, deferredManager.getStockTableModel().getRowCount());
+    }
+
+    @Test
+    void searchStock() {
+        ASCStockManager searchManager = new ASCStockManager(new ASCStockItemList(), false);
+        searchManager.loadStock(null);
+        ASCStockItem loadedItem = searchManager.getStockItems().get(0);
+        assertTrue(searchManager.searchStock(loadedItem.getProductTitle()).contains(loadedItem),
+                "Loaded items should be found by their title");
+
+        searchManager.buyStock(new ASCStockItem("RUN7777777", "Zyxwv trainers", "Test Description", 10, 99, 5));
+        List<ASCStockItem> results = searchManager.searchStock("zyxw");
+        assertEquals(1, results.size(), "Bought items should be searchable");
+        assertEquals("RUN7777777", results.get(0).getProductCode());
+    }
+
+    @Test
+    void findStockByCode() {
+        ASCStockManager codeManager = new ASCStockManager(new ASCStockItemList(), false);
+        codeManager.loadStock(null);
+        long msmCount = codeManager.getStockItems().stream()
+                .filter(item -> item.getProductCode().endsWith("-MSM")).count();
+        assertEquals(msmCount, codeManager.findStockByCodeTag("MSM").size(),
+                "Every MSM-sourced item should be found by its tag");
+
+        codeManager.buyStock(new ASCStockItem("CYC9999998", "Test Product", "Test Description", 10, 99, 5));
+        codeManager.buyStock(new ASCStockItem("CYC9999999", "Test Product", "Test Description", 10, 99, 5));
+        assertEquals(2, codeManager.findStockInCodeRange("CYC9999998", "CYC9999999").size());
+        List<ASCStockItem> cycling = codeManager.findStockByCodePrefix("CYC");
+        assertEquals("CYC9999999", cycling.get(cycling.size() - 1).getProductCode(),
+                "Bought items should be indexed in code order");
+    }
+
+    @Test
+    void searchStockByCode() {
+        ASCStockManager codeManager = new ASCStockManager(new ASCStockItemList(), false);
+        codeManager.loadStock(null);
+        codeManager.buyStock(new ASCStockItem("CYC9999999", "Zyxwv bell", "Test Description", 10, 99, 5));
+        codeManager.buyStock(new ASCStockItem("RUN9999999", "Zyxwv trainers", "Test Description", 10, 99, 5));
+
+        // Search results fewer than the department are checked by code
+        List<ASCStockItem> results = codeManager.searchStockByCodePrefix("zyxwv", "CYC");
+        assertEquals(1, results.size());
+        assertEquals("CYC9999999", results.get(0).getProductCode());
+        assertTrue(codeManager.searchStockByCodeTag("zyxwv", "MSM").isEmpty());
+
+        // Codes fewer than the search results are checked against the query
+        results = codeManager.searchStockByCodePrefix("zyxwv", "RUN9999999");
+        assertEquals(1, results.size());
+        assertEquals("RUN9999999", results.get(0).getProductCode());
+        assertEquals(codeManager.findStockByCodePrefix("CYC"), codeManager.searchStockByCodePrefix("", "CYC"));
+    }
+
+    @Test
+    void mergeSupplierStock() {
+        ASCStockItemList stockItems = new ASCStockItemList();
+        stockItems.add(new ASCStockItem("RUN-234567-MSM", "RunEverywhere", "Trainers", 88, 50, 50));
+        stockItems.add(new ASCStockItem("SWM-123456-MSM", "LakeTechSwimhat", "Swimhat", 10, 99, 7));
+
+        List<MSMStockItem> mengdaStockItems = List.of(
+                new MSMStockItem(1, "234567", createNameAndDescription("RunEverywhere"), 8850, 50),
+                new MSMStockItem(2, "123456", createNameAndDescription("LakeTechSwimhat"), 1099, 100),
+                new MSMStockItem(3, "345678", createNameAndDescription("Swimming shorts"), 1299, 20),
+                new MSMStockItem(3, "345678", createNameAndDescription("Swimming shorts"), 1299, 20));
+
+        ASCMergeReport report = ASCStockManager.mergeSupplierStock(stockItems, mengdaStockItems);
+
+        assertEquals(1, report.getAdded(), "New supplier items should be added");
+        assertEquals(2, report.getDuplicates(), "Identical items should be skipped as duplicates");
+        assertEquals(1, report.getConflicts(), "Items with a different quantity should be reported as conflicts");
+        assertNotNull(stockItems.findByProductCode("CYC-345678-MSM"), "Added item should be indexed");
+        assertEquals(3, stockItems.size());
+    }
+
+    private long unitsSold(ASCSalesSummary summary) {
+        // Helper method to read the units sold from a summary that may be missing
+        return summary == null ? 0 : summary.getUnitsSold();
+    }
+
+    private String createNameAndDescription(String name) {
+        // Helper method to pad a name to the fixed width used by MSM records
+        return String.format("%-60s%s", name, "Test Description");
+    }
+
+    @Test
+    void sellStockInShardedMode(@TempDir Path salesDirectory) {
+        ASCShardedStockStore store = new ASCShardedStockStore(
+                ASCStockShardRouter.byDepartment(ASCStockShardRouter.DEFAULT_DEPARTMENTS));
+        ASCStockManager shardedManager = new ASCStockManager(store, true);
+        store.clear();
+        shardedManager.setSalesJournal(new ASCSalesJournal(salesDirectory.toString(),
+                ASCSalesJournal.SyncPolicy.RECORD_COUNT, 1000));
+        shardedManager.buyStock(createTestStockItem());
+        shardedManager.buyStock(new ASCStockItem("RUN7777777", "Test Product", "Test Description", 10, 99, 5));
+
+        assertEquals(ASCSaleResult.SUCCESS, shardedManager.sellStock("SWM4564523", 5));
+        assertEquals(ASCSaleResult.INSUFFICIENT_STOCK, shardedManager.sellStock("RUN7777777", 6));
+        shardedManager.shutdown();
+
+        assertEquals(15, store.getShard(store.getShardIndex("SWM4564523")).findByProductCode("SWM4564523")
+                .getQuantityInStock(), "The sale should be made in the product's shard");
+        assertEquals(5, shardedManager.findStockItem("RUN7777777").getQuantityInStock());
+    }
+
+    @Test
+    void shardCatalogsAreAllSavedAndReloaded(@TempDir Path catalogDirectory) throws IOException {
+        Files.writeString(catalogDirectory.resolve(ASCStockManager.CATALOG_FILE_NAME),
+                "RUN1234567,Shorts,Running shorts,10,0,10\nSWM2222222,Goggles,Swimming goggles,25,15,4\n"
+                + "CYC3333333,Jacket,Cycling jacket,50,0,2\nGYM4444444,Kettlebell,Cast iron kettlebell,30,0,6\n");
+        ASCStockManager firstRun = createShardedManager(catalogDirectory);
+        firstRun.enableBackgroundPersistence(10_000);
+        for (String shardName : List.of("RUN", "SWM", "CYC", "OTHER")) {
+            assertTrue(Files.exists(catalogDirectory.resolve(
+                    String.format(ASCStockManager.SHARD_CATALOG_FILE_NAME, shardName))),
+                    "Every shard catalog should be written when sharded persistence starts");
+        }
+        List<String> productCodes = getProductCodes(firstRun);
+
+        // A restart before shutdown reads the shard catalogs in place of the ASC catalog
+        ASCStockManager restart = createShardedManager(catalogDirectory);
+        assertEquals(productCodes, getProductCodes(restart));
+
+        // A shard left without a catalog is taken from the ASC and supplier catalogs
+        Path runCatalog = catalogDirectory.resolve(String.format(ASCStockManager.SHARD_CATALOG_FILE_NAME, "RUN"));
+        Files.delete(runCatalog);
+        Files.deleteIfExists(ASCStockSnapshot.getSnapshotFile(runCatalog));
+        ASCStockManager partialRestart = createShardedManager(catalogDirectory);
+        assertEquals(productCodes, getProductCodes(partialRestart));
+        assertEquals(10, partialRestart.findStockItem("RUN1234567").getQuantityInStock());
+
+        firstRun.shutdown();
+        restart.shutdown();
+        partialRestart.shutdown();
+    }
+
+    private ASCStockManager createShardedManager(Path catalogDirectory) {
+        // Helper method to load a department-sharded manager from a catalog directory
+        ASCStockManager manager = new ASCStockManager(new ASCShardedStockStore(
+                ASCStockShardRouter.byDepartment(ASCStockShardRouter.DEFAULT_DEPARTMENTS)), false);
+        manager.setCatalogDirectory(catalogDirectory.toString());
+        manager.loadStock(null);
+        return manager;
+    }
+
+    private List<String> getProductCodes(ASCStockManager manager) {
+        // Helper method to list the product codes in stock in sorted order
+        List<String> productCodes = new ArrayList<>();
+        for (ASCStockItem item : manager.getStockItems()) {
+            productCodes.add(item.getProductCode());
+        }
+        productCodes.sort(null);
+        return productCodes;
+    }
+
     private ASCStockItem createTestStockItem() {
         // Helper method to create a test stock item
         return new ASCStockItem("SWM4564523", "Test Product", "Test Description", 10, 99, 20);
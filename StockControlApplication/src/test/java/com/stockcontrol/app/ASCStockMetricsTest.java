@@ -0,0 +1,72 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCStockMetrics.
+ */
+public class ASCStockMetricsTest {
+
+    private final ASCStockMetrics instance = ASCStockMetrics.getInstance();
+
+    @Test
+    public void testSellsAreMeasured() {
+        System.out.println("recordSince");
+        ASCStockManager stockManager = new ASCStockManager(new ASCStockItemList(), false);
+        stockManager.getStockItems().add(new ASCStockItem("RUN1234567", "Shorts", "Running shorts", 10, 0, 10));
+        long sells = instance.getHistogram(ASCStockMetrics.Operation.SELL).getCount();
+        long failedSells = instance.getFailedSellCount();
+        long dispatches = instance.getHistogram(ASCStockMetrics.Operation.OBSERVER_DISPATCH).getCount();
+
+        assertEquals(ASCSaleResult.UNKNOWN_PRODUCT, stockManager.sellStock("RUN0000000", 1));
+        assertEquals(ASCSaleResult.INSUFFICIENT_STOCK, stockManager.sellStock("RUN1234567", 11));
+        ASCStockSubject.getInstance().notifyObservers(stockManager.findStockItem("RUN1234567"));
+
+        assertEquals(sells + 2, instance.getHistogram(ASCStockMetrics.Operation.SELL).getCount());
+        assertEquals(failedSells + 2, instance.getFailedSellCount());
+        assertTrue(instance.getHistogram(ASCStockMetrics.Operation.OBSERVER_DISPATCH).getCount() > dispatches);
+        assertEquals(1, instance.getCatalogSize());
+        assertEquals(0, instance.getLowStockCount());
+        stockManager.shutdown();
+    }
+
+    @Test
+    public void testMBeans() throws JMException {
+        System.out.println("registerMBeans");
+        instance.registerMBeans();
+        instance.registerMBeans();
+        instance.getHistogram(ASCStockMetrics.Operation.BUY).record(1500);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName metricsName = new ObjectName(ASCStockMetrics.OBJECT_NAME);
+        ObjectName buyName = new ObjectName(ASCStockMetrics.OBJECT_NAME + ",name=buy");
+        assertEquals(instance.getFailedSellCount(), server.getAttribute(metricsName, "FailedSellCount"));
+        assertTrue((Long) server.getAttribute(buyName, "Count") >= 1);
+        assertTrue((Long) server.getAttribute(buyName, "MaxNanos") >= 1500);
+        assertTrue(((String) server.getAttribute(metricsName, "Report")).contains("buy: COUNT: "));
+    }
+
+    @Test
+    public void testPeriodicReport() throws InterruptedException {
+        System.out.println("startReporting");
+        CountDownLatch reports = new CountDownLatch(2);
+        instance.startReporting(10, report -> {
+            if (report.startsWith("CATALOG SIZE: ") && report.contains("observerDispatch: ")) {
+                reports.countDown();
+            }
+        });
+        try {
+            assertTrue(reports.await(5, TimeUnit.SECONDS));
+        } finally {
+            instance.stopReporting();
+        }
+    }
+}
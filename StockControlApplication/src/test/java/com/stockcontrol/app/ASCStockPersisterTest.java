@@ -0,0 +1,89 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for ASCStockPersister.
+ */
+public class ASCStockPersisterTest {
+
+    @TempDir
+    Path directory;
+
+    private Path catalog;
+    private ASCStockItemList stockItems;
+    private ASCStockPersister persister;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Write a small catalog and start a persister over it before each test
+        catalog = directory.resolve("AshersSportsCollective.csv");
+        stockItems = new ASCStockItemList();
+        stockItems.add(new ASCStockItem("RUN1234567", "Shorts", "Running shorts", 10, 0, 10));
+        stockItems.add(new ASCStockItem("SWM2222222", "Goggles", "Swimming goggles", 25, 15, 4));
+        ASCStockPersister.writeCatalog(catalog.toString(), stockItems);
+
+        persister = new ASCStockPersister(catalog.toString(), () -> stockItems, stockItems::size, 10_000, e -> {
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        persister.close();
+    }
+
+    @Test
+    public void testFlushWritesOnlyDirtyItems() throws IOException {
+        System.out.println("flush");
+        stockItems.get(0).setQuantityInStock(7);
+        persister.markDirty(stockItems.get(0));
+        persister.markDirty(stockItems.get(0));
+        persister.flush();
+
+        Path changeLog = directory.resolve("AshersSportsCollective.csv.changes");
+        assertEquals(List.of("RUN1234567,Shorts,Running shorts,10,0,7", "#COMMIT,1"),
+                Files.readAllLines(changeLog, StandardCharsets.UTF_8));
+
+        ASCStockItemList reloaded = new ASCStockItemList(List.of(
+                new ASCStockItem("RUN1234567", "Shorts", "Running shorts", 10, 0, 10)));
+        assertEquals(1, ASCStockPersister.replayChanges(catalog.toString(), reloaded));
+        assertEquals(7, reloaded.findByProductCode("RUN1234567").getQuantityInStock());
+    }
+
+    @Test
+    public void testSnapshotFoldsChangeLog() throws IOException {
+        System.out.println("snapshot");
+        stockItems.get(1).setQuantityInStock(1);
+        persister.markDirty(stockItems.get(1));
+        persister.snapshot();
+
+        assertFalse(Files.exists(directory.resolve("AshersSportsCollective.csv.changes")));
+        assertEquals("SWM2222222,Goggles,Swimming goggles,25,15,1",
+                Files.readAllLines(catalog, StandardCharsets.UTF_8).get(1));
+        ASCStockSnapshot binarySnapshot = ASCStockSnapshot.open(ASCStockSnapshot.getSnapshotFile(catalog));
+        assertEquals(1, binarySnapshot.getStockItem(binarySnapshot.indexOf("SWM2222222")).getQuantityInStock());
+    }
+
+    @Test
+    public void testIncompleteBatchIsIgnored() throws IOException {
+        System.out.println("replayChanges");
+        Path changeLog = directory.resolve("AshersSportsCollective.csv.changes");
+        Files.write(changeLog, List.of("RUN1234567,Shorts,Running shorts,10,0,3", "#COMMIT,1",
+                "SWM2222222,Goggles,Swimming goggles,25,15,0"), StandardCharsets.UTF_8, StandardOpenOption.CREATE);
+
+        assertEquals(1, ASCStockPersister.replayChanges(catalog.toString(), stockItems));
+        assertEquals(3, stockItems.findByProductCode("RUN1234567").getQuantityInStock());
+        assertEquals(4, stockItems.findByProductCode("SWM2222222").getQuantityInStock());
+    }
+}
@@ -0,0 +1,156 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for ASCStockServer.
+ */
+public class ASCStockServerTest {
+
+    private ASCStockManager stockManager;
+    private ASCStockServer instance;
+    private HttpClient client;
+
+    @TempDir
+    Path salesDirectory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Serve a small stock on a free local port before each test
+        stockManager = new ASCStockManager(new ASCStockItemList(), false);
+        stockManager.setSalesJournal(new ASCSalesJournal(salesDirectory.toString(),
+                ASCSalesJournal.SyncPolicy.EVERY_WRITE, 0));
+        stockManager.getStockItems().add(new ASCStockItem("RUN1234567", "Shorts", "Running \"fast\" shorts", 10, 0,
+                100));
+        stockManager.getStockItems().add(new ASCStockItem("SWM2222222", "Goggles", "Swimming goggles", 25, 15, 4));
+        instance = new ASCStockServer(stockManager, new InetSocketAddress("localhost", 0),
+                Executors.newFixedThreadPool(8));
+        instance.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        instance.stop(0);
+        stockManager.shutdown();
+    }
+
+    @Test
+    public void testGetStockItem() throws Exception {
+        System.out.println("getStockItem");
+        HttpResponse<String> response = send("GET", "/stock/RUN1234567", null);
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"productCode\":\"RUN1234567\",\"productTitle\":\"Shorts\","
+                + "\"productDescription\":\"Running \\\"fast\\\" shorts\",\"unitPricePounds\":10,"
+                + "\"unitPricePence\":0,\"quantityInStock\":100}", response.body());
+        assertEquals(404, send("GET", "/stock/RUN0000000", null).statusCode());
+        assertTrue(send("GET", "/stock", null).body().contains("\"productCode\":\"SWM2222222\""));
+        assertEquals(405, send("DELETE", "/stock/RUN1234567", null).statusCode());
+    }
+
+    @Test
+    public void testSellStock() throws Exception {
+        System.out.println("sellStock");
+        HttpResponse<String> response = send("POST", "/stock/SWM2222222/sell", "quantity=3");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"quantityInStock\":1"));
+        assertEquals(409, send("POST", "/stock/SWM2222222/sell", "quantity=2").statusCode());
+        assertEquals(404, send("POST", "/stock/SWM0000000/sell", "quantity=1").statusCode());
+        assertEquals(400, send("POST", "/stock/SWM2222222/sell", "quantity=0").statusCode());
+        assertEquals(400, send("POST", "/stock/SWM2222222/sell", "quantity=lots").statusCode());
+
+        response = send("GET", "/sales/summary?code=SWM2222222", null);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("{\"unitsSold\":3,\"revenuePence\":7545,"));
+    }
+
+    @Test
+    public void testBuyStock() throws Exception {
+        System.out.println("buyStock");
+        HttpResponse<String> response = send("POST", "/stock",
+                "code=CYC1111111&title=Jacket&description=Hi-vis+cycling+jacket&pounds=50&pence=0&quantity=20");
+        assertEquals(201, response.statusCode());
+        assertEquals("Hi-vis cycling jacket", stockManager.findStockItem("CYC1111111").getProductDescription());
+        assertEquals(409, send("POST", "/stock",
+                "code=CYC1111111&title=Jacket&description=Jacket&pounds=50&quantity=20").statusCode());
+        assertEquals(400, send("POST", "/stock", "code=CYC2222222&title=Jacket").statusCode());
+    }
+
+    @Test
+    public void testConcurrentBuysOfOneProduct() throws Exception {
+        System.out.println("concurrentBuys");
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            responses.add(client.sendAsync(request("POST", "/stock",
+                    "code=CYC1111111&title=Jacket&description=Jacket&pounds=50&quantity=" + i),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        int created = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            if (response.get().statusCode() == 201) {
+                created++;
+            } else {
+                assertEquals(409, response.get().statusCode());
+            }
+        }
+        assertEquals(1, created);
+        assertEquals(3, stockManager.getStockItems().size());
+        assertEquals(1, stockManager.findStockByCodePrefix("CYC").size());
+    }
+
+    @Test
+    public void testConcurrentSales() throws Exception {
+        System.out.println("concurrentSales");
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            responses.add(client.sendAsync(request("POST", "/stock/RUN1234567/sell", "quantity=1"),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        int sold = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            if (response.get().statusCode() == 200) {
+                sold++;
+            }
+        }
+        assertEquals(100, sold);
+        assertEquals(0, stockManager.findStockItem("RUN1234567").getQuantityInStock());
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        System.out.println("metrics");
+        HttpResponse<String> response = send("GET", "/metrics", null);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("sell: COUNT: "));
+    }
+
+    // Helper method to send a request and wait for the response
+    private HttpResponse<String> send(String method, String path, String form) throws Exception {
+        return client.send(request(method, path, form), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Helper method to build a request with an optional form body
+    private HttpRequest request(String method, String path, String form) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + instance.getPort() + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .method(method, form == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+}
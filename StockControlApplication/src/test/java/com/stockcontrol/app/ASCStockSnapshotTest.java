@@ -0,0 +1,89 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for ASCStockSnapshot.
+ */
+public class ASCStockSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private Path snapshotFile;
+    private List<ASCStockItem> stockItems;
+
+    @BeforeEach
+    public void setUp() {
+        // Prepare a few stock items, two sharing a title and description, before each test
+        snapshotFile = ASCStockSnapshot.getSnapshotFile(directory.resolve("AshersSportsCollective.csv"));
+        stockItems = new ArrayList<>();
+        stockItems.add(new ASCStockItem("RUN1234567", "Run-Tech shorts", "High-quality running shorts", 10, 0, 10));
+        stockItems.add(new ASCStockItem("SWM2222222", "4Oceans Goggles", "Hi-tech goggles £", 25, 15, 4));
+        stockItems.add(new ASCStockItem("RUN7654321", "Run-Tech shorts", "High-quality running shorts", 12, 50, 0));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        System.out.println("write");
+        ASCStockSnapshot.write(snapshotFile, stockItems);
+        assertEquals("AshersSportsCollective.csv.snapshot", snapshotFile.getFileName().toString());
+
+        ASCStockSnapshot snapshot = ASCStockSnapshot.open(snapshotFile);
+        assertEquals(3, snapshot.size());
+        List<ASCStockItem> reloaded = snapshot.getStockItems();
+        for (int i = 0; i < stockItems.size(); i++) {
+            assertEquals(stockItems.get(i).toString(), reloaded.get(i).toString());
+        }
+        assertSame(reloaded.get(0).getProductTitle(), reloaded.get(2).getProductTitle());
+    }
+
+    @Test
+    public void testIndexOf() throws IOException {
+        System.out.println("indexOf");
+        for (int i = 0; i < 1000; i++) {
+            stockItems.add(new ASCStockItem("CYC" + i, "Jacket", "Cycling jacket", 50, 0, i));
+        }
+        ASCStockSnapshot.write(snapshotFile, stockItems);
+
+        ASCStockSnapshot snapshot = ASCStockSnapshot.open(snapshotFile);
+        assertEquals(1, snapshot.indexOf("SWM2222222"));
+        assertEquals(3 + 123, snapshot.indexOf("CYC123"));
+        assertEquals(123, snapshot.getStockItem(snapshot.indexOf("CYC123")).getQuantityInStock());
+        assertEquals(-1, snapshot.indexOf("CYC1000"));
+    }
+
+    @Test
+    public void testEmptySnapshot() throws IOException {
+        System.out.println("size");
+        ASCStockSnapshot.write(snapshotFile, List.of());
+        ASCStockSnapshot snapshot = ASCStockSnapshot.open(snapshotFile);
+        assertEquals(0, snapshot.size());
+        assertEquals(-1, snapshot.indexOf("RUN1234567"));
+        assertTrue(snapshot.getStockItems().isEmpty());
+    }
+
+    @Test
+    public void testDamagedSnapshotIsRejected() throws IOException {
+        System.out.println("open");
+        ASCStockSnapshot.write(snapshotFile, stockItems);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshotFile, bytes);
+        assertThrows(IOException.class, () -> ASCStockSnapshot.open(snapshotFile));
+
+        Files.write(snapshotFile, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> ASCStockSnapshot.open(snapshotFile));
+    }
+}
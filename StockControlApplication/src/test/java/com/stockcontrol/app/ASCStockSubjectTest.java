@@ -1,7 +1,11 @@
 package com.stockcontrol.app;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -57,6 +61,126 @@ public class ASCStockSubjectTest {
         assertTrue(((MockObserver) observer2).wasUpdated);
     }
 
+    @Test
+    public void testAsyncDispatchDoesNotWaitForObservers() throws InterruptedException {
+        // Test that a slow observer does not hold up the publishing thread
+        System.out.println("enableAsyncDispatch");
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger updates = new AtomicInteger();
+        ASCStockObserver slowObserver = updatedItem -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            updates.incrementAndGet();
+        };
+        stockSubject.addObserver(slowObserver);
+        stockSubject.enableAsyncDispatch(16, 1, ASCStockSubject.OverflowPolicy.BLOCK);
+        try {
+            ASCStockItem updatedItem = new ASCStockItem("456", "TestProduct", "Test Description", 10, 99, 50);
+            stockSubject.notifyObservers(updatedItem);
+            stockSubject.notifyObservers(updatedItem);
+            assertEquals(0, updates.get());
+
+            release.countDown();
+            assertTrue(stockSubject.awaitDelivery(TimeUnit.SECONDS.toMillis(10)));
+            assertEquals(2, updates.get());
+        } finally {
+            stockSubject.disableAsyncDispatch();
+            stockSubject.removeObserver(slowObserver);
+        }
+        assertFalse(stockSubject.isAsyncDispatchEnabled());
+    }
+
+    @Test
+    public void testCoalescePerProduct() throws InterruptedException {
+        // Test that queued updates for the same product are merged
+        System.out.println("coalesce");
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger updates = new AtomicInteger();
+        ASCStockObserver slowObserver = updatedItem -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            updates.incrementAndGet();
+        };
+        stockSubject.addObserver(slowObserver);
+        stockSubject.enableAsyncDispatch(4, 1, ASCStockSubject.OverflowPolicy.COALESCE_PER_PRODUCT);
+        try {
+            ASCStockItem first = new ASCStockItem("RUN1", "TestProduct", "Test Description", 10, 99, 50);
+            ASCStockItem second = new ASCStockItem("RUN2", "TestProduct", "Test Description", 10, 99, 50);
+            for (int i = 0; i < 100; i++) {
+                stockSubject.notifyObservers(first);
+                stockSubject.notifyObservers(second);
+            }
+            release.countDown();
+            assertTrue(stockSubject.awaitDelivery(TimeUnit.SECONDS.toMillis(10)));
+            // At most the four queued events and the one held by the consumer
+            assertTrue(updates.get() <= 5);
+            assertEquals(200, updates.get() + stockSubject.getCoalescedEventCount());
+        } finally {
+            stockSubject.disableAsyncDispatch();
+            stockSubject.removeObserver(slowObserver);
+        }
+    }
+
+    @Test
+    public void testIdleConsumerParksUntilPublished() throws InterruptedException {
+        // Test that an idle consumer stops polling and is woken by the next event
+        System.out.println("idle consumer");
+        AtomicInteger updates = new AtomicInteger();
+        ASCStockObserver countingObserver = updatedItem -> updates.incrementAndGet();
+        stockSubject.addObserver(countingObserver);
+        stockSubject.enableAsyncDispatch(16, 1, ASCStockSubject.OverflowPolicy.BLOCK);
+        try {
+            Thread consumer = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().equals("ASC-stock-events-0"))
+                    .findFirst().orElseThrow();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (consumer.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(Thread.State.WAITING, consumer.getState());
+
+            stockSubject.notifyObservers(new ASCStockItem("SWM1", "TestProduct", "Test Description", 10, 99, 50));
+            assertTrue(stockSubject.awaitDelivery(TimeUnit.SECONDS.toMillis(10)));
+            assertEquals(1, updates.get());
+        } finally {
+            stockSubject.disableAsyncDispatch();
+            stockSubject.removeObserver(countingObserver);
+        }
+    }
+
+    @Test
+    public void testDropOldestNeverBlocks() {
+        // Test that a full buffer discards the oldest events instead of waiting
+        System.out.println("dropOldest");
+        CountDownLatch release = new CountDownLatch(1);
+        ASCStockObserver slowObserver = updatedItem -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        stockSubject.addObserver(slowObserver);
+        stockSubject.enableAsyncDispatch(4, 1, ASCStockSubject.OverflowPolicy.DROP_OLDEST);
+        try {
+            ASCStockItem updatedItem = new ASCStockItem("CYC1", "TestProduct", "Test Description", 10, 99, 50);
+            for (int i = 0; i < 100; i++) {
+                stockSubject.notifyObservers(updatedItem);
+            }
+            assertTrue(stockSubject.getDroppedEventCount() >= 100 - 4 - 1);
+        } finally {
+            release.countDown();
+            stockSubject.disableAsyncDispatch();
+            stockSubject.removeObserver(slowObserver);
+        }
+    }
+
     private static class MockObserver implements ASCStockObserver {
 
         // A mock observer implementation for testing purposes
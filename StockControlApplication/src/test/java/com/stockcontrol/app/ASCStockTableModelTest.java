@@ -0,0 +1,127 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCStockTableModel.
+ */
+public class ASCStockTableModelTest {
+
+    private ASCStockItemList stockItems;
+    private ASCStockTableModel instance;
+    private List<TableModelEvent> events;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize a model over two stock items and record its events before each test
+        stockItems = new ASCStockItemList();
+        stockItems.add(new ASCStockItem("RUN1234567", "Run-Tech shorts", "High-quality running shorts", 10, 0, 10));
+        stockItems.add(new ASCStockItem("SWM2222222", "4Oceans Goggles", "Hi-tech goggles", 25, 15, 4));
+        instance = new ASCStockTableModel(stockItems);
+        events = new ArrayList<>();
+        instance.addTableModelListener(events::add);
+    }
+
+    @Test
+    public void testGetValueAt() {
+        System.out.println("getValueAt");
+        assertEquals(2, instance.getRowCount());
+        assertEquals(6, instance.getColumnCount());
+        assertEquals("SWM2222222", instance.getValueAt(1, 0));
+        assertEquals(15, instance.getValueAt(1, 4));
+        assertEquals(4, instance.getValueAt(1, 5));
+        assertEquals(Integer.class, instance.getColumnClass(5));
+    }
+
+    @Test
+    public void testStockItemChangedUpdatesOneRow() throws InterruptedException, InvocationTargetException {
+        System.out.println("stockItemChanged");
+        ASCStockItem goggles = stockItems.findByProductCode("SWM2222222");
+        goggles.removeFromStock(1);
+        instance.stockItemChanged(goggles);
+        SwingUtilities.invokeAndWait(() -> {
+        });
+
+        assertEquals(1, events.size());
+        assertEquals(TableModelEvent.UPDATE, events.get(0).getType());
+        assertEquals(1, events.get(0).getFirstRow());
+        assertEquals(1, events.get(0).getLastRow());
+        assertEquals(3, instance.getValueAt(1, 5));
+    }
+
+    @Test
+    public void testAddedAndRemovedItems() throws InterruptedException, InvocationTargetException {
+        System.out.println("refresh");
+        ASCStockItem helmet = new ASCStockItem("CYC3333333", "Helmet", "Cycling helmet", 40, 0, 6);
+        stockItems.add(helmet);
+        instance.stockItemChanged(helmet);
+        SwingUtilities.invokeAndWait(() -> {
+        });
+
+        assertEquals(3, instance.getRowCount());
+        assertEquals(TableModelEvent.INSERT, events.get(0).getType());
+        assertEquals(2, events.get(0).getFirstRow());
+
+        // A removed row may have been anywhere, so the whole table is refreshed
+        stockItems.remove(0);
+        assertNull(instance.getValueAt(2, 0));
+        instance.refresh();
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assertEquals(2, instance.getRowCount());
+        assertEquals(2, events.size());
+        assertEquals(TableModelEvent.UPDATE, events.get(1).getType());
+        assertEquals(Integer.MAX_VALUE, events.get(1).getLastRow());
+
+        // Emptying the store announces every row as deleted
+        stockItems.remove(0);
+        stockItems.remove(0);
+        instance.refresh();
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assertEquals(0, instance.getRowCount());
+        assertEquals(TableModelEvent.DELETE, events.get(2).getType());
+        assertEquals(0, events.get(2).getFirstRow());
+        assertEquals(1, events.get(2).getLastRow());
+    }
+
+    @Test
+    public void testFilter() throws InterruptedException, InvocationTargetException {
+        System.out.println("setFilter");
+        ASCStockItem goggles = stockItems.findByProductCode("SWM2222222");
+        SwingUtilities.invokeAndWait(() -> instance.setFilter(List.of(goggles)));
+        assertEquals(1, instance.getRowCount());
+        assertEquals("SWM2222222", instance.getValueAt(0, 0));
+
+        // Items added while filtered are left out until the filter is cleared
+        ASCStockItem helmet = new ASCStockItem("CYC3333333", "Helmet", "Cycling helmet", 40, 0, 6);
+        stockItems.add(helmet);
+        instance.stockItemChanged(helmet);
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assertEquals(1, instance.getRowCount());
+
+        // A change repaints the item's row only if the item is shown
+        events.clear();
+        goggles.removeFromStock(1);
+        instance.stockItemChanged(goggles);
+        instance.stockItemChanged(stockItems.findByProductCode("RUN1234567"));
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assertEquals(1, events.size());
+        assertEquals(0, events.get(0).getFirstRow());
+        assertEquals(0, events.get(0).getLastRow());
+
+        SwingUtilities.invokeAndWait(() -> instance.setFilter(null));
+        assertEquals(3, instance.getRowCount());
+        assertEquals("CYC3333333", instance.getValueAt(2, 0));
+    }
+}
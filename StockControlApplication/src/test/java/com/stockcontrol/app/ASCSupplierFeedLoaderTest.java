@@ -0,0 +1,89 @@
+package com.stockcontrol.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ASCSupplierFeedLoader.
+ */
+public class ASCSupplierFeedLoaderTest {
+
+    @Test
+    public void testFeedsLoadInParallel() {
+        System.out.println("load");
+        // Every feed waits for the others inside parse, so a sequential load would time out
+        CyclicBarrier allParsing = new CyclicBarrier(3);
+        List<TestFeed> feeds = List.of(new TestFeed("RUN", allParsing), new TestFeed("SWM", allParsing),
+                new TestFeed("CYC", allParsing));
+
+        List<ASCStockItem> items = new ASCSupplierFeedLoader().load(feeds);
+
+        List<String> codes = new ArrayList<>();
+        for (ASCStockItem item : items) {
+            codes.add(item.getProductCode());
+        }
+        assertEquals(List.of("RUN-1-TEST", "RUN-2-TEST", "SWM-1-TEST", "SWM-2-TEST", "CYC-1-TEST", "CYC-2-TEST"),
+                codes);
+    }
+
+    @Test
+    public void testMergeSupplierItems() {
+        System.out.println("mergeSupplierItems");
+        ASCStockItemList stockItems = new ASCStockItemList();
+        stockItems.add(new ASCStockItem("RUN-1-TEST", "Item", "Test item", 1, 0, 5));
+        List<ASCStockItem> supplierItems = new ASCSupplierFeedLoader()
+                .load(List.of(new TestFeed("RUN", null), new TestFeed("RUN", null)));
+
+        ASCMergeReport report = ASCStockManager.mergeSupplierItems(stockItems, supplierItems);
+
+        assertEquals(1, report.getAdded());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(2, report.getConflicts());
+        assertEquals(2, stockItems.size());
+    }
+
+    // A feed of two items with numeric codes, mapped into a department
+    private static class TestFeed implements ASCSupplierFeed<Integer> {
+
+        private final String department;
+        private final CyclicBarrier barrier;
+
+        TestFeed(String department, CyclicBarrier barrier) {
+            this.department = department;
+            this.barrier = barrier;
+        }
+
+        @Override
+        public String getSupplierName() {
+            return "Test " + department;
+        }
+
+        @Override
+        public List<Integer> parse() {
+            if (barrier != null) {
+                try {
+                    barrier.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                    throw new IllegalStateException("Feeds were not parsed in parallel", e);
+                }
+            }
+            return List.of(1, 2);
+        }
+
+        @Override
+        public String getASCProductCode(Integer supplierItem) {
+            return department + "-" + supplierItem + "-TEST";
+        }
+
+        @Override
+        public ASCStockItem adapt(Integer supplierItem, String productCode) {
+            return new ASCStockItem(productCode, "Item", "Test item", supplierItem, 0, supplierItem);
+        }
+    }
+}
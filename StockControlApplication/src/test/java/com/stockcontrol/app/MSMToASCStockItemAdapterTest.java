@@ -1,6 +1,7 @@
 package com.stockcontrol.app;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
 
 /**
@@ -32,4 +33,26 @@ public class MSMToASCStockItemAdapterTest {
                 "RUN-234567-MSM-RunEverywhere - Great trainers for running cross country - UNIT PRICE: £88.50 - QTY: 50",
                 adapter.toString());
     }
+
+    /**
+     * Test that the adapted product code and name are worked out only once.
+     */
+    @Test
+    public void testAdaptedValuesAreReused() {
+        MSMStockItem msmStockItem = new MSMStockItem(3, "345678",
+                "Cycling helmet                                              Lightweight helmet",
+                4999, 12);
+
+        MSMToASCStockItemAdapter adapter = new MSMToASCStockItemAdapter(msmStockItem);
+
+        assertEquals("CYC-345678-MSM", adapter.getProductCode());
+        assertSame(adapter.getProductCode(), adapter.getProductCode());
+        assertSame(adapter.getProductTitle(), adapter.getProductTitle());
+        assertSame(msmStockItem.getName(), msmStockItem.getName());
+        assertSame(msmStockItem, adapter.getMSMStockItem());
+        assertEquals("UNK-345678-MSM",
+                MSMToASCStockItemAdapter.getASCProductCode(new MSMStockItem(9, "345678", "", 0, 0)));
+        assertEquals("UNK-345678-MSM",
+                MSMToASCStockItemAdapter.getASCProductCode(new MSMStockItem(0, "345678", "", 0, 0)));
+    }
 }
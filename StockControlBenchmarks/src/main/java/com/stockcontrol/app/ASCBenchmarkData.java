@@ -0,0 +1,195 @@
+package com.stockcontrol.app;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates catalogs and sales files for the benchmarks. Data is generated
+ * from a fixed seed, so every run measures the same input, and written to
+ * temporary directories, so the application's resources are never touched.
+ */
+final class ASCBenchmarkData {
+
+    static final long SEED = 20231223L;
+
+    private static final String[] DEPARTMENTS = {"RUN", "SWM", "CYC"};
+    private static final String[] TITLES = {"Run-Tech Running shorts", "Cycle4ever Cycling jacket",
+        "4Oceans Goggles", "LakeTech Swimhat", "RunEverywhere trainers", "Hi-vis gilet"};
+    private static final String[] DESCRIPTIONS = {"High-quality running shorts",
+        "Super lightweight hi-vis jacket for the extreme cyclist",
+        "Super Hi-tech goggles for the professional and extreme environment swimmer",
+        "General purpose latex swimhat suitable for beginner and intermediate swimmers",
+        "Great trainers for running cross country"};
+    private static final int MSM_NAME_WIDTH = 60;
+    private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private ASCBenchmarkData() {
+    }
+
+    /**
+     * Generates ASC stock items with distinct product codes.
+     *
+     * @param count The number of items.
+     * @return The generated items.
+     */
+    static List<ASCStockItem> generateASCStock(int count) {
+        Random random = new Random(SEED);
+        List<ASCStockItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String productCode = DEPARTMENTS[i % DEPARTMENTS.length] + String.format("%07d", i);
+            items.add(new ASCStockItem(productCode, TITLES[random.nextInt(TITLES.length)],
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)], 1 + random.nextInt(200),
+                    random.nextInt(100), random.nextInt(50)));
+        }
+        return items;
+    }
+
+    /**
+     * Generates Mengda's Sports Mart stock items with distinct product codes.
+     *
+     * @param count The number of items.
+     * @return The generated items.
+     */
+    static List<MSMStockItem> generateMSMStock(int count) {
+        Random random = new Random(SEED + 1);
+        List<MSMStockItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = TITLES[random.nextInt(TITLES.length)];
+            String nameAndDescription = name + " ".repeat(MSM_NAME_WIDTH - name.length())
+                    + DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)];
+            items.add(new MSMStockItem(1 + i % DEPARTMENTS.length, String.format("%06d", i), nameAndDescription,
+                    100 + random.nextInt(20000), random.nextInt(50)));
+        }
+        return items;
+    }
+
+    /**
+     * Writes an ASC catalog CSV file.
+     *
+     * @param file The catalog file.
+     * @param items The stock items to write.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeASCCatalog(Path file, List<ASCStockItem> items) throws IOException {
+        ASCStockPersister.writeCatalog(file.toString(), items);
+    }
+
+    /**
+     * Writes a Mengda's Sports Mart catalog CSV file.
+     *
+     * @param file The catalog file.
+     * @param items The stock items to write.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeMSMCatalog(Path file, List<MSMStockItem> items) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (MSMStockItem item : items) {
+                writer.write(item.getDepartmentId() + "," + item.getCode() + "," + item.getName()
+                        + " ".repeat(MSM_NAME_WIDTH - item.getName().length()) + item.getDescription() + ","
+                        + item.getUnitPrice() + "," + item.getQuantityInStock());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes sales transaction files, one minute apart, selling random items.
+     *
+     * @param directory The directory to write the files to.
+     * @param fileCount The number of files.
+     * @param salesPerFile The number of sales in each file.
+     * @param items The stock items to sell.
+     * @throws IOException If a file cannot be written.
+     */
+    static void writeSalesFiles(Path directory, int fileCount, int salesPerFile, List<ASCStockItem> items)
+            throws IOException {
+        Random random = new Random(SEED + 2);
+        LocalDateTime dateTime = LocalDateTime.of(2023, 12, 23, 9, 0);
+        for (int f = 0; f < fileCount; f++) {
+            Path file = directory.resolve("SalesTransactions_" + dateTime.format(FILE_NAME_FORMATTER) + ".csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int s = 0; s < salesPerFile; s++) {
+                    ASCStockItem item = items.get(random.nextInt(items.size()));
+                    writer.write(ASCSalesJournal.formatRecord(dateTime.plusSeconds(s).format(DATE_TIME_FORMATTER),
+                            item.getProductCode(), 1 + random.nextInt(5), item.getUnitPricePounds(),
+                            item.getUnitPricePence()));
+                    writer.newLine();
+                }
+            }
+            dateTime = dateTime.plusMinutes(1);
+        }
+    }
+
+    /**
+     * Writes one compacted sales segment per day, starting on 1 January 2023,
+     * each selling random items at random times of the day.
+     *
+     * @param directory The directory to write the segments to.
+     * @param dayCount The number of days.
+     * @param salesPerDay The number of sales in each day.
+     * @param items The stock items to sell.
+     * @throws IOException If a segment cannot be written.
+     */
+    static void writeSalesSegments(Path directory, int dayCount, int salesPerDay, List<ASCStockItem> items)
+            throws IOException {
+        Random random = new Random(SEED + 3);
+        LocalDate day = LocalDate.of(2023, 1, 1);
+        for (int d = 0; d < dayCount; d++) {
+            List<ASCSalesItem> salesItems = new ArrayList<>(salesPerDay);
+            for (int s = 0; s < salesPerDay; s++) {
+                ASCStockItem item = items.get(random.nextInt(items.size()));
+                String dateTime = day.atStartOfDay().plusSeconds(random.nextInt(24 * 60 * 60))
+                        .format(DATE_TIME_FORMATTER);
+                salesItems.add(new ASCSalesItem(dateTime, item.getProductCode(), 1 + random.nextInt(5),
+                        item.getUnitPricePounds(), item.getUnitPricePence()));
+            }
+            ASCSalesSegment.write(ASCSalesSegment.getSegmentFile(directory, day.format(DAY_FORMATTER)), salesItems,
+                    Collections.emptyMap());
+            day = day.plusDays(1);
+        }
+    }
+
+    /**
+     * Creates a temporary directory for generated data.
+     *
+     * @return The directory.
+     * @throws IOException If the directory cannot be created.
+     */
+    static Path createDirectory() throws IOException {
+        return Files.createTempDirectory("asc-benchmark-");
+    }
+
+    /**
+     * Deletes a directory created by {@link #createDirectory} and everything
+     * in it.
+     *
+     * @param directory The directory.
+     * @throws IOException If the directory cannot be listed.
+     */
+    static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.stockcontrol.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks synchronous delivery of a stock update to a number of observers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCNotifyObserversBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int observerCount;
+
+    private final List<ASCStockObserver> observers = new ArrayList<>();
+    private final ASCStockItem stockItem = new ASCStockItem("RUN1234567", "Run-Tech shorts",
+            "High-quality running shorts", 10, 0, 10);
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        ASCStockSubject subject = ASCStockSubject.getInstance();
+        subject.disableAsyncDispatch();
+        for (int i = 0; i < observerCount; i++) {
+            ASCStockObserver observer = item -> blackhole.consume(item.getQuantityInStock());
+            observers.add(observer);
+            subject.addObserver(observer);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (ASCStockObserver observer : observers) {
+            ASCStockSubject.getInstance().removeObserver(observer);
+        }
+        observers.clear();
+    }
+
+    @Benchmark
+    public void notifyObservers() {
+        ASCStockSubject.getInstance().notifyObservers(stockItem);
+    }
+}
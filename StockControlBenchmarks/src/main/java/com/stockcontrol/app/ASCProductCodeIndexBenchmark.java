@@ -0,0 +1,65 @@
+package com.stockcontrol.app;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks product code range queries through the product code index,
+ * against filtering the whole stock and building the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCProductCodeIndexBenchmark {
+
+    private static final String FROM_CODE = "RUN0100000";
+    private static final String TO_CODE = "RUN0100999";
+
+    @Param({"10000", "1000000"})
+    public int catalogSize;
+
+    private List<ASCStockItem> stockItems;
+    private ASCProductCodeIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stockItems = ASCBenchmarkData.generateASCStock(catalogSize);
+        index = new ASCProductCodeIndex();
+        index.addAll(stockItems);
+    }
+
+    @Benchmark
+    public List<ASCStockItem> findByRange() {
+        return index.findByRange(FROM_CODE, TO_CODE);
+    }
+
+    @Benchmark
+    public List<ASCStockItem> filterByRange() {
+        return stockItems.stream().filter(item -> item.getProductCode().compareTo(FROM_CODE) >= 0
+                && item.getProductCode().compareTo(TO_CODE) <= 0).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ASCProductCodeIndex buildIndex() {
+        ASCProductCodeIndex built = new ASCProductCodeIndex();
+        built.addAll(stockItems);
+        return built;
+    }
+}
@@ -0,0 +1,71 @@
+package com.stockcontrol.app;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks searching product titles and descriptions through the search
+ * index, against building the index and scanning the stock for a substring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCProductSearchBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int catalogSize;
+
+    @Param({"goggles", "hi-vis jac"})
+    public String query;
+
+    private List<ASCStockItem> stockItems;
+    private ASCProductSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stockItems = ASCBenchmarkData.generateASCStock(catalogSize);
+        index = new ASCProductSearchIndex();
+        index.addAll(stockItems);
+    }
+
+    @Benchmark
+    public List<ASCStockItem> search() {
+        return index.search(query);
+    }
+
+    @Benchmark
+    public long scanTitlesAndDescriptions() {
+        String text = query.toLowerCase();
+        long matches = 0;
+        for (ASCStockItem item : stockItems) {
+            if (item.getProductTitle().toLowerCase().contains(text)
+                    || item.getProductDescription().toLowerCase().contains(text)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ASCProductSearchIndex buildIndex() {
+        ASCProductSearchIndex built = new ASCProductSearchIndex();
+        built.addAll(stockItems);
+        return built;
+    }
+}
@@ -0,0 +1,58 @@
+package com.stockcontrol.app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks loading the sales data from a directory of transaction files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCSalesDataBenchmark {
+
+    private static final int STOCK_SIZE = 1000;
+
+    @Param({"10", "1000"})
+    public int fileCount;
+
+    @Param({"100"})
+    public int salesPerFile;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = ASCBenchmarkData.createDirectory();
+        ASCBenchmarkData.writeSalesFiles(directory, fileCount, salesPerFile,
+                ASCBenchmarkData.generateASCStock(STOCK_SIZE));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ASCBenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public List<ASCSalesItem> loadSalesData() {
+        return ASCSalesItem.loadSalesDataFromDirectory(directory.toString());
+    }
+}
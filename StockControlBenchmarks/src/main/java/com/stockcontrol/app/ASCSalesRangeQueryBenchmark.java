@@ -0,0 +1,76 @@
+package com.stockcontrol.app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks time-range queries over a year of compacted sales, against
+ * loading the whole sales history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCSalesRangeQueryBenchmark {
+
+    private static final int STOCK_SIZE = 1000;
+    private static final int DAY_COUNT = 365;
+
+    @Param({"1000"})
+    public int salesPerDay;
+
+    private Path directory;
+    private ASCSalesIndex index;
+    private long dayStart;
+    private long hourStart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = ASCBenchmarkData.createDirectory();
+        ASCBenchmarkData.writeSalesSegments(directory, DAY_COUNT, salesPerDay,
+                ASCBenchmarkData.generateASCStock(STOCK_SIZE));
+        index = new ASCSalesIndex(directory.toString());
+        LocalDateTime midsummer = LocalDateTime.of(2023, 6, 21, 0, 0);
+        dayStart = midsummer.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        hourStart = midsummer.plusHours(12).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ASCBenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public List<ASCSalesItem> queryHour() throws IOException {
+        return index.getSalesItems(hourStart, hourStart + TimeUnit.HOURS.toMillis(1));
+    }
+
+    @Benchmark
+    public List<ASCSalesItem> queryDay() throws IOException {
+        return index.getSalesItems(dayStart, dayStart + TimeUnit.DAYS.toMillis(1));
+    }
+
+    @Benchmark
+    public List<ASCSalesItem> loadAllSales() {
+        return ASCSalesItem.loadSalesDataFromDirectory(directory.toString());
+    }
+}
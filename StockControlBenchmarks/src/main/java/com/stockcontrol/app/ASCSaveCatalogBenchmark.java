@@ -0,0 +1,62 @@
+package com.stockcontrol.app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks saving the stock to the catalog CSV file, as
+ * ASCStockManager.saveStockToCSV does when background persistence is off,
+ * and writing the binary stock snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCSaveCatalogBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private Path directory;
+    private Path catalog;
+    private List<ASCStockItem> stockItems;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = ASCBenchmarkData.createDirectory();
+        catalog = directory.resolve("AshersSportsCollective.csv");
+        stockItems = ASCBenchmarkData.generateASCStock(catalogSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ASCBenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void saveStockToCSV() throws IOException {
+        ASCStockPersister.writeCatalog(catalog.toString(), stockItems);
+    }
+
+    @Benchmark
+    public void writeStockSnapshot() throws IOException {
+        ASCStockSnapshot.write(ASCStockSnapshot.getSnapshotFile(catalog), stockItems);
+    }
+}
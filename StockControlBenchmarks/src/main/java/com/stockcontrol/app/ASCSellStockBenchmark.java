@@ -0,0 +1,79 @@
+package com.stockcontrol.app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks selling a product that is in stock, which looks it up, removes
+ * the quantity, notifies observers and journals the sale, and one that is
+ * not, which stops after the lookup. The journal is written to a temporary
+ * directory with the given sync policy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCSellStockBenchmark {
+
+    private static final long SYNC_INTERVAL_MILLIS = 1000;
+    private static final String UNKNOWN_PRODUCT_CODE = "RUN9999999-MISSING";
+
+    @Param({"100000"})
+    public int catalogSize;
+
+    @Param({"EVERY_WRITE", "INTERVAL"})
+    public ASCSalesJournal.SyncPolicy syncPolicy;
+
+    private Path directory;
+    private ASCStockManager stockManager;
+    private String productCode;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = ASCBenchmarkData.createDirectory();
+        stockManager = new ASCStockManager(new ASCStockItemList(), false);
+        List<ASCStockItem> stockItems = ASCBenchmarkData.generateASCStock(catalogSize);
+        stockManager.getStockItems().addAll(stockItems);
+        stockManager.setSalesJournal(new ASCSalesJournal(directory.toString(), syncPolicy,
+                syncPolicy == ASCSalesJournal.SyncPolicy.EVERY_WRITE ? 0 : SYNC_INTERVAL_MILLIS));
+        productCode = stockItems.get(catalogSize / 2).getProductCode();
+    }
+
+    @Setup(Level.Iteration)
+    public void restock() {
+        stockManager.findStockItem(productCode).setQuantityInStock(Integer.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stockManager.shutdown();
+        ASCBenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public ASCSaleResult sellStockHit() {
+        return stockManager.sellStock(productCode, 1);
+    }
+
+    @Benchmark
+    public ASCSaleResult sellStockMiss() {
+        return stockManager.sellStock(UNKNOWN_PRODUCT_CODE, 1);
+    }
+}
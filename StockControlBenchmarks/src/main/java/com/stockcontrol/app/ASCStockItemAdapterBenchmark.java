@@ -0,0 +1,73 @@
+package com.stockcontrol.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks reading every field of adapted Mengda's Sports Mart items against
+ * native ASC items holding the same values, as the stock table and the merge
+ * do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCStockItemAdapterBenchmark {
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    private List<ASCStockItem> adaptedItems;
+    private List<ASCStockItem> nativeItems;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adaptedItems = new ArrayList<>(catalogSize);
+        nativeItems = new ArrayList<>(catalogSize);
+        for (MSMStockItem msmItem : ASCBenchmarkData.generateMSMStock(catalogSize)) {
+            ASCStockItem adapted = new MSMToASCStockItemAdapter(msmItem);
+            adaptedItems.add(adapted);
+            nativeItems.add(new ASCStockItem(adapted.getProductCode(), adapted.getProductTitle(),
+                    adapted.getProductDescription(), adapted.getUnitPricePounds(), adapted.getUnitPricePence(),
+                    adapted.getQuantityInStock()));
+        }
+    }
+
+    @Benchmark
+    public void readAdaptedItems(Blackhole blackhole) {
+        readItems(adaptedItems, blackhole);
+    }
+
+    @Benchmark
+    public void readNativeItems(Blackhole blackhole) {
+        readItems(nativeItems, blackhole);
+    }
+
+    // Helper method to read each field of each item
+    private static void readItems(List<ASCStockItem> items, Blackhole blackhole) {
+        for (ASCStockItem item : items) {
+            blackhole.consume(item.getProductCode());
+            blackhole.consume(item.getProductTitle());
+            blackhole.consume(item.getProductDescription());
+            blackhole.consume(item.getUnitPricePounds());
+            blackhole.consume(item.getUnitPricePence());
+            blackhole.consume(item.getQuantityInStock());
+        }
+    }
+}
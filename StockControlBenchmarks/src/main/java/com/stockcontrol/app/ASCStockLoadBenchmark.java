@@ -0,0 +1,63 @@
+package com.stockcontrol.app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks parsing the ASC and Mengda's Sports Mart catalogs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCStockLoadBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private Path directory;
+    private Path ascCatalog;
+    private Path msmCatalog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = ASCBenchmarkData.createDirectory();
+        ascCatalog = directory.resolve("AshersSportsCollective.csv");
+        msmCatalog = directory.resolve("MengdasSportyMart.csv");
+        ASCBenchmarkData.writeASCCatalog(ascCatalog, ASCBenchmarkData.generateASCStock(catalogSize));
+        ASCBenchmarkData.writeMSMCatalog(msmCatalog, ASCBenchmarkData.generateMSMStock(catalogSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ASCBenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void loadASCStock(Blackhole blackhole) {
+        ASCStockItem.loadStock(ascCatalog, blackhole::consume);
+    }
+
+    @Benchmark
+    public List<MSMStockItem> loadMSMStock() {
+        return MSMStockItem.loadStock(msmCatalog);
+    }
+}
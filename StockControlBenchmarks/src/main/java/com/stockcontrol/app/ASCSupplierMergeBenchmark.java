@@ -0,0 +1,59 @@
+package com.stockcontrol.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the merge of Mengda's Sports Mart stock into the ASC stock that
+ * the ASCStockManager constructor performs. A tenth of the supplier items are
+ * already in stock, so the merge sees both new and duplicate items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ASCSupplierMergeBenchmark {
+
+    private static final int DUPLICATE_FRACTION = 10;
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private List<ASCStockItem> ascStock;
+    private List<MSMStockItem> msmStock;
+    private ASCStockStore stockItems;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        msmStock = ASCBenchmarkData.generateMSMStock(catalogSize);
+        ascStock = new ArrayList<>(ASCBenchmarkData.generateASCStock(catalogSize));
+        for (int i = 0; i < msmStock.size(); i += DUPLICATE_FRACTION) {
+            ascStock.add(new MSMToASCStockItemAdapter(msmStock.get(i)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStock() {
+        stockItems = new ASCStockItemList(ascStock);
+    }
+
+    @Benchmark
+    public ASCMergeReport mergeSupplierStock() {
+        return ASCStockManager.mergeSupplierStock(stockItems, msmStock);
+    }
+}